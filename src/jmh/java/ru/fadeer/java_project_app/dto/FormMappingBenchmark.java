@@ -0,0 +1,73 @@
+package ru.fadeer.java_project_app.dto;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.fadeer.java_project_app.TestData;
+import ru.fadeer.java_project_app.dto.Assignments.AssignmentNewForm;
+import ru.fadeer.java_project_app.dto.Brigade.BrigadeNewForm;
+import ru.fadeer.java_project_app.dto.Brigade.BrigadeUpdateForm;
+import ru.fadeer.java_project_app.dto.Request.RequestNewForm;
+import ru.fadeer.java_project_app.model.Assignment;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Конвертация форм в новые сущности, как при создании через страницы и JSON API
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FormMappingBenchmark {
+
+	private RequestNewForm requestForm;
+	private BrigadeNewForm brigadeForm;
+	private BrigadeUpdateForm brigadeUpdateForm;
+	private AssignmentNewForm assignmentForm;
+
+	@Setup
+	public void setUp() {
+		requestForm = new RequestNewForm();
+		requestForm.setAccidentType("Прорыв трубы");
+		requestForm.setPriority(Request.Priority.High);
+		requestForm.setAddress("ул. Ленина, 1");
+		requestForm.setApplicantName("Иванов");
+		requestForm.setDescription("Вода на проезжей части");
+
+		brigadeForm = new BrigadeNewForm();
+		brigadeForm.setBrigadeCode("BR-17");
+		brigadeForm.setVehicleNumber("А123ВС77");
+		brigadeForm.setForemanName(TestData.FOREMAN_NAME);
+		brigadeForm.setForemanPhone(TestData.FOREMAN_PHONE);
+
+		Brigade brigade = brigadeForm.toNewBrigade();
+		brigadeUpdateForm = new BrigadeUpdateForm(brigade);
+
+		assignmentForm = new AssignmentNewForm();
+		assignmentForm.setStartTime(LocalDateTime.now());
+	}
+
+	@Benchmark
+	public Request requestForm() {
+		return requestForm.toNewRequest();
+	}
+
+	@Benchmark
+	public Brigade brigadeForm() {
+		return brigadeForm.toNewBrigade();
+	}
+
+	@Benchmark
+	public Brigade brigadeUpdateForm() {
+		return brigadeUpdateForm.toBrigade();
+	}
+
+	@Benchmark
+	public Assignment assignmentForm() {
+		return assignmentForm.toNewAssignment();
+	}
+}
@@ -0,0 +1,52 @@
+package ru.fadeer.java_project_app.model.Converters;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Конвертеры перечислений при чтении и записи строк: по каждому значению перечисления туда и
+/// обратно за один вызов
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConverterBenchmark {
+
+	private final RequestStatusConverter requestStatus = new RequestStatusConverter();
+	private final RequestPriorityConverter requestPriority = new RequestPriorityConverter();
+	private final BrigadeStatusConverter brigadeStatus = new BrigadeStatusConverter();
+
+	private final Request.Status[] requestStatuses = Request.Status.values();
+	private final Request.Priority[] priorities = Request.Priority.values();
+	private final Brigade.Status[] brigadeStatuses = Brigade.Status.values();
+
+	@Benchmark
+	public void requestStatusRoundTrip(Blackhole blackhole) {
+		for (Request.Status status : requestStatuses) {
+			blackhole.consume(requestStatus.convertToEntityAttribute(
+					requestStatus.convertToDatabaseColumn(status)));
+		}
+	}
+
+	@Benchmark
+	public void priorityRoundTrip(Blackhole blackhole) {
+		for (Request.Priority priority : priorities) {
+			blackhole.consume(requestPriority.convertToEntityAttribute(
+					requestPriority.convertToDatabaseColumn(priority)));
+		}
+	}
+
+	@Benchmark
+	public void brigadeStatusRoundTrip(Blackhole blackhole) {
+		for (Brigade.Status status : brigadeStatuses) {
+			blackhole.consume(brigadeStatus.convertToEntityAttribute(
+					brigadeStatus.convertToDatabaseColumn(status)));
+		}
+	}
+}
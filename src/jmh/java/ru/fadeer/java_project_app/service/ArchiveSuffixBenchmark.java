@@ -0,0 +1,31 @@
+package ru.fadeer.java_project_app.service;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/// Проверка суффикса архивной версии _vN в BrigadeService: прежняя форма String.matches, которая
+/// компилирует шаблон при каждом вызове, и hasArchiveSuffix с заранее скомпилированным шаблоном
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ArchiveSuffixBenchmark {
+
+	@Param({"BR-17", "BR-17_v12", "А123ВС77"})
+	public String value;
+
+	@Benchmark
+	public boolean stringMatches() {
+		return value.matches(".*_v\\d+$");
+	}
+
+	@Benchmark
+	public boolean compiledPattern() {
+		return BrigadeService.hasArchiveSuffix(value);
+	}
+}
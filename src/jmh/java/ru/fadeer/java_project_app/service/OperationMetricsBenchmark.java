@@ -0,0 +1,58 @@
+package ru.fadeer.java_project_app.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+/// Накладные расходы замеров операций сервисов: пустая операция без замера и с замером успеха и
+/// отказа. Разница между direct и success - цена таймера на каждой операции
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class OperationMetricsBenchmark {
+
+	private static final IllegalArgumentException REJECTION =
+			new IllegalArgumentException("Бригада с id: 42 не найдена.");
+
+	private OperationMetrics.Operation operation;
+
+	@Setup
+	public void setUp() {
+		operation = new OperationMetrics(new SimpleMeterRegistry()).operation("benchmark");
+	}
+
+	@Benchmark
+	public Integer direct() {
+		return work();
+	}
+
+	@Benchmark
+	public Integer success() {
+		return operation.record(OperationMetricsBenchmark::work);
+	}
+
+	@Benchmark
+	public void rejected(Blackhole blackhole) {
+		try {
+			operation.record(() -> {
+				throw REJECTION;
+			});
+		} catch (IllegalArgumentException e) {
+			blackhole.consume(e);
+		}
+	}
+
+	private static Integer work() {
+		Blackhole.consumeCPU(10);
+		return 1;
+	}
+}
@@ -0,0 +1,106 @@
+package ru.fadeer.java_project_app.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.fadeer.java_project_app.dto.Assignments.AssignmentPhaseCounts;
+import ru.fadeer.java_project_app.model.Assignment;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Вычисление статусов заявки и бригады из setNormalRequestStatus и updateBrigadeStatus. Подсчет
+/// фаз повторяет агрегирующий запрос countPhasesByRequest над назначениями в памяти. Количество
+/// назначений: обычная заявка (1), крупная авария (5) и сводная заявка (50)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StatusDerivationBenchmark {
+
+	@Param({"1", "5", "50"})
+	public int assignments;
+
+	private List<Assignment> requestAssignments;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		LocalDateTime now = LocalDateTime.now();
+		requestAssignments = new ArrayList<>(assignments);
+		for (int i = 0; i < assignments; i++) {
+			Assignment assignment = new Assignment();
+			assignment.setAssignmentTime(now.minusHours(2));
+			// Примерно треть назначений в пути, треть на месте, треть завершены
+			int phase = random.nextInt(3);
+			if (phase > 0) {
+				assignment.setStartTime(now.minusHours(1));
+			}
+			if (phase > 1) {
+				assignment.setEndTime(now);
+			}
+			requestAssignments.add(assignment);
+		}
+	}
+
+	@Benchmark
+	public Request.Status requestStatus() {
+		return AssignmentService.deriveRequestStatus(count(requestAssignments, false));
+	}
+
+	@Benchmark
+	public Brigade.Status brigadeStatus() {
+		return AssignmentService.deriveBrigadeStatus(count(requestAssignments, true));
+	}
+
+	/// Подсчет назначений по фазам, openOnly - только незавершенные
+	private static AssignmentPhaseCounts count(List<Assignment> assignments, boolean openOnly) {
+		long pending = 0;
+		long started = 0;
+		long ended = 0;
+		for (Assignment a : assignments) {
+			if (a.getEndTime() != null) {
+				ended++;
+			} else if (a.getStartTime() != null) {
+				started++;
+			} else {
+				pending++;
+			}
+		}
+		return openOnly
+				? new Counts(pending + started, pending, started, 0)
+				: new Counts(pending + started + ended, pending, started, ended);
+	}
+
+	private record Counts(long total, long pending, long started, long ended)
+			implements AssignmentPhaseCounts {
+
+		@Override
+		public long getTotal() {
+			return total;
+		}
+
+		@Override
+		public long getPending() {
+			return pending;
+		}
+
+		@Override
+		public long getStarted() {
+			return started;
+		}
+
+		@Override
+		public long getEnded() {
+			return ended;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package ru.fadeer.java_project_app.Controllers.Api;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.fadeer.java_project_app.dto.Analytics.BrigadeUtilization;
+import ru.fadeer.java_project_app.dto.Analytics.ShiftUtilization;
+import ru.fadeer.java_project_app.service.AnalyticsService;
+
+/// Класс-контроллер аналитики загрузки бригад. Промежуток задается днями, from и to включительно,
+/// смена относится к дню, в который она началась
+@RestController
+@RequestMapping("/api/v1/analytics")
+public class AnalyticsApiController {
+
+	private final AnalyticsService analyticsService;
+
+	public AnalyticsApiController(AnalyticsService analyticsService) {
+		this.analyticsService = analyticsService;
+	}
+
+	/// Загрузка всех бригад за промежуток
+	@GetMapping("/brigades")
+	public List<BrigadeUtilization> brigades(
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return analyticsService.findBrigades(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+	}
+
+	/// Загрузка одной бригады по сменам за промежуток
+	@GetMapping("/brigades/{id}/shifts")
+	public List<ShiftUtilization> shifts(@PathVariable Integer id,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return analyticsService.findShifts(id, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+	}
+
+	/// Внеочередное обновление представлений
+	@PostMapping("/refresh")
+	public Map<String, Object> refresh() {
+		analyticsService.refresh();
+		return Map.of("refreshedAt", analyticsService.getRefreshedAt());
+	}
+}
@@ -0,0 +1,48 @@
+package ru.fadeer.java_project_app.Controllers.Api;
+
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+import ru.fadeer.java_project_app.dto.Api.ApiError;
+import ru.fadeer.java_project_app.service.ConflictRetry;
+
+/// Перевод ошибок JSON API в ответы с телом ApiError. Нарушения правил предметной области из
+/// сервисов приходят как IllegalArgumentException и отдаются со статусом 400, конфликты
+/// параллельных изменений, которые не разрешились повторами, - со статусом 409
+@RestControllerAdvice(basePackageClasses = ApiExceptionHandler.class)
+public class ApiExceptionHandler {
+
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ResponseEntity<ApiError> handleIllegalArgument(IllegalArgumentException e) {
+		return error(HttpStatus.BAD_REQUEST, e.getMessage());
+	}
+
+	@ExceptionHandler({ConcurrencyFailureException.class, OptimisticLockException.class})
+	public ResponseEntity<ApiError> handleConflict(RuntimeException e) {
+		return error(HttpStatus.CONFLICT, ConflictRetry.CONFLICT_MESSAGE);
+	}
+
+	@ExceptionHandler(MethodArgumentNotValidException.class)
+	public ResponseEntity<ApiError> handleNotValid(MethodArgumentNotValidException e) {
+		FieldError fieldError = e.getBindingResult().getFieldError();
+		String message = fieldError != null
+				? fieldError.getField() + ": " + fieldError.getDefaultMessage()
+				: "Некорректные данные";
+		return error(HttpStatus.BAD_REQUEST, message);
+	}
+
+	@ExceptionHandler(ResponseStatusException.class)
+	public ResponseEntity<ApiError> handleStatus(ResponseStatusException e) {
+		return error(HttpStatus.valueOf(e.getStatusCode().value()), e.getReason());
+	}
+
+	private ResponseEntity<ApiError> error(HttpStatus status, String message) {
+		return ResponseEntity.status(status).body(new ApiError(status.value(), message));
+	}
+}
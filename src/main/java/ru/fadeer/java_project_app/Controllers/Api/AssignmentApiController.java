@@ -0,0 +1,86 @@
+package ru.fadeer.java_project_app.Controllers.Api;
+
+import jakarta.validation.Valid;
+import java.net.URI;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import ru.fadeer.java_project_app.dto.Api.ApiPage;
+import ru.fadeer.java_project_app.dto.Api.AssignmentSummary;
+import ru.fadeer.java_project_app.dto.Assignments.AssignmentNewForm;
+import ru.fadeer.java_project_app.model.Assignment;
+import ru.fadeer.java_project_app.service.ApiReadService;
+import ru.fadeer.java_project_app.service.AssignmentService;
+
+/// Класс-контроллер JSON API назначений. Чтение идет через представления, запись - через
+/// AssignmentService
+@RestController
+@RequestMapping("/api/v1/assignments")
+public class AssignmentApiController {
+
+	private final ApiReadService apiReadService;
+	private final AssignmentService assignmentService;
+
+	public AssignmentApiController(ApiReadService apiReadService,
+			AssignmentService assignmentService) {
+		this.apiReadService = apiReadService;
+		this.assignmentService = assignmentService;
+	}
+
+	/// Страница назначений по порядку номеров
+	@GetMapping
+	public ApiPage<Object> list(@RequestParam(required = false) Integer requestId,
+			@RequestParam(required = false) String after,
+			@RequestParam(required = false) Integer size,
+			@RequestParam(required = false) String fields) {
+		FieldSelection selection = FieldSelection.parse(fields, AssignmentSummary.class);
+		return selection.apply(apiReadService.findAssignments(requestId, after, size));
+	}
+
+	/// Одно назначение
+	@GetMapping("/{id}")
+	public Object get(@PathVariable Integer id, @RequestParam(required = false) String fields) {
+		FieldSelection selection = FieldSelection.parse(fields, AssignmentSummary.class);
+		return apiReadService.findAssignment(id)
+				.map(selection::apply)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Назначение не найдено"));
+	}
+
+	/// Назначение бригады на заявку
+	@PostMapping
+	public ResponseEntity<AssignmentSummary> create(@Valid @RequestBody AssignmentNewForm form) {
+		Assignment created = assignmentService.assignBrigade(form.getRequestId(), form.getBrigadeId());
+		return ResponseEntity.created(URI.create("/api/v1/assignments/" + created.getAssignmentId()))
+				.body(AssignmentSummary.of(created));
+	}
+
+	/// Начало работ бригадой
+	@PostMapping("/{id}/start")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public void start(@PathVariable Integer id) {
+		assignmentService.startWork(id);
+	}
+
+	/// Окончание работ по заявке
+	@PostMapping("/{id}/complete")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public void complete(@PathVariable Integer id) {
+		assignmentService.completeWork(id);
+	}
+
+	/// Удаление назначения
+	@DeleteMapping("/{id}")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public void delete(@PathVariable Integer id) {
+		assignmentService.delete(id);
+	}
+}
@@ -0,0 +1,83 @@
+package ru.fadeer.java_project_app.Controllers.Api;
+
+import jakarta.validation.Valid;
+import java.net.URI;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import ru.fadeer.java_project_app.dto.Api.ApiPage;
+import ru.fadeer.java_project_app.dto.Api.BrigadeSummary;
+import ru.fadeer.java_project_app.dto.Brigade.BrigadeNewForm;
+import ru.fadeer.java_project_app.dto.Brigade.BrigadeUpdateForm;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.service.ApiReadService;
+import ru.fadeer.java_project_app.service.BrigadeService;
+
+/// Класс-контроллер JSON API бригад. Чтение идет через представления, запись - через BrigadeService
+@RestController
+@RequestMapping("/api/v1/brigades")
+public class BrigadeApiController {
+
+	private final ApiReadService apiReadService;
+	private final BrigadeService brigadeService;
+
+	public BrigadeApiController(ApiReadService apiReadService, BrigadeService brigadeService) {
+		this.apiReadService = apiReadService;
+		this.brigadeService = brigadeService;
+	}
+
+	/// Страница бригад по порядку номеров
+	@GetMapping
+	public ApiPage<Object> list(@RequestParam(required = false) Brigade.Status status,
+			@RequestParam(required = false) String after,
+			@RequestParam(required = false) Integer size,
+			@RequestParam(required = false) String fields) {
+		FieldSelection selection = FieldSelection.parse(fields, BrigadeSummary.class);
+		return selection.apply(apiReadService.findBrigades(status, after, size));
+	}
+
+	/// Одна бригада
+	@GetMapping("/{id}")
+	public Object get(@PathVariable Integer id, @RequestParam(required = false) String fields) {
+		FieldSelection selection = FieldSelection.parse(fields, BrigadeSummary.class);
+		return apiReadService.findBrigade(id)
+				.map(selection::apply)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Бригада не найдена"));
+	}
+
+	/// Создание бригады
+	@PostMapping
+	public ResponseEntity<BrigadeSummary> create(@Valid @RequestBody BrigadeNewForm form) {
+		Brigade created = brigadeService.create(form.toNewBrigade());
+		return ResponseEntity.created(URI.create("/api/v1/brigades/" + created.getBrigadeId()))
+				.body(BrigadeSummary.of(created));
+	}
+
+	/// Изменение бригады: прямое или с архивированием, если в теле archive = true
+	@PutMapping("/{id}")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public void update(@PathVariable Integer id, @Valid @RequestBody BrigadeUpdateForm form) {
+		if (Boolean.TRUE.equals(form.getArchive())) {
+			brigadeService.updateAndArchive(id, form.toBrigade());
+		} else {
+			brigadeService.update(id, form.toBrigade());
+		}
+	}
+
+	/// Расформирование бригады
+	@DeleteMapping("/{id}")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public void delete(@PathVariable Integer id) {
+		brigadeService.softDelete(id);
+	}
+}
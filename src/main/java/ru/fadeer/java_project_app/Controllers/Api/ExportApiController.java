@@ -0,0 +1,53 @@
+package ru.fadeer.java_project_app.Controllers.Api;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.fadeer.java_project_app.dto.Export.ExportFormat;
+import ru.fadeer.java_project_app.service.ExportService;
+
+/// Класс-контроллер выгрузки истории заявок для отчетов. Ответ пишется потоком из отдельного
+/// потока обработки, поток запроса не занимается на время выгрузки
+@RestController
+@RequestMapping("/api/v1/export")
+public class ExportApiController {
+
+	private final ExportService exportService;
+
+	public ExportApiController(ExportService exportService) {
+		this.exportService = exportService;
+	}
+
+	/// Выгрузка заявок, поданных с from по to включительно, вместе с назначениями
+	///
+	/// @param from   первый день промежутка
+	/// @param to     последний день промежутка
+	/// @param format ndjson или csv
+	@GetMapping("/history")
+	public ResponseEntity<StreamingResponseBody> history(
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestParam(defaultValue = "ndjson") String format) {
+		ExportFormat exportFormat = ExportFormat.fromName(format);
+		LocalDateTime start = from.atStartOfDay();
+		LocalDateTime end = to.plusDays(1).atStartOfDay();
+		exportService.validateRange(start, end);
+
+		StreamingResponseBody body = out -> exportService.exportHistory(start, end, exportFormat, out);
+		String fileName = "history_" + from + "_" + to + "." + exportFormat.getExtension();
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(exportFormat.getMediaType() + ";charset=UTF-8"))
+				.header(HttpHeaders.CONTENT_DISPOSITION,
+						ContentDisposition.attachment().filename(fileName).build().toString())
+				.body(body);
+	}
+}
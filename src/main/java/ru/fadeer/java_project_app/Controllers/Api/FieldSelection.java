@@ -0,0 +1,81 @@
+package ru.fadeer.java_project_app.Controllers.Api;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import ru.fadeer.java_project_app.dto.Api.ApiPage;
+
+/// Выбор полей ответа по параметру fields, например `fields=requestId,status`. Без параметра
+/// представление отдается целиком. Методы доступа к полям представлений кэшируются по классу
+final class FieldSelection {
+
+	private static final ClassValue<Map<String, Method>> ACCESSORS = new ClassValue<>() {
+		@Override
+		protected Map<String, Method> computeValue(Class<?> type) {
+			Map<String, Method> accessors = new LinkedHashMap<>();
+			for (RecordComponent component : type.getRecordComponents()) {
+				accessors.put(component.getName(), component.getAccessor());
+			}
+			return Collections.unmodifiableMap(accessors);
+		}
+	};
+
+	/// Выбранные поля в порядке запроса, null - все поля
+	private final Map<String, Method> selected;
+
+	private FieldSelection(Map<String, Method> selected) {
+		this.selected = selected;
+	}
+
+	/// Разбор параметра fields для представления type. Неизвестное поле - ошибка запроса
+	///
+	/// @param fields имена полей через запятую, пустое значение - все поля
+	/// @param type   класс представления
+	static FieldSelection parse(String fields, Class<? extends Record> type) {
+		if (fields == null || fields.isBlank()) {
+			return new FieldSelection(null);
+		}
+		Map<String, Method> accessors = ACCESSORS.get(type);
+		Map<String, Method> selected = new LinkedHashMap<>();
+		for (String field : fields.split(",")) {
+			String name = field.strip();
+			Method accessor = accessors.get(name);
+			if (accessor == null) {
+				throw new IllegalArgumentException(
+						"Неизвестное поле: " + name + ". Допустимые поля: " + accessors.keySet());
+			}
+			selected.put(name, accessor);
+		}
+		return new FieldSelection(selected);
+	}
+
+	/// Одно представление с выбранными полями
+	Object apply(Record value) {
+		if (selected == null) {
+			return value;
+		}
+		Map<String, Object> result = new LinkedHashMap<>();
+		for (Map.Entry<String, Method> entry : selected.entrySet()) {
+			try {
+				result.put(entry.getKey(), entry.getValue().invoke(value));
+			} catch (IllegalAccessException | InvocationTargetException e) {
+				throw new IllegalStateException("Не удалось прочитать поле " + entry.getKey(), e);
+			}
+		}
+		return result;
+	}
+
+	/// Страница представлений с выбранными полями
+	ApiPage<Object> apply(ApiPage<? extends Record> page) {
+		List<Object> items = new ArrayList<>(page.items().size());
+		for (Record item : page.items()) {
+			items.add(apply(item));
+		}
+		return new ApiPage<>(items, page.next());
+	}
+}
@@ -0,0 +1,32 @@
+package ru.fadeer.java_project_app.Controllers.Api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.fadeer.java_project_app.dto.Export.ExportFormat;
+import ru.fadeer.java_project_app.dto.Import.ImportReport;
+import ru.fadeer.java_project_app.service.ImportService;
+
+/// Класс-контроллер массовой загрузки заявок из выгрузок колл-центра
+@RestController
+@RequestMapping("/api/v1/import")
+public class ImportApiController {
+
+	private final ImportService importService;
+
+	public ImportApiController(ImportService importService) {
+		this.importService = importService;
+	}
+
+	/// Загрузка заявок из тела запроса. Тело читается потоком, в памяти держится одна порция
+	///
+	/// @param format csv или ndjson
+	@PostMapping("/requests")
+	public ImportReport importRequests(@RequestParam(defaultValue = "csv") String format,
+			InputStream body) throws IOException {
+		return importService.importRequests(body, ExportFormat.fromName(format));
+	}
+}
@@ -0,0 +1,48 @@
+package ru.fadeer.java_project_app.Controllers.Api;
+
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import ru.fadeer.java_project_app.dto.Latency.LatencyPercentiles;
+import ru.fadeer.java_project_app.model.Request;
+import ru.fadeer.java_project_app.service.LatencyService;
+
+/// Класс-контроллер перцентилей времени реакции на заявки
+@RestController
+@RequestMapping("/api/v1/latency")
+public class LatencyApiController {
+
+	private final LatencyService latencyService;
+
+	public LatencyApiController(LatencyService latencyService) {
+		this.latencyService = latencyService;
+	}
+
+	/// Перцентили по промежуткам, приоритетам и типам аварий
+	///
+	/// @param priority фильтр по приоритету, без него - все приоритеты
+	/// @param window   recent - последние окна, total - все время
+	@GetMapping
+	public List<LatencyPercentiles> percentiles(
+			@RequestParam(required = false) Request.Priority priority,
+			@RequestParam(defaultValue = "recent") String window) {
+		boolean recent = switch (window) {
+			case "recent" -> true;
+			case "total" -> false;
+			default -> throw new IllegalArgumentException("Окно должно быть recent или total.");
+		};
+		return latencyService.percentiles(priority, recent);
+	}
+
+	/// Пересчет гистограмм по таблице назначений
+	@PostMapping("/rebuild")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public void rebuild() {
+		latencyService.rebuild();
+	}
+}
@@ -0,0 +1,108 @@
+package ru.fadeer.java_project_app.Controllers.Api;
+
+import jakarta.validation.Valid;
+import java.net.URI;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import ru.fadeer.java_project_app.dto.Api.ApiPage;
+import ru.fadeer.java_project_app.dto.Api.RequestSummary;
+import ru.fadeer.java_project_app.dto.Request.RequestEditForm;
+import ru.fadeer.java_project_app.dto.Request.RequestNewForm;
+import ru.fadeer.java_project_app.dto.Request.RequestSearchHit;
+import ru.fadeer.java_project_app.dto.Request.RequestSearchPage;
+import ru.fadeer.java_project_app.model.Request;
+import ru.fadeer.java_project_app.service.ApiReadService;
+import ru.fadeer.java_project_app.service.RequestSearchService;
+import ru.fadeer.java_project_app.service.RequestService;
+
+/// Класс-контроллер JSON API заявок. Чтение идет через представления, запись - через RequestService
+@RestController
+@RequestMapping("/api/v1/requests")
+public class RequestApiController {
+
+	private final ApiReadService apiReadService;
+	private final RequestService requestService;
+	private final RequestSearchService requestSearchService;
+
+	public RequestApiController(ApiReadService apiReadService, RequestService requestService,
+			RequestSearchService requestSearchService) {
+		this.apiReadService = apiReadService;
+		this.requestService = requestService;
+		this.requestSearchService = requestSearchService;
+	}
+
+	/// Страница заявок от новых к старым
+	@GetMapping
+	public ApiPage<Object> list(@RequestParam(required = false) Request.Status status,
+			@RequestParam(required = false) String after,
+			@RequestParam(required = false) Integer size,
+			@RequestParam(required = false) String fields) {
+		FieldSelection selection = FieldSelection.parse(fields, RequestSummary.class);
+		return selection.apply(apiReadService.findRequests(status, after, size));
+	}
+
+	/// Поиск заявок от более релевантных к менее. Курсор страницы - смещение
+	@GetMapping("/search")
+	public ApiPage<Object> search(@RequestParam String q,
+			@RequestParam(required = false) String after,
+			@RequestParam(required = false) Integer size,
+			@RequestParam(required = false) String fields) {
+		FieldSelection selection = FieldSelection.parse(fields, RequestSearchHit.class);
+		RequestSearchPage page = requestSearchService.search(q, parseOffset(after), size);
+		return selection.apply(new ApiPage<>(page.hits(),
+				page.hasNext() ? String.valueOf(page.nextOffset()) : null));
+	}
+
+	/// Одна заявка
+	@GetMapping("/{id}")
+	public Object get(@PathVariable Integer id, @RequestParam(required = false) String fields) {
+		FieldSelection selection = FieldSelection.parse(fields, RequestSummary.class);
+		return apiReadService.findRequest(id)
+				.map(selection::apply)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Заявка не найдена"));
+	}
+
+	/// Создание заявки
+	@PostMapping
+	public ResponseEntity<RequestSummary> create(@Valid @RequestBody RequestNewForm form) {
+		Request created = requestService.create(form.toNewRequest());
+		return ResponseEntity.created(URI.create("/api/v1/requests/" + created.getRequestId()))
+				.body(RequestSummary.of(created));
+	}
+
+	/// Изменение заявки по правилам RequestService.update
+	@PutMapping("/{id}")
+	public RequestSummary update(@PathVariable Integer id, @Valid @RequestBody RequestEditForm form) {
+		return RequestSummary.of(requestService.update(id, RequestEditForm.applyRequest(form)));
+	}
+
+	/// Удаление заявки вместе с назначениями
+	@DeleteMapping("/{id}")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public void delete(@PathVariable Integer id) {
+		requestService.deleteById(id);
+	}
+
+	/// Разбор курсора-смещения. Пустой курсор означает первую страницу
+	private static Integer parseOffset(String after) {
+		if (after == null || after.isBlank()) {
+			return null;
+		}
+		try {
+			return Integer.valueOf(after);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Некорректный курсор страницы: " + after);
+		}
+	}
+}
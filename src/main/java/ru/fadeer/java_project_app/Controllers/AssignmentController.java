@@ -14,10 +14,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 import ru.fadeer.java_project_app.dto.Assignments.AssignmentNewForm;
 import ru.fadeer.java_project_app.dto.Assignments.AssignmentUpdateForm;
 import ru.fadeer.java_project_app.model.Assignment;
-import ru.fadeer.java_project_app.model.Brigade;
-import ru.fadeer.java_project_app.model.Request;
 import ru.fadeer.java_project_app.service.AssignmentService;
 import ru.fadeer.java_project_app.service.BrigadeService;
+import ru.fadeer.java_project_app.service.LiveCountersService;
 import ru.fadeer.java_project_app.service.RequestService;
 
 /// Класс-контроллер, с методами для управления шаблонами.
@@ -28,12 +27,14 @@ public class AssignmentController {
 	private final AssignmentService assignmentService;
 	private final BrigadeService brigadeService;
 	private final RequestService requestService;
+	private final LiveCountersService liveCountersService;
 
 	public AssignmentController(AssignmentService assignmentService, BrigadeService brigadeService,
-			RequestService requestService) {
+			RequestService requestService, LiveCountersService liveCountersService) {
 		this.assignmentService = assignmentService;
 		this.brigadeService = brigadeService;
 		this.requestService = requestService;
+		this.liveCountersService = liveCountersService;
 	}
 
 	/// Метод для отображения шаблона с созданием нового назначения
@@ -45,36 +46,23 @@ public class AssignmentController {
 			form.setRequestId(requestId);
 		}
 
-		List<Brigade> freeBrigades = brigadeService.findAll().stream()
-				.filter(b -> b.getStatus() == Brigade.Status.free)
-				.toList();
-
-		List<Request> activeRequests = requestService.findAll().stream()
-				.filter(r -> r.getStatus() != Request.Status.Completed)
-				.toList();
-
 		model.addAttribute("assignmentForm", form);
-		model.addAttribute("freeBrigades", freeBrigades);
-		model.addAttribute("activeRequests", activeRequests);
+		addCandidates(model);
 		return "assignment/new";
 	}
 
+	/// Добавление в модель кандидатов для формы назначения: свободных бригад и незавершенных заявок
+	private void addCandidates(Model model) {
+		model.addAttribute("freeBrigades", brigadeService.findFreeBrigades());
+		model.addAttribute("activeRequests", requestService.findOpenRequests());
+	}
+
 	/// Метод для обработки данных и их сохранения или возвращения на страницу с новым назначением в случе ошибок
 	@PostMapping
 	public String createAssignment(@Valid @ModelAttribute("assignmentForm") AssignmentNewForm form,
 			BindingResult bindingResult, Model model) {
 		if (bindingResult.hasErrors()) {
-
-			List<Brigade> freeBrigades = brigadeService.findAll().stream()
-					.filter(b -> b.getStatus() == Brigade.Status.free)
-					.toList();
-
-			List<Request> activeRequests = requestService.findAll().stream()
-					.filter(r -> r.getStatus() != Request.Status.Completed)
-					.toList();
-
-			model.addAttribute("freeBrigades", freeBrigades);
-			model.addAttribute("activeRequests", activeRequests);
+			addCandidates(model);
 			return "assignment/new";
 		}
 
@@ -82,17 +70,7 @@ public class AssignmentController {
 			assignmentService.assignBrigade(form.getRequestId(), form.getBrigadeId());
 			return "redirect:/requests/" + form.getRequestId();
 		} catch (IllegalArgumentException e) {
-
-			List<Brigade> freeBrigades = brigadeService.findAll().stream()
-					.filter(b -> b.getStatus() == Brigade.Status.free)
-					.toList();
-
-			List<Request> activeRequests = requestService.findAll().stream()
-					.filter(r -> r.getStatus() != Request.Status.Completed)
-					.toList();
-
-			model.addAttribute("freeBrigades", freeBrigades);
-			model.addAttribute("activeRequests", activeRequests);
+			addCandidates(model);
 			model.addAttribute("error", e.getMessage());
 			return "assignment/new";
 		}
@@ -103,6 +81,7 @@ public class AssignmentController {
 	public String listAssignments(Model model) {
 		List<Assignment> assignments = assignmentService.findAll();
 		model.addAttribute("assignments", assignments);
+		model.addAttribute("counts", liveCountersService.snapshot());
 		return "assignment/list";
 	}
 
@@ -0,0 +1,38 @@
+package ru.fadeer.java_project_app.Controllers;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.fadeer.java_project_app.service.DispatchBoardService;
+
+/// Класс-контроллер табло диспетчера с обновлением статусов в реальном времени.
+@Controller
+@RequestMapping("/board")
+public class BoardController {
+
+	private final DispatchBoardService dispatchBoardService;
+
+	public BoardController(DispatchBoardService dispatchBoardService) {
+		this.dispatchBoardService = dispatchBoardService;
+	}
+
+	/// Метод для отображения шаблона табло с текущим состоянием бригад и заявок
+	@GetMapping
+	public String board(Model model) {
+		model.addAttribute("brigades", dispatchBoardService.findActiveBrigades());
+		model.addAttribute("requests", dispatchBoardService.findOpenRequests());
+		model.addAttribute("subscribers", dispatchBoardService.getSubscriberCount());
+		return "board/index";
+	}
+
+	/// Метод для подписки на поток событий смены статусов
+	@GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@ResponseBody
+	public SseEmitter events() {
+		return dispatchBoardService.subscribe();
+	}
+}
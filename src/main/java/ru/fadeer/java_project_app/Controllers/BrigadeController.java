@@ -16,6 +16,7 @@ import ru.fadeer.java_project_app.dto.Brigade.BrigadeUpdateForm;
 import ru.fadeer.java_project_app.model.Brigade;
 import ru.fadeer.java_project_app.model.Brigade.Status;
 import ru.fadeer.java_project_app.service.BrigadeService;
+import ru.fadeer.java_project_app.service.LiveCountersService;
 
 /// Класс-контроллер, с методами для управления шаблонами.
 @Controller
@@ -23,9 +24,12 @@ import ru.fadeer.java_project_app.service.BrigadeService;
 public class BrigadeController {
 
 	private final BrigadeService brigadeService;
+	private final LiveCountersService liveCountersService;
 
-	public BrigadeController(BrigadeService brigadeService) {
+	public BrigadeController(BrigadeService brigadeService,
+			LiveCountersService liveCountersService) {
 		this.brigadeService = brigadeService;
+		this.liveCountersService = liveCountersService;
 	}
 
 	/// Метод для отображения шаблона с созданием новой бригадой
@@ -57,13 +61,14 @@ public class BrigadeController {
 	public String listBrigades(Model model) {
 		List<Brigade> brigades = brigadeService.findAll();
 		model.addAttribute("brigades", brigades);
+		model.addAttribute("counts", liveCountersService.snapshot());
 		return "brigade/list";
 	}
 
 	/// Метод для отображения отдельной бригады
 	@GetMapping("/{id}")
 	public String viewBrigade(@PathVariable Integer id, Model model) {
-		Brigade brigade = brigadeService.findById(id);
+		Brigade brigade = brigadeService.findByIdWithAssignments(id);
 		model.addAttribute("brigade", brigade);
 		return "brigade/view";
 	}
@@ -0,0 +1,43 @@
+package ru.fadeer.java_project_app.Controllers;
+
+import jakarta.persistence.OptimisticLockException;
+import jakarta.servlet.http.HttpServletRequest;
+import java.net.URI;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import ru.fadeer.java_project_app.service.ConflictRetry;
+
+/// Обработка конфликтов параллельных изменений на HTML-страницах. Если данные изменил другой
+/// пользователь и повторы не помогли, пользователь возвращается на страницу, с которой отправил
+/// форму, и видит сообщение об ошибке. Берется только путь из Referer, поэтому перенаправление
+/// не уводит на чужой сайт
+@ControllerAdvice(assignableTypes = {AssignmentController.class, BrigadeController.class,
+		DispatchController.class, RequestController.class})
+public class ConflictHandler {
+
+	@ExceptionHandler({ConcurrencyFailureException.class, OptimisticLockException.class})
+	public String handleConflict(HttpServletRequest request, RedirectAttributes redirectAttributes) {
+		redirectAttributes.addFlashAttribute("error", ConflictRetry.CONFLICT_MESSAGE);
+		return "redirect:" + backPath(request.getHeader(HttpHeaders.REFERER));
+	}
+
+	/// Путь страницы, с которой пришел запрос, или главная страница
+	private static String backPath(String referer) {
+		if (referer == null) {
+			return "/";
+		}
+		try {
+			URI uri = URI.create(referer);
+			String path = uri.getRawPath();
+			if (path == null || !path.startsWith("/")) {
+				return "/";
+			}
+			return uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery();
+		} catch (IllegalArgumentException e) {
+			return "/";
+		}
+	}
+}
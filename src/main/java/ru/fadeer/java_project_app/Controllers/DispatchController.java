@@ -0,0 +1,40 @@
+package ru.fadeer.java_project_app.Controllers;
+
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import ru.fadeer.java_project_app.service.AutoDispatchService;
+
+/// Класс-контроллер для автоматического распределения бригад по заявкам.
+@Controller
+@RequestMapping("/dispatch")
+public class DispatchController {
+
+	private final AutoDispatchService autoDispatchService;
+
+	public DispatchController(AutoDispatchService autoDispatchService) {
+		this.autoDispatchService = autoDispatchService;
+	}
+
+	/// Метод для отображения шаблона с показателями распределения
+	@GetMapping
+	public String status(Model model) {
+		model.addAttribute("stats", autoDispatchService.getStats());
+		return "dispatch/status";
+	}
+
+	/// Метод для запроса на выполнение одного раунда распределения
+	@PostMapping("/run")
+	public String run(RedirectAttributes redirectAttributes) {
+		try {
+			int matched = autoDispatchService.runRound();
+			redirectAttributes.addFlashAttribute("success", "Назначено бригад: " + matched);
+		} catch (IllegalArgumentException e) {
+			redirectAttributes.addFlashAttribute("error", e.getMessage());
+		}
+		return "redirect:/dispatch";
+	}
+}
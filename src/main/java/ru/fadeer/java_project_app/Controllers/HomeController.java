@@ -0,0 +1,24 @@
+package ru.fadeer.java_project_app.Controllers;
+
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import ru.fadeer.java_project_app.service.LiveCountersService;
+
+/// Класс-контроллер главной страницы.
+@Controller
+public class HomeController {
+
+	private final LiveCountersService liveCountersService;
+
+	public HomeController(LiveCountersService liveCountersService) {
+		this.liveCountersService = liveCountersService;
+	}
+
+	/// Метод для отображения главной страницы со счетчиками заявок, бригад и назначений
+	@GetMapping("/")
+	public String index(Model model) {
+		model.addAttribute("counts", liveCountersService.snapshot());
+		return "index";
+	}
+}
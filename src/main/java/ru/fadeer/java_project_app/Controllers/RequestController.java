@@ -2,7 +2,6 @@ package ru.fadeer.java_project_app.Controllers;
 
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Map;
 import org.hibernate.TypeMismatchException;
 import org.springframework.stereotype.Controller;
@@ -17,7 +16,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import ru.fadeer.java_project_app.dto.Request.RequestEditForm;
 import ru.fadeer.java_project_app.dto.Request.RequestNewForm;
+import ru.fadeer.java_project_app.dto.Request.RequestPage;
+import ru.fadeer.java_project_app.dto.Request.RequestSearchPage;
 import ru.fadeer.java_project_app.model.Request;
+import ru.fadeer.java_project_app.service.LiveCountersService;
+import ru.fadeer.java_project_app.service.RequestSearchService;
 import ru.fadeer.java_project_app.service.RequestService;
 
 /// Класс-контроллер, с методами для управления шаблонами.
@@ -26,9 +29,15 @@ import ru.fadeer.java_project_app.service.RequestService;
 public class RequestController {
 
 	private final RequestService requestService;
+	private final LiveCountersService liveCountersService;
+	private final RequestSearchService requestSearchService;
 
-	public RequestController(RequestService requestService) {
+	public RequestController(RequestService requestService,
+			LiveCountersService liveCountersService,
+			RequestSearchService requestSearchService) {
 		this.requestService = requestService;
+		this.liveCountersService = liveCountersService;
+		this.requestSearchService = requestSearchService;
 	}
 
 	/// Метод для отображения шаблона с созданием новой заявки
@@ -127,18 +136,42 @@ public class RequestController {
 	/// Метод для отображения отдельной заявки
 	@GetMapping("/{id}")
 	public String viewRequest(@PathVariable Integer id, Model model) {
-		Request request = requestService.findById(id);
+		Request request = requestService.findByIdWithAssignments(id);
 		model.addAttribute("request", request);
 		return "request/view";
 	}
-	/// Метод для отображения шаблона со всеми заявками
+	/// Метод для отображения шаблона со списком заявок. Заявки выводятся постранично, от новых к
+	/// старым
 	@GetMapping
-	public String listRequests(Model model) {
-		List<Request> requests = requestService.findAll();
-		model.addAttribute("requests", requests);
+	public String listRequests(@RequestParam(required = false) String after,
+			@RequestParam(required = false) String before,
+			@RequestParam(required = false) Integer size, Model model) {
+		RequestPage page = findPage(null, after, before, size);
+		model.addAttribute("requests", page.requests());
+		model.addAttribute("page", page);
+		model.addAttribute("counts", liveCountersService.snapshot());
 		return "request/list";
 	}
 
+	/// Метод для отображения шаблона поиска заявок. Результаты выводятся от более релевантных к
+	/// менее, без строки поиска выводится только форма
+	@GetMapping("/search")
+	public String searchRequests(@RequestParam(required = false) String q,
+			@RequestParam(required = false) Integer offset,
+			@RequestParam(required = false) Integer size, Model model) {
+		model.addAttribute("q", q);
+		if (q == null || q.isBlank()) {
+			return "request/search";
+		}
+		try {
+			RequestSearchPage page = requestSearchService.search(q, offset, size);
+			model.addAttribute("page", page);
+		} catch (IllegalArgumentException e) {
+			model.addAttribute("error", e.getMessage());
+		}
+		return "request/search";
+	}
+
 	/// Метод для запроса на удаления заявки
 	@PostMapping("/{id}/delete")
 	public String deleteRequest(@PathVariable Integer id) {
@@ -148,10 +181,25 @@ public class RequestController {
 
 	/// Метод для вывода шаблона с фильтрацией по статусу
 	@GetMapping(params = "status")
-	public String listByStatus(@RequestParam Request.Status status, Model model) {
-		List<Request> requests = requestService.findByStatus(status);
-		model.addAttribute("requests", requests);
+	public String listByStatus(@RequestParam Request.Status status,
+			@RequestParam(required = false) String after,
+			@RequestParam(required = false) String before,
+			@RequestParam(required = false) Integer size, Model model) {
+		RequestPage page = findPage(status, after, before, size);
+		model.addAttribute("requests", page.requests());
+		model.addAttribute("page", page);
+		model.addAttribute("counts", liveCountersService.snapshot());
 		model.addAttribute("currentStatus", status);
 		return "request/list";
 	}
-}
\ No newline at end of file
+
+	/// Страница списка заявок. Испорченный курсор (ссылку обрезали или изменили вручную) дает
+	/// первую страницу, а не ошибку
+	private RequestPage findPage(Request.Status status, String after, String before, Integer size) {
+		try {
+			return requestService.findPage(status, after, before, size);
+		} catch (IllegalArgumentException e) {
+			return requestService.findPage(status, null, null, size);
+		}
+	}
+}
@@ -2,8 +2,10 @@ package ru.fadeer.java_project_app;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class JavaProjectApplication {
 
 	public static void main(String[] args) {
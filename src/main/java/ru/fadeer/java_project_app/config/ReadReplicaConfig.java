@@ -0,0 +1,92 @@
+package ru.fadeer.java_project_app.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/// Настройка чтения из реплики. Включается, если задан replica.datasource.url; иначе приложение
+/// работает с одной БД из spring.datasource. Основной пул настраивается свойствами
+/// spring.datasource.*, пул реплики - replica.datasource.*. Остальные компоненты получают
+/// маршрутизирующий источник и не знают о реплике
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty("replica.datasource.url")
+public class ReadReplicaConfig {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+				.type(HikariDataSource.class)
+				.build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+
+	/// Пул реплики. Имя пользователя и пароль по умолчанию те же, что у основной БД
+	@Bean
+	@ConfigurationProperties("replica.datasource.hikari")
+	public HikariDataSource replicaDataSource(
+			@Value("${replica.datasource.url}") String url,
+			@Value("${replica.datasource.username:${spring.datasource.username:}}") String username,
+			@Value("${replica.datasource.password:${spring.datasource.password:}}") String password) {
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setJdbcUrl(url);
+		dataSource.setUsername(username);
+		dataSource.setPassword(password);
+		dataSource.setReadOnly(true);
+		dataSource.setPoolName("replica");
+		return dataSource;
+	}
+
+	@Bean
+	public ReplicaLagMonitor replicaLagMonitor(
+			@Qualifier("replicaDataSource") DataSource replica, MeterRegistry registry,
+			@Value("${replica.max-lag-ms:1000}") long maxLagMs,
+			@Value("${replica.lag-check-ms:1000}") long checkEveryMs) {
+		return new ReplicaLagMonitor(replica, maxLagMs, checkEveryMs, registry);
+	}
+
+	/// Источник соединений для JPA, Flyway и остальных компонентов
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+			@Qualifier("replicaDataSource") DataSource replica, ReplicaLagMonitor lagMonitor,
+			MeterRegistry registry) {
+		return new LazyConnectionDataSourceProxy(
+				new ReadRoutingDataSource(primary, replica, lagMonitor, registry));
+	}
+
+	/// Соединение освобождается после каждой транзакции. По умолчанию Spring держит его до
+	/// закрытия EntityManager, а при open-in-view EntityManager живет весь HTTP-запрос: тогда
+	/// первая транзакция запроса выбирала бы БД для всех следующих, и загрузка в кэш через
+	/// ReadRouting.onPrimary или запись после чтения шли бы в реплику
+	@Bean
+	public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+		return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+				PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+	}
+
+	/// Фильтр чтения своих изменений идет первым, чтобы признак действовал во всем запросе
+	@Bean
+	public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+			@Value("${replica.sticky-ms:5000}") long stickyMs) {
+		FilterRegistrationBean<ReadYourWritesFilter> registration =
+				new FilterRegistrationBean<>(new ReadYourWritesFilter(stickyMs));
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registration;
+	}
+}
@@ -0,0 +1,44 @@
+package ru.fadeer.java_project_app.config;
+
+import java.util.function.Supplier;
+
+/// Признак, что чтения текущего потока должны идти в основную БД, а не в реплику. Устанавливается
+/// на время запроса пользователя, недавно отправившего изменения, и при загрузке данных в кэш,
+/// который не должен запомнить отставшую копию
+public final class ReadRouting {
+
+	private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+	private ReadRouting() {
+	}
+
+	/// Признак обязательного чтения из основной БД
+	public static boolean isPrimaryRequired() {
+		return Boolean.TRUE.equals(PRIMARY.get());
+	}
+
+	/// Выполнение action с чтением из основной БД. Транзакция должна открываться внутри action
+	public static <T> T onPrimary(Supplier<T> action) {
+		Boolean previous = enter();
+		try {
+			return action.get();
+		} finally {
+			exit(previous);
+		}
+	}
+
+	/// Включение признака, возвращается прежнее значение для exit
+	static Boolean enter() {
+		Boolean previous = PRIMARY.get();
+		PRIMARY.set(Boolean.TRUE);
+		return previous;
+	}
+
+	static void exit(Boolean previous) {
+		if (previous == null) {
+			PRIMARY.remove();
+		} else {
+			PRIMARY.set(previous);
+		}
+	}
+}
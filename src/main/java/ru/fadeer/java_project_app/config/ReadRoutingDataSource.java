@@ -0,0 +1,64 @@
+package ru.fadeer.java_project_app.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/// Выбор БД для соединения: транзакции только для чтения идут в реплику, остальные - в основную
+/// БД. Чтение остается в основной БД, если реплика отстала больше допустимого или недоступна и
+/// если поток должен видеть свои недавние изменения (ReadRouting). Решение принимается при
+/// получении соединения, поэтому источник оборачивается в LazyConnectionDataSourceProxy: тогда
+/// соединение берется при первом запросе, когда признак readOnly транзакции уже установлен
+class ReadRoutingDataSource extends AbstractRoutingDataSource {
+
+	static final String ROUTES = "db.readonly.routes";
+
+	enum Target {
+		PRIMARY, REPLICA
+	}
+
+	private final ReplicaLagMonitor lagMonitor;
+
+	private final Counter toReplica;
+	private final Counter sticky;
+	private final Counter lagging;
+
+	ReadRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+			MeterRegistry registry) {
+		this.lagMonitor = lagMonitor;
+		setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+		this.toReplica = route(registry, "replica", "ok");
+		this.sticky = route(registry, "primary", "sticky");
+		this.lagging = route(registry, "primary", "lag");
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return Target.PRIMARY;
+		}
+		if (ReadRouting.isPrimaryRequired()) {
+			sticky.increment();
+			return Target.PRIMARY;
+		}
+		if (!lagMonitor.isAcceptable()) {
+			lagging.increment();
+			return Target.PRIMARY;
+		}
+		toReplica.increment();
+		return Target.REPLICA;
+	}
+
+	private static Counter route(MeterRegistry registry, String target, String reason) {
+		return Counter.builder(ROUTES)
+				.description("Соединения транзакций только для чтения по выбранной БД и причине")
+				.tag("target", target)
+				.tag("reason", reason)
+				.register(registry);
+	}
+}
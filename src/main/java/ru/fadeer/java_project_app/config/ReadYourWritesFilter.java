@@ -0,0 +1,73 @@
+package ru.fadeer.java_project_app.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Set;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/// Чтение своих изменений при работе с репликой. Запрос, меняющий данные (POST и др.), выдает
+/// пользователю cookie со сроком stickyMs; пока срок не истек, все чтения его запросов идут в
+/// основную БД. Так страница после перенаправления, например после назначения бригады, не
+/// показывает отставшую копию. Срок хранится в cookie, а не в сессии, поэтому действует на любом
+/// экземпляре приложения
+class ReadYourWritesFilter extends OncePerRequestFilter {
+
+	static final String COOKIE = "primary-until";
+
+	private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+	private final long stickyMs;
+
+	ReadYourWritesFilter(long stickyMs) {
+		this.stickyMs = stickyMs;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+			FilterChain chain) throws ServletException, IOException {
+		long now = System.currentTimeMillis();
+		boolean writes = !SAFE_METHODS.contains(request.getMethod());
+		if (writes) {
+			Cookie cookie = new Cookie(COOKIE, String.valueOf(now + stickyMs));
+			cookie.setPath("/");
+			cookie.setHttpOnly(true);
+			cookie.setMaxAge((int) Math.ceil(stickyMs / 1000.0));
+			response.addCookie(cookie);
+		}
+
+		// Срок дальше stickyMs не выдавался этим приложением и не учитывается
+		long until = primaryUntil(request);
+		if (!writes && (until <= now || until > now + stickyMs)) {
+			chain.doFilter(request, response);
+			return;
+		}
+		Boolean previous = ReadRouting.enter();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			ReadRouting.exit(previous);
+		}
+	}
+
+	/// Срок чтения из основной БД из cookie, 0 - cookie нет или значение повреждено
+	private static long primaryUntil(HttpServletRequest request) {
+		Cookie[] cookies = request.getCookies();
+		if (cookies == null) {
+			return 0;
+		}
+		for (Cookie cookie : cookies) {
+			if (COOKIE.equals(cookie.getName())) {
+				try {
+					return Long.parseLong(cookie.getValue());
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,69 @@
+package ru.fadeer.java_project_app.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/// Периодический замер отставания реплики. Отставание - время с последней примененной на реплике
+/// транзакции, если реплика применила не все полученные изменения, иначе ноль. Чтения уходят в
+/// реплику, только пока последний замер удался, не устарел и отставание не больше maxLagMs
+public class ReplicaLagMonitor {
+
+	static final String LAG = "db.replica.lag";
+
+	/// Сервер не в режиме восстановления (замена реплики для локальной проверки) не отстает
+	private static final String LAG_SQL = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+			+ "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+			+ "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+	private final DataSource replica;
+	private final long maxLagMs;
+	private final long staleAfterMs;
+
+	/// Последнее отставание в миллисекундах, -1 - замер не удался
+	private volatile long lagMs = -1;
+	private volatile long checkedAt;
+
+	/// @param replica      пул соединений реплики
+	/// @param maxLagMs     допустимое отставание
+	/// @param checkEveryMs интервал замеров; замер старше трех интервалов считается устаревшим
+	public ReplicaLagMonitor(DataSource replica, long maxLagMs, long checkEveryMs,
+			MeterRegistry registry) {
+		this.replica = replica;
+		this.maxLagMs = maxLagMs;
+		this.staleAfterMs = checkEveryMs * 3;
+		TimeGauge.builder(LAG, this, TimeUnit.MILLISECONDS,
+						m -> m.lagMs < 0 ? Double.NaN : m.lagMs)
+				.description("Отставание реплики для чтения, пусто - реплика недоступна")
+				.register(registry);
+	}
+
+	/// Признак, что читать из реплики допустимо
+	public boolean isAcceptable() {
+		long lag = lagMs;
+		return lag >= 0 && lag <= maxLagMs
+				&& System.currentTimeMillis() - checkedAt <= staleAfterMs;
+	}
+
+	/// Замер отставания. Ошибка соединения переводит чтения на основную БД до следующего удачного
+	/// замера
+	@Scheduled(fixedDelayString = "${replica.lag-check-ms:1000}")
+	public void check() {
+		try (Connection connection = replica.getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet rs = statement.executeQuery(LAG_SQL)) {
+			rs.next();
+			double lag = rs.getDouble(1);
+			lagMs = rs.wasNull() ? -1 : Math.round(lag);
+			checkedAt = System.currentTimeMillis();
+		} catch (SQLException e) {
+			lagMs = -1;
+		}
+	}
+}
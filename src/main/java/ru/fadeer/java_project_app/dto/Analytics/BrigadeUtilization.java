@@ -0,0 +1,24 @@
+package ru.fadeer.java_project_app.dto.Analytics;
+
+/// Загрузка бригады за промежуток по завершенным назначениям
+///
+/// @param brigadeId   номер бригады
+/// @param brigadeCode код бригады
+/// @param shifts      количество смен, в которые бригада получала назначения
+/// @param assignments количество назначений
+/// @param roadSeconds время в пути: от назначения до начала работ
+/// @param siteSeconds время на месте: от начала до окончания работ
+/// @param idleSeconds простой между назначениями внутри смен
+/// @param utilization доля рабочих смен, которую бригада провела в пути или на месте
+public record BrigadeUtilization(Integer brigadeId, String brigadeCode, long shifts,
+		long assignments, long roadSeconds, long siteSeconds, long idleSeconds, double utilization) {
+
+	/// Загрузка бригады с расчетом доли занятого времени
+	public static BrigadeUtilization of(Integer brigadeId, String brigadeCode, long shifts,
+			long assignments, long roadSeconds, long siteSeconds, long idleSeconds) {
+		double utilization = shifts == 0 ? 0
+				: (double) (roadSeconds + siteSeconds) / (shifts * ShiftUtilization.SHIFT_SECONDS);
+		return new BrigadeUtilization(brigadeId, brigadeCode, shifts, assignments, roadSeconds,
+				siteSeconds, idleSeconds, utilization);
+	}
+}
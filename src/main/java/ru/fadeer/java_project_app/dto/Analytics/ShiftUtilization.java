@@ -0,0 +1,26 @@
+package ru.fadeer.java_project_app.dto.Analytics;
+
+import java.time.LocalDateTime;
+
+/// Загрузка бригады за одну смену по завершенным назначениям
+///
+/// @param brigadeId   номер бригады
+/// @param shiftStart  начало смены
+/// @param assignments количество назначений, выданных в смену
+/// @param roadSeconds время в пути: от назначения до начала работ
+/// @param siteSeconds время на месте: от начала до окончания работ
+/// @param idleSeconds простой между назначениями внутри смены
+/// @param utilization доля смены, которую бригада провела в пути или на месте
+public record ShiftUtilization(Integer brigadeId, LocalDateTime shiftStart, long assignments,
+		long roadSeconds, long siteSeconds, long idleSeconds, double utilization) {
+
+	/// Длительность смены
+	public static final long SHIFT_SECONDS = 8 * 60 * 60;
+
+	/// Загрузка смены с расчетом доли занятого времени
+	public static ShiftUtilization of(Integer brigadeId, LocalDateTime shiftStart, long assignments,
+			long roadSeconds, long siteSeconds, long idleSeconds) {
+		return new ShiftUtilization(brigadeId, shiftStart, assignments, roadSeconds, siteSeconds,
+				idleSeconds, (double) (roadSeconds + siteSeconds) / SHIFT_SECONDS);
+	}
+}
@@ -0,0 +1,8 @@
+package ru.fadeer.java_project_app.dto.Api;
+
+/// Тело ответа JSON API с ошибкой
+///
+/// @param status  HTTP статус
+/// @param message текст ошибки
+public record ApiError(int status, String message) {
+}
@@ -0,0 +1,10 @@
+package ru.fadeer.java_project_app.dto.Api;
+
+import java.util.List;
+
+/// Страница ответа JSON API
+///
+/// @param items строки страницы
+/// @param next  курсор следующей страницы, null - страниц больше нет
+public record ApiPage<T>(List<T> items, String next) {
+}
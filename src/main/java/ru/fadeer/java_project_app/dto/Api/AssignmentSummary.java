@@ -0,0 +1,24 @@
+package ru.fadeer.java_project_app.dto.Api;
+
+import java.time.LocalDateTime;
+import ru.fadeer.java_project_app.model.Assignment;
+
+/// Представление назначения в JSON API. Вместо вложенных заявки и бригады содержит только их
+/// номера, которые читаются из внешних ключей без соединения таблиц
+///
+/// @param assignmentId   номер назначения
+/// @param requestId      номер заявки
+/// @param brigadeId      номер бригады
+/// @param assignmentTime время назначения
+/// @param startTime      время начала работ
+/// @param endTime        время окончания работ
+public record AssignmentSummary(Integer assignmentId, Integer requestId, Integer brigadeId,
+		LocalDateTime assignmentTime, LocalDateTime startTime, LocalDateTime endTime) {
+
+	/// Представление только что записанного назначения
+	public static AssignmentSummary of(Assignment assignment) {
+		return new AssignmentSummary(assignment.getAssignmentId(),
+				assignment.getRequest().getRequestId(), assignment.getBrigade().getBrigadeId(),
+				assignment.getAssignmentTime(), assignment.getStartTime(), assignment.getEndTime());
+	}
+}
@@ -0,0 +1,20 @@
+package ru.fadeer.java_project_app.dto.Api;
+
+import ru.fadeer.java_project_app.model.Brigade;
+
+/// Представление бригады в JSON API. Читается из БД конструктором в запросе, без загрузки сущности
+///
+/// @param brigadeId     номер бригады
+/// @param brigadeCode   код бригады
+/// @param vehicleNumber номер машины
+/// @param foremanName   имя бригадира
+/// @param status        статус
+public record BrigadeSummary(Integer brigadeId, String brigadeCode, String vehicleNumber,
+		String foremanName, Brigade.Status status) {
+
+	/// Представление только что записанной бригады
+	public static BrigadeSummary of(Brigade brigade) {
+		return new BrigadeSummary(brigade.getBrigadeId(), brigade.getBrigadeCode(),
+				brigade.getVehicleNumber(), brigade.getForemanName(), brigade.getStatus());
+	}
+}
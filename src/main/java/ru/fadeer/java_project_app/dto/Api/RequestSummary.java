@@ -0,0 +1,23 @@
+package ru.fadeer.java_project_app.dto.Api;
+
+import java.time.LocalDateTime;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Представление заявки в JSON API. Читается из БД конструктором в запросе, без загрузки сущности
+///
+/// @param requestId      номер заявки
+/// @param accidentType   тип аварии
+/// @param priority       приоритет
+/// @param address        адрес
+/// @param status         статус
+/// @param submissionTime время подачи
+public record RequestSummary(Integer requestId, String accidentType, Request.Priority priority,
+		String address, Request.Status status, LocalDateTime submissionTime) {
+
+	/// Представление только что записанной заявки
+	public static RequestSummary of(Request request) {
+		return new RequestSummary(request.getRequestId(), request.getAccidentType(),
+				request.getPriority(), request.getAddress(), request.getStatus(),
+				request.getSubmissionTime());
+	}
+}
@@ -0,0 +1,18 @@
+package ru.fadeer.java_project_app.dto.Assignments;
+
+/// Количество назначений по фазам работ. Считается одним агрегирующим запросом и используется для
+/// вычисления статусов заявок и бригад без загрузки самих назначений
+public interface AssignmentPhaseCounts {
+
+	/// Всего назначений
+	long getTotal();
+
+	/// Назначения без времени начала работ
+	long getPending();
+
+	/// Назначения с началом, но без окончания работ
+	long getStarted();
+
+	/// Назначения с окончанием работ
+	long getEnded();
+}
@@ -0,0 +1,16 @@
+package ru.fadeer.java_project_app.dto.Assignments;
+
+import java.util.List;
+
+/// Результат массового завершения работ по заявке
+///
+/// @param assignmentIds номера завершенных назначений
+/// @param brigadeIds    номера бригад этих назначений. Расформированные бригады остаются в списке,
+///                      но их статус не меняется
+public record CompletionResult(List<Integer> assignmentIds, List<Integer> brigadeIds) {
+
+	/// Пустой результат, когда незавершенных назначений не было
+	public static CompletionResult empty() {
+		return new CompletionResult(List.of(), List.of());
+	}
+}
@@ -0,0 +1,24 @@
+package ru.fadeer.java_project_app.dto.Assignments;
+
+import java.time.LocalDateTime;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Ссылка на незавершенное назначение, его бригаду и заявку. Используется при массовом завершении
+/// работ по заявке
+public interface OpenAssignmentRef {
+
+	Integer getAssignmentId();
+
+	Integer getBrigadeId();
+
+	Brigade.Status getBrigadeStatus();
+
+	LocalDateTime getAssignmentTime();
+
+	LocalDateTime getStartTime();
+
+	Request.Priority getPriority();
+
+	String getAccidentType();
+}
@@ -0,0 +1,41 @@
+package ru.fadeer.java_project_app.dto.Board;
+
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Событие смены статуса бригады или заявки. Публикуется сервисами внутри транзакции и рассылается
+/// подписчикам табло после ее фиксации
+///
+/// @param type     тип объекта: "brigade" или "request"
+/// @param id       номер объекта
+/// @param previous имя прежнего статуса, null - объект только что создан или прежний статус
+///                 неизвестен
+/// @param status   имя статуса в перечислении, null - объект удален
+/// @param display  текст статуса для вывода
+public record StatusChangedEvent(String type, Integer id, String previous, String status,
+		String display) {
+
+	public static final String BRIGADE = "brigade";
+	public static final String REQUEST = "request";
+
+	/// Событие смены статуса бригады
+	/// @param previous прежний статус, null - бригада только что создана
+	public static StatusChangedEvent of(Integer brigadeId, Brigade.Status previous,
+			Brigade.Status status) {
+		return new StatusChangedEvent(BRIGADE, brigadeId, previous == null ? null : previous.name(),
+				status.name(), status.getToDisplay());
+	}
+
+	/// Событие смены статуса заявки
+	/// @param previous прежний статус, null - заявка только что создана
+	public static StatusChangedEvent of(Integer requestId, Request.Status previous,
+			Request.Status status) {
+		return new StatusChangedEvent(REQUEST, requestId, previous == null ? null : previous.name(),
+				status.name(), status.getToDisplay());
+	}
+
+	/// Событие удаления объекта, прежний статус которого не читался
+	public static StatusChangedEvent removed(String type, Integer id) {
+		return new StatusChangedEvent(type, id, null, null, null);
+	}
+}
@@ -0,0 +1,15 @@
+package ru.fadeer.java_project_app.dto.Brigade;
+
+import ru.fadeer.java_project_app.model.Brigade;
+
+/// Облегченное представление бригады со статусом для табло диспетчера
+public interface BrigadeStatusView {
+
+	Integer getBrigadeId();
+
+	String getBrigadeCode();
+
+	String getForemanName();
+
+	Brigade.Status getStatus();
+}
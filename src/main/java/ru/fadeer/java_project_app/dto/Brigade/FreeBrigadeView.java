@@ -0,0 +1,14 @@
+package ru.fadeer.java_project_app.dto.Brigade;
+
+/// Облегченное представление свободной бригады для формы назначения. Читается из БД напрямую, без
+/// загрузки сущности и ее назначений
+public interface FreeBrigadeView {
+
+	Integer getBrigadeId();
+
+	String getBrigadeCode();
+
+	String getVehicleNumber();
+
+	String getForemanName();
+}
@@ -0,0 +1,28 @@
+package ru.fadeer.java_project_app.dto.Cache;
+
+import ru.fadeer.java_project_app.model.Brigade;
+
+/// Неизменяемая копия полей бригады для кэша справочных данных. Из кэша каждый раз выдается новая
+/// отсоединенная сущность, поэтому изменения вызывающего не попадают в кэш
+public record BrigadeSnapshot(Integer brigadeId, Long version, String brigadeCode,
+		String vehicleNumber, String foremanName, String foremanPhone, Brigade.Status status) {
+
+	public static BrigadeSnapshot of(Brigade brigade) {
+		return new BrigadeSnapshot(brigade.getBrigadeId(), brigade.getVersion(),
+				brigade.getBrigadeCode(), brigade.getVehicleNumber(), brigade.getForemanName(),
+				brigade.getForemanPhone(), brigade.getStatus());
+	}
+
+	/// Новая отсоединенная бригада с полями копии. Назначения не загружаются
+	public Brigade toBrigade() {
+		Brigade brigade = new Brigade();
+		brigade.setBrigadeId(brigadeId);
+		brigade.setVersion(version);
+		brigade.setBrigadeCode(brigadeCode);
+		brigade.setVehicleNumber(vehicleNumber);
+		brigade.setForemanName(foremanName);
+		brigade.setForemanPhone(foremanPhone);
+		brigade.setStatus(status);
+		return brigade;
+	}
+}
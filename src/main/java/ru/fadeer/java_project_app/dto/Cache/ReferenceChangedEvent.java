@@ -0,0 +1,36 @@
+package ru.fadeer.java_project_app.dto.Cache;
+
+import java.util.List;
+import ru.fadeer.java_project_app.dto.Board.StatusChangedEvent;
+
+/// Событие изменения бригад, заявок или назначений, не сопровождаемого сменой статуса: правка
+/// полей, массовое обновление через SQL. Публикуется сервисами внутри транзакции; кэш справочных
+/// данных и второй уровень кэша Hibernate сбрасывают записи на остальных узлах после ее фиксации.
+/// Смены статуса сбрасываются по StatusChangedEvent
+///
+/// @param type тип объектов: StatusChangedEvent.BRIGADE, StatusChangedEvent.REQUEST или ASSIGNMENT
+/// @param ids  номера измененных объектов, null - изменены неизвестные объекты этого типа
+public record ReferenceChangedEvent(String type, List<Integer> ids) {
+
+	public static final String ASSIGNMENT = "assignment";
+
+	/// Изменение одной бригады
+	public static ReferenceChangedEvent brigade(Integer id) {
+		return new ReferenceChangedEvent(StatusChangedEvent.BRIGADE, List.of(id));
+	}
+
+	/// Изменение одной заявки
+	public static ReferenceChangedEvent request(Integer id) {
+		return new ReferenceChangedEvent(StatusChangedEvent.REQUEST, List.of(id));
+	}
+
+	/// Изменение назначений
+	public static ReferenceChangedEvent assignments(List<Integer> ids) {
+		return new ReferenceChangedEvent(ASSIGNMENT, ids);
+	}
+
+	/// Изменение неизвестного набора объектов типа type
+	public static ReferenceChangedEvent all(String type) {
+		return new ReferenceChangedEvent(type, null);
+	}
+}
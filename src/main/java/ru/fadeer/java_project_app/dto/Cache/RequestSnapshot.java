@@ -0,0 +1,28 @@
+package ru.fadeer.java_project_app.dto.Cache;
+
+import java.time.LocalDateTime;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Неизменяемая копия полей заявки для кэша справочных данных. Из кэша каждый раз выдается новая
+/// отсоединенная сущность, поэтому изменения вызывающего не попадают в кэш
+public record RequestSnapshot(Integer requestId, Long version, String accidentType,
+		Request.Priority priority, String address, String applicantName,
+		LocalDateTime submissionTime, String description, Request.Status status) {
+
+	public static RequestSnapshot of(Request request) {
+		return new RequestSnapshot(request.getRequestId(), request.getVersion(),
+				request.getAccidentType(), request.getPriority(), request.getAddress(),
+				request.getApplicantName(), request.getSubmissionTime(), request.getDescription(),
+				request.getStatus());
+	}
+
+	/// Новая отсоединенная заявка с полями копии. Назначения не загружаются
+	public Request toRequest() {
+		Request request = new Request(accidentType, priority, address, applicantName,
+				submissionTime, description);
+		request.setRequestId(requestId);
+		request.setVersion(version);
+		request.setStatus(status);
+		return request;
+	}
+}
@@ -0,0 +1,21 @@
+package ru.fadeer.java_project_app.dto.Dashboard;
+
+import java.time.LocalDateTime;
+
+/// Фаза работ по назначению, определяется заполненными полями времени
+public enum AssignmentPhase {
+	/// Бригада в пути, работы не начаты
+	Pending,
+	/// Работы начаты, но не окончены
+	Started,
+	/// Работы окончены
+	Ended;
+
+	/// Фаза назначения по времени начала и окончания работ
+	public static AssignmentPhase of(LocalDateTime startTime, LocalDateTime endTime) {
+		if (endTime != null) {
+			return Ended;
+		}
+		return startTime != null ? Started : Pending;
+	}
+}
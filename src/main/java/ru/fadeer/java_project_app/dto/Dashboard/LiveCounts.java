@@ -0,0 +1,49 @@
+package ru.fadeer.java_project_app.dto.Dashboard;
+
+import java.util.Map;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Снимок счетчиков для главной страницы и списков
+///
+/// @param requests    количество заявок по статусам
+/// @param brigades    количество бригад по статусам
+/// @param assignments количество назначений по фазам
+public record LiveCounts(Map<Request.Status, Long> requests, Map<Brigade.Status, Long> brigades,
+		Map<AssignmentPhase, Long> assignments) {
+
+	/// Всего заявок
+	public long totalRequests() {
+		return requests.values().stream().mapToLong(Long::longValue).sum();
+	}
+
+	/// Заявок с определенным статусом
+	public long requestCount(Request.Status status) {
+		return requests.get(status);
+	}
+
+	/// Всего бригад, включая расформированные
+	public long totalBrigades() {
+		return brigades.values().stream().mapToLong(Long::longValue).sum();
+	}
+
+	/// Всего назначений
+	public long totalAssignments() {
+		return assignments.values().stream().mapToLong(Long::longValue).sum();
+	}
+
+	/// Назначений, по которым бригада в пути
+	public long pendingAssignments() {
+		return assignments.get(AssignmentPhase.Pending);
+	}
+
+	/// Назначений, по которым идут работы
+	public long startedAssignments() {
+		return assignments.get(AssignmentPhase.Started);
+	}
+
+	/// Завершенных назначений
+	public long endedAssignments() {
+		return assignments.get(AssignmentPhase.Ended);
+	}
+}
@@ -0,0 +1,15 @@
+package ru.fadeer.java_project_app.dto.Dashboard;
+
+/// Событие смены фазы назначений. Публикуется сервисами внутри транзакции и учитывается счетчиками
+/// после ее фиксации
+///
+/// @param previous прежняя фаза, null - назначения только что созданы
+/// @param phase    новая фаза, null - назначения удалены
+/// @param count    количество назначений, сменивших фазу
+public record PhaseChangedEvent(AssignmentPhase previous, AssignmentPhase phase, int count) {
+
+	/// Смена фазы одного назначения
+	public static PhaseChangedEvent of(AssignmentPhase previous, AssignmentPhase phase) {
+		return new PhaseChangedEvent(previous, phase, 1);
+	}
+}
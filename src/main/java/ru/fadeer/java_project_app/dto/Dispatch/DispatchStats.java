@@ -0,0 +1,19 @@
+package ru.fadeer.java_project_app.dto.Dispatch;
+
+/// Снимок показателей автоматического распределения бригад
+///
+/// @param rounds              количество выполненных раундов
+/// @param totalMatches        всего назначений, сделанных автоматически
+/// @param lastRoundMatches    назначений в последнем раунде
+/// @param lastRoundMillis     длительность последнего раунда в миллисекундах
+/// @param matchesPerSecond    средняя скорость назначения по всем раундам в расчете на один
+///                            обработчик
+/// @param queueDepth          непринятых заявок в очереди после последнего раунда
+/// @param freeBrigades        свободных бригад после последнего раунда
+/// @param workers             количество обработчиков при запуске по расписанию
+/// @param scheduled           включен ли автоматический запуск по расписанию
+public record DispatchStats(long rounds, long totalMatches, long lastRoundMatches,
+		long lastRoundMillis, double matchesPerSecond, long queueDepth, long freeBrigades,
+		int workers, boolean scheduled) {
+
+}
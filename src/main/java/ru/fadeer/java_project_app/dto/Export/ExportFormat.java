@@ -0,0 +1,38 @@
+package ru.fadeer.java_project_app.dto.Export;
+
+/// Формат файла выгрузки истории и массовой загрузки заявок
+public enum ExportFormat {
+	/// Одна строка JSON на заявку. При выгрузке назначения вложены массивом
+	NDJSON("application/x-ndjson", "ndjson"),
+	/// Строка заголовка и одна строка на запись. При выгрузке - на назначение, поля заявки
+	/// повторяются
+	CSV("text/csv", "csv");
+
+	private final String mediaType;
+	private final String extension;
+
+	ExportFormat(String mediaType, String extension) {
+		this.mediaType = mediaType;
+		this.extension = extension;
+	}
+
+	/// Тип содержимого ответа
+	public String getMediaType() {
+		return mediaType;
+	}
+
+	/// Расширение файла
+	public String getExtension() {
+		return extension;
+	}
+
+	/// Поиск формата по имени без учета регистра
+	public static ExportFormat fromName(String name) {
+		for (ExportFormat format : values()) {
+			if (format.name().equalsIgnoreCase(name)) {
+				return format;
+			}
+		}
+		throw new IllegalArgumentException("Неизвестный формат файла: " + name);
+	}
+}
@@ -0,0 +1,27 @@
+package ru.fadeer.java_project_app.dto.Export;
+
+import java.time.LocalDateTime;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Строка выгрузки истории: заявка и одно ее назначение. У заявки без назначений поля назначения
+/// равны null. Читается из БД конструктором в запросе, поэтому в контекст ничего не попадает
+///
+/// @param requestId      номер заявки
+/// @param accidentType   тип аварии
+/// @param priority       приоритет
+/// @param address        адрес
+/// @param applicantName  имя заявителя
+/// @param submissionTime время подачи
+/// @param description    описание, может быть null
+/// @param status         статус заявки
+/// @param assignmentId   номер назначения
+/// @param brigadeId      номер бригады
+/// @param brigadeCode    код бригады
+/// @param assignmentTime время назначения
+/// @param startTime      время начала работ
+/// @param endTime        время окончания работ
+public record HistoryRow(Integer requestId, String accidentType, Request.Priority priority,
+		String address, String applicantName, LocalDateTime submissionTime, String description,
+		Request.Status status, Integer assignmentId, Integer brigadeId, String brigadeCode, LocalDateTime assignmentTime,
+		LocalDateTime startTime, LocalDateTime endTime) {
+}
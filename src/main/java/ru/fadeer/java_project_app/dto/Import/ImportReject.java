@@ -0,0 +1,8 @@
+package ru.fadeer.java_project_app.dto.Import;
+
+/// Отклоненная строка массовой загрузки
+///
+/// @param line    номер строки во входном файле, начиная с 1
+/// @param message причина отказа
+public record ImportReject(long line, String message) {
+}
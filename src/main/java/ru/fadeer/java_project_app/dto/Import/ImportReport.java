@@ -0,0 +1,14 @@
+package ru.fadeer.java_project_app.dto.Import;
+
+import java.util.List;
+
+/// Итог массовой загрузки заявок
+///
+/// @param accepted      количество записанных заявок
+/// @param rejected      количество отклоненных строк
+/// @param rejects       отклоненные строки с причинами, не больше первой тысячи
+/// @param millis        длительность загрузки
+/// @param rowsPerSecond скорость обработки входных строк
+public record ImportReport(long accepted, long rejected, List<ImportReject> rejects, long millis,
+		long rowsPerSecond) {
+}
@@ -0,0 +1,11 @@
+package ru.fadeer.java_project_app.dto.Latency;
+
+/// Отслеживаемые промежутки жизни заявки
+public enum LatencyInterval {
+	/// От подачи заявки до первого назначения бригады (заявка принята)
+	SubmissionToAssignment,
+	/// От назначения бригады до начала работ
+	AssignmentToStart,
+	/// От начала до окончания работ
+	StartToEnd
+}
@@ -0,0 +1,17 @@
+package ru.fadeer.java_project_app.dto.Latency;
+
+import ru.fadeer.java_project_app.model.Request;
+
+/// Перцентили длительности промежутка в миллисекундах
+///
+/// @param interval     промежуток
+/// @param priority     приоритет заявок
+/// @param accidentType тип аварии, null - все типы приоритета
+/// @param count        количество замеров
+/// @param p50          медиана
+/// @param p90          90-й перцентиль
+/// @param p99          99-й перцентиль
+/// @param max          наибольшее значение
+public record LatencyPercentiles(LatencyInterval interval, Request.Priority priority,
+		String accidentType, long count, long p50, long p90, long p99, long max) {
+}
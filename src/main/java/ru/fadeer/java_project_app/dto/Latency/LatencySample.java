@@ -0,0 +1,19 @@
+package ru.fadeer.java_project_app.dto.Latency;
+
+import java.time.LocalDateTime;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Строка назначения с полями заявки для пересчета гистограмм. Читается из БД конструктором в
+/// запросе, без загрузки сущностей
+///
+/// @param requestId      номер заявки
+/// @param priority       приоритет заявки
+/// @param accidentType   тип аварии заявки
+/// @param submissionTime время подачи заявки
+/// @param assignmentTime время назначения
+/// @param startTime      время начала работ
+/// @param endTime        время окончания работ
+public record LatencySample(Integer requestId, Request.Priority priority, String accidentType,
+		LocalDateTime submissionTime, LocalDateTime assignmentTime, LocalDateTime startTime,
+		LocalDateTime endTime) {
+}
@@ -0,0 +1,14 @@
+package ru.fadeer.java_project_app.dto.Latency;
+
+import ru.fadeer.java_project_app.model.Request;
+
+/// Событие завершения отслеживаемого промежутка. Публикуется сервисами внутри транзакции и
+/// учитывается гистограммами после ее фиксации
+///
+/// @param interval     промежуток
+/// @param priority     приоритет заявки
+/// @param accidentType тип аварии заявки
+/// @param millis       длительность промежутка
+public record TransitionTimedEvent(LatencyInterval interval, Request.Priority priority,
+		String accidentType, long millis) {
+}
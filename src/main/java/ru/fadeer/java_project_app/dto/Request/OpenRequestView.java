@@ -0,0 +1,16 @@
+package ru.fadeer.java_project_app.dto.Request;
+
+import ru.fadeer.java_project_app.model.Request;
+
+/// Облегченное представление незавершенной заявки для формы назначения и табло. Читается из БД
+/// напрямую, без загрузки сущности и ее назначений
+public interface OpenRequestView {
+
+	Integer getRequestId();
+
+	String getAccidentType();
+
+	String getAddress();
+
+	Request.Status getStatus();
+}
@@ -0,0 +1,39 @@
+package ru.fadeer.java_project_app.dto.Request;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/// Курсор для постраничного вывода заявок методом "seek". Хранит ключ последней (или первой)
+/// строки страницы: время подачи и номер заявки. В адресной строке передается в виде
+/// `ГГГГ-ММ-ДДTЧЧ:ММ:СС_номер`
+///
+/// @param submissionTime время подачи заявки
+/// @param requestId      номер заявки
+public record RequestCursor(LocalDateTime submissionTime, Integer requestId) {
+
+	private static final char SEPARATOR = '_';
+
+	/// Разбор курсора из строки. Пустая строка означает первую страницу
+	///
+	/// @param value строковое представление курсора
+	public static RequestCursor parse(String value) {
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+		int index = value.lastIndexOf(SEPARATOR);
+		if (index <= 0 || index == value.length() - 1) {
+			throw new IllegalArgumentException("Некорректный курсор страницы: " + value);
+		}
+		try {
+			return new RequestCursor(LocalDateTime.parse(value.substring(0, index)),
+					Integer.valueOf(value.substring(index + 1)));
+		} catch (DateTimeParseException | NumberFormatException e) {
+			throw new IllegalArgumentException("Некорректный курсор страницы: " + value);
+		}
+	}
+
+	/// Строковое представление курсора для ссылок в шаблоне
+	public String encode() {
+		return submissionTime + String.valueOf(SEPARATOR) + requestId;
+	}
+}
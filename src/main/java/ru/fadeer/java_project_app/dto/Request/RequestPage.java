@@ -0,0 +1,24 @@
+package ru.fadeer.java_project_app.dto.Request;
+
+import java.util.List;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Страница заявок для шаблона списка. Содержит строки страницы и курсоры для перехода к соседним
+/// страницам. Курсор равен null, если в этом направлении страниц больше нет
+///
+/// @param requests   заявки текущей страницы, от новых к старым
+/// @param size       размер страницы
+/// @param nextCursor курсор следующей (более старой) страницы
+/// @param prevCursor курсор предыдущей (более новой) страницы
+public record RequestPage(List<Request> requests, int size, String nextCursor, String prevCursor) {
+
+	/// Есть ли более старые заявки
+	public boolean hasNext() {
+		return nextCursor != null;
+	}
+
+	/// Есть ли более новые заявки
+	public boolean hasPrev() {
+		return prevCursor != null;
+	}
+}
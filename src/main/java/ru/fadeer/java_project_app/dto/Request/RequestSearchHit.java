@@ -0,0 +1,19 @@
+package ru.fadeer.java_project_app.dto.Request;
+
+import java.time.LocalDateTime;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Заявка в результатах поиска. Читается из БД запросом поиска, без загрузки сущности
+///
+/// @param requestId      номер заявки
+/// @param accidentType   тип аварии
+/// @param priority       приоритет
+/// @param address        адрес
+/// @param applicantName  заявитель
+/// @param status         статус
+/// @param submissionTime время подачи
+/// @param rank           релевантность, больше - лучше
+public record RequestSearchHit(Integer requestId, String accidentType, Request.Priority priority,
+		String address, String applicantName, Request.Status status, LocalDateTime submissionTime,
+		double rank) {
+}
@@ -0,0 +1,32 @@
+package ru.fadeer.java_project_app.dto.Request;
+
+import java.util.List;
+
+/// Страница результатов поиска заявок, от более релевантных к менее. Результаты упорядочены по
+/// релевантности, а не по ключу индекса, поэтому страницы задаются смещением
+///
+/// @param query     строка поиска
+/// @param hits      заявки текущей страницы
+/// @param size      размер страницы
+/// @param offset    смещение первой заявки страницы
+/// @param hasNext   есть ли следующая страница
+/// @param truncated совпадений больше request-search.max-candidates, ранжировались только самые
+///                  новые из них
+public record RequestSearchPage(String query, List<RequestSearchHit> hits, int size, int offset,
+		boolean hasNext, boolean truncated) {
+
+	/// Есть ли предыдущая страница
+	public boolean hasPrev() {
+		return offset > 0;
+	}
+
+	/// Смещение следующей страницы
+	public int nextOffset() {
+		return offset + size;
+	}
+
+	/// Смещение предыдущей страницы
+	public int prevOffset() {
+		return Math.max(0, offset - size);
+	}
+}
@@ -1,5 +1,6 @@
 package ru.fadeer.java_project_app.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -9,13 +10,20 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
-/// Сущность Назначение. Объект представляет строку из соответствующей таблицы "assignments"
+/// Сущность Назначение. Объект представляет строку из соответствующей таблицы "assignments".
+/// Хранится во втором уровне кэша Hibernate, чтобы списки назначений бригады и заявки из кэша не
+/// загружали каждое назначение отдельным запросом
 @Entity
 @Table(name = "assignments")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Setter
 @Getter
 public class Assignment {
@@ -24,6 +32,11 @@ public class Assignment {
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Integer assignmentId;
 
+	/// Версия строки для оптимистической блокировки. Увеличивается при каждом изменении
+	@Version
+	@Column(name = "version", nullable = false)
+	private Long version;
+
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "brigade_id", nullable = false)
 	private Brigade brigade;
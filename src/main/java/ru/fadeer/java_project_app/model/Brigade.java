@@ -2,6 +2,7 @@ package ru.fadeer.java_project_app.model;
 
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
@@ -10,17 +11,24 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 import ru.fadeer.java_project_app.model.Converters.BrigadeStatusConverter;
 
 
 /// Сущность Бригада. Объект представляет строку из соответствующей таблицы "brigades". Содержит
-/// перечисления для корректной работы с БД
+/// перечисления для корректной работы с БД. Бригады и их списки назначений хранятся во втором
+/// уровне кэша Hibernate
 @Entity
 @Table(name = "brigades")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Setter
 @Getter
 public class Brigade {
@@ -29,6 +37,11 @@ public class Brigade {
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Integer brigadeId;
 
+	/// Версия строки для оптимистической блокировки. Увеличивается при каждом изменении
+	@Version
+	@Column(name = "version", nullable = false)
+	private Long version;
+
 	@Column(name = "brigade_code", unique = true, nullable = false)
 	private String brigadeCode;
 
@@ -46,20 +59,34 @@ public class Brigade {
 	private Status status = Status.free;
 
 	/// Хранит связанные с конкретной бригадой назначения. Каскадное удаление, авто удаление дочерних
-	/// сущностей
+	/// сущностей. Новое назначение не меняет версию: ее защищают только собственные поля строки
+	@OptimisticLock(excluded = true)
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 	@OneToMany(mappedBy = "brigade", cascade = CascadeType.ALL, orphanRemoval = true)
 	private List<Assignment> assignments = new ArrayList<>();
 
-	/// Перечисление фиксированных значений БД для статусов
+	/// Перечисление фиксированных значений БД для статусов. В БД хранится числовой код статуса,
+	/// текст используется только для вывода
 	public enum Status {
-		inPlace("На месте"),
-		inRoad("В пути"),
-		free("Свободен"),
-		disbanded("Расформирована");
+		inPlace(0, "На месте"),
+		inRoad(1, "В пути"),
+		free(2, "Свободен"),
+		disbanded(3, "Расформирована");
+
+		/// Статусы, упорядоченные по коду, для поиска по коду без перебора
+		private static final Status[] BY_CODE = new Status[values().length];
+
+		static {
+			for (Status status : values()) {
+				BY_CODE[status.code] = status;
+			}
+		}
 
+		private final short code;
 		private final String toDisplay;
 
-		Status(String display) {
+		Status(int code, String display) {
+			this.code = (short) code;
 			this.toDisplay = display;
 		}
 
@@ -67,6 +94,19 @@ public class Brigade {
 		public String getToDisplay() {
 			return toDisplay;
 		}
+
+		/// Код статуса в БД
+		public short getCode() {
+			return code;
+		}
+
+		/// Поиск статуса по коду из БД
+		public static Status fromCode(short code) {
+			if (code < 0 || code >= BY_CODE.length) {
+				throw new IllegalArgumentException("Недопустимый статус: " + code);
+			}
+			return BY_CODE[code];
+		}
 	}
 
 	public Brigade() {
@@ -4,36 +4,26 @@ import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
 import ru.fadeer.java_project_app.model.Brigade;
 
-/// Конвертер для статусов бригад. Нужен для корректного обмена данными между сущностями и БД
+/// Конвертер для статусов бригад. Нужен для корректного обмена данными между сущностями и БД. В БД
+/// статус хранится числовым кодом (smallint)
 @Converter
-public class BrigadeStatusConverter implements AttributeConverter<Brigade.Status, String> {
+public class BrigadeStatusConverter implements AttributeConverter<Brigade.Status, Short> {
 
 	/// Конвертация к БД
 	@Override
-	public String convertToDatabaseColumn(Brigade.Status status) {
+	public Short convertToDatabaseColumn(Brigade.Status status) {
 		if (status == null) {
 			return null;
 		}
-		return switch (status) {
-			case free -> "Свободен";
-			case inPlace -> "На месте";
-			case inRoad -> "В пути";
-			case disbanded -> "Расформирована";
-		};
+		return status.getCode();
 	}
 
 	/// Конвертация к сущности
 	@Override
-	public Brigade.Status convertToEntityAttribute(String status) {
-		if (status == null) {
+	public Brigade.Status convertToEntityAttribute(Short code) {
+		if (code == null) {
 			return null;
 		}
-		return switch (status) {
-			case "Свободен" -> Brigade.Status.free;
-			case "На месте" -> Brigade.Status.inPlace;
-			case "В пути" -> Brigade.Status.inRoad;
-			case "Расформирована" -> Brigade.Status.disbanded;
-			default -> throw new IllegalArgumentException("Недопустимый статус: " + status);
-		};
+		return Brigade.Status.fromCode(code);
 	}
 }
@@ -11,21 +11,12 @@ public class RequestPriorityConverter implements AttributeConverter<Request.Prio
 	/// Конвертация к БД
 	@Override
 	public Integer convertToDatabaseColumn(Request.Priority priority) {
-		return switch (priority) {
-			case High -> 1;
-			case Medium -> 2;
-			case Low -> 3;
-		};
+		return priority.getToDisplayInt();
 	}
 
 	/// Конвертация к сущности
 	@Override
 	public Request.Priority convertToEntityAttribute(Integer priority) {
-		return switch (priority) {
-			case 1 -> Request.Priority.High;
-			case 2 -> Request.Priority.Medium;
-			case 3 -> Request.Priority.Low;
-			default -> throw new IllegalArgumentException("Недопустимый приоритет: " + priority);
-		};
+		return Request.Priority.fromValue(priority);
 	}
 }
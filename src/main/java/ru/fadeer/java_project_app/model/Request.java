@@ -1,6 +1,7 @@
 package ru.fadeer.java_project_app.model;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
@@ -9,18 +10,25 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 import ru.fadeer.java_project_app.model.Converters.RequestPriorityConverter;
 import ru.fadeer.java_project_app.model.Converters.RequestStatusConverter;
 
 /// Сущность заявка. Объект представляет строку из соответствующей таблицы "requests". Содержит
-/// перечисления для корректной работы с БД
+/// перечисления для корректной работы с БД. Заявки и их списки назначений хранятся во втором
+/// уровне кэша Hibernate
 @Entity
 @Table(name = "requests")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Setter
 @Getter
 public class Request {
@@ -29,6 +37,11 @@ public class Request {
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Integer requestId;
 
+	/// Версия строки для оптимистической блокировки. Увеличивается при каждом изменении
+	@Version
+	@Column(name = "version", nullable = false)
+	private Long version;
+
 	@Column(name = "accident_type", nullable = false)
 	private String accidentType;
 
@@ -53,16 +66,29 @@ public class Request {
 	private Status status = Status.Not_Accepted;
 
 	/// Хранит связанные с конкретной заявкой назначения. Каскадное удаление, авто удаление дочерних
-	/// сущностей
+	/// сущностей. Новое назначение не меняет версию: ее защищают только собственные поля строки
+	@OptimisticLock(excluded = true)
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 	@OneToMany(mappedBy = "request", cascade = CascadeType.ALL, orphanRemoval = true)
 	private List<Assignment> assignments = new ArrayList<>();
 
-	/// Перечисление фиксированных значений БД для приоритетов
+	/// Перечисление фиксированных значений БД для приоритетов. В БД хранится числовое значение
+	/// приоритета (toDisplayInt)
 	public enum Priority {
 		High("1", 1),
 		Medium("2", 2),
 		Low("3", 3);
 
+		/// Приоритеты, упорядоченные по значению, для поиска без перебора. Нулевой элемент не
+		/// используется
+		private static final Priority[] BY_VALUE = new Priority[values().length + 1];
+
+		static {
+			for (Priority priority : values()) {
+				BY_VALUE[priority.toDisplayInt] = priority;
+			}
+		}
+
 		private final String toDisplayStr;
 		private final int toDisplayInt;
 
@@ -80,18 +106,43 @@ public class Request {
 		public int getToDisplayInt() {
 			return toDisplayInt;
 		}
+
+		/// Поиск приоритета по значению из БД
+		public static Priority fromValue(int value) {
+			if (value <= 0 || value >= BY_VALUE.length) {
+				throw new IllegalArgumentException("Недопустимый приоритет: " + value);
+			}
+			return BY_VALUE[value];
+		}
 	}
 
-	/// Перечисление фиксированных значений БД для статусов
+	/// Перечисление фиксированных значений БД для статусов. В БД хранится числовой код статуса,
+	/// текст используется только для вывода
 	public enum Status {
-		Not_Accepted("Не принято"),
-		Accepted("Принято"),
-		In_Progress("В работе"),
-		Completed("Завершено");
+		Not_Accepted(0, "Не принято"),
+		Accepted(1, "Принято"),
+		In_Progress(2, "В работе"),
+		Completed(3, "Завершено");
+
+		/// Статусы незавершенных заявок. Очередь заявок выбирается по ним, а не по неравенству с
+		/// Completed: условие IN читается по индексу, и стоимость зависит от числа открытых заявок,
+		/// а не от всей истории
+		public static final List<Status> OPEN = List.of(Not_Accepted, Accepted, In_Progress);
+
+		/// Статусы, упорядоченные по коду, для поиска по коду без перебора
+		private static final Status[] BY_CODE = new Status[values().length];
+
+		static {
+			for (Status status : values()) {
+				BY_CODE[status.code] = status;
+			}
+		}
 
+		private final short code;
 		private final String toDisplay;
 
-		Status(String toDisplay) {
+		Status(int code, String toDisplay) {
+			this.code = (short) code;
 			this.toDisplay = toDisplay;
 		}
 
@@ -99,6 +150,19 @@ public class Request {
 		public String getToDisplay() {
 			return toDisplay;
 		}
+
+		/// Код статуса в БД
+		public short getCode() {
+			return code;
+		}
+
+		/// Поиск статуса по коду из БД
+		public static Status fromCode(short code) {
+			if (code < 0 || code >= BY_CODE.length) {
+				throw new IllegalArgumentException("Недопустимый статус: " + code);
+			}
+			return BY_CODE[code];
+		}
 	}
 
 	public Request() {
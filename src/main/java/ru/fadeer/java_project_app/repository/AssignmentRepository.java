@@ -1,14 +1,123 @@
 package ru.fadeer.java_project_app.repository;
 
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.fadeer.java_project_app.dto.Api.AssignmentSummary;
+import ru.fadeer.java_project_app.dto.Assignments.AssignmentPhaseCounts;
+import ru.fadeer.java_project_app.dto.Assignments.OpenAssignmentRef;
+import ru.fadeer.java_project_app.dto.Latency.LatencySample;
 import ru.fadeer.java_project_app.model.Assignment;
 
 /// Интерфейс объединяющий сущности и БД. Наследует JpaRepository, генерирующий SQL запросы
 public interface AssignmentRepository extends JpaRepository<Assignment, Integer> {
 
+	/// Общая часть запросов представлений назначения для JSON API. Номера заявки и бригады берутся
+	/// из внешних ключей, соединения таблиц нет
+	String SUMMARY = "SELECT new ru.fadeer.java_project_app.dto.Api.AssignmentSummary("
+			+ "a.assignmentId, a.request.requestId, a.brigade.brigadeId, "
+			+ "a.assignmentTime, a.startTime, a.endTime) "
+			+ "FROM Assignment a ";
+
 	/// Метод для получения из БД списка связанных назначений с заявкой.
 	/// @param id номер заявки в БД
 	List<Assignment> findByRequestRequestId(Integer id);
 
+	/// Метод для получения всех назначений вместе с бригадами и заявками одним запросом. Нужен для
+	/// списка назначений, где для каждой строки выводятся данные бригады и заявки
+	@EntityGraph(attributePaths = {"brigade", "request"})
+	@Query("SELECT a FROM Assignment a ORDER BY a.assignmentId")
+	List<Assignment> findAllWithBrigadeAndRequest();
+
+	/// Метод для получения одного назначения вместе с бригадой и заявкой одним запросом
+	/// @param id номер назначения в БД
+	@EntityGraph(attributePaths = {"brigade", "request"})
+	Optional<Assignment> findWithBrigadeAndRequestByAssignmentId(Integer id);
+
+	/// Метод для подсчета назначений заявки по фазам работ одним запросом
+	/// @param requestId номер заявки в БД
+	@Query("SELECT COUNT(a) AS total, "
+			+ "COALESCE(SUM(CASE WHEN a.startTime IS NULL THEN 1 ELSE 0 END), 0) AS pending, "
+			+ "COALESCE(SUM(CASE WHEN a.startTime IS NOT NULL AND a.endTime IS NULL THEN 1 ELSE 0 END), 0) AS started, "
+			+ "COALESCE(SUM(CASE WHEN a.endTime IS NOT NULL THEN 1 ELSE 0 END), 0) AS ended "
+			+ "FROM Assignment a WHERE a.request.requestId = :requestId")
+	AssignmentPhaseCounts countPhasesByRequest(@Param("requestId") Integer requestId);
+
+	/// Метод для подсчета незавершенных назначений бригады по фазам работ. Завершенные назначения
+	/// не читаются, поэтому стоимость не зависит от истории выездов бригады
+	/// @param brigadeId номер бригады в БД
+	@Query("SELECT COUNT(a) AS total, "
+			+ "COALESCE(SUM(CASE WHEN a.startTime IS NULL THEN 1 ELSE 0 END), 0) AS pending, "
+			+ "COALESCE(SUM(CASE WHEN a.startTime IS NOT NULL THEN 1 ELSE 0 END), 0) AS started, "
+			+ "0 AS ended "
+			+ "FROM Assignment a WHERE a.brigade.brigadeId = :brigadeId AND a.endTime IS NULL")
+	AssignmentPhaseCounts countOpenPhasesByBrigade(@Param("brigadeId") Integer brigadeId);
+
+	/// Метод для получения незавершенных назначений заявки вместе с номерами и статусами бригад,
+	/// приоритетом и типом аварии заявки
+	/// @param requestId номер заявки в БД
+	@Query("SELECT a.assignmentId AS assignmentId, b.brigadeId AS brigadeId, "
+			+ "b.status AS brigadeStatus, a.assignmentTime AS assignmentTime, "
+			+ "a.startTime AS startTime, r.priority AS priority, r.accidentType AS accidentType "
+			+ "FROM Assignment a JOIN a.brigade b JOIN a.request r "
+			+ "WHERE a.request.requestId = :requestId AND a.endTime IS NULL")
+	List<OpenAssignmentRef> findOpenRefsByRequest(@Param("requestId") Integer requestId);
+
+	/// Массовое завершение назначений одним запросом. Назначениям без начала работ время начала
+	/// ставится равным времени окончания. Версии строк увеличиваются, как при изменении через
+	/// Hibernate. Контекст сохраняется до запроса и очищается после него
+	/// @param ids     номера назначений
+	/// @param endTime время окончания работ
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Assignment a SET a.startTime = COALESCE(a.startTime, :endTime), a.endTime = :endTime, "
+			+ "a.version = a.version + 1 WHERE a.assignmentId IN :ids AND a.endTime IS NULL")
+	int completeAll(@Param("ids") List<Integer> ids, @Param("endTime") LocalDateTime endTime);
+
+	/// Представление назначения для JSON API
+	/// @param id номер назначения в БД
+	@Query(SUMMARY + "WHERE a.assignmentId = :id")
+	Optional<AssignmentSummary> findSummaryById(@Param("id") Integer id);
+
+	/// Страница представлений назначений с номером больше after, по порядку номеров
+	/// @param after номер последнего назначения предыдущей страницы, 0 - первая страница
+	/// @param limit размер страницы
+	@Query(SUMMARY + "WHERE a.assignmentId > :after ORDER BY a.assignmentId")
+	List<AssignmentSummary> findSummaryPage(@Param("after") Integer after, Limit limit);
+
+	/// Страница представлений назначений заявки с номером больше after
+	/// @param requestId номер заявки в БД
+	/// @param after     номер последнего назначения предыдущей страницы, 0 - первая страница
+	/// @param limit     размер страницы
+	@Query(SUMMARY + "WHERE a.request.requestId = :requestId AND a.assignmentId > :after "
+			+ "ORDER BY a.assignmentId")
+	List<AssignmentSummary> findSummaryPageByRequest(@Param("requestId") Integer requestId,
+			@Param("after") Integer after, Limit limit);
+
+	/// Поток всех назначений с полями заявки для пересчета гистограмм времени реакции. Строки одной
+	/// заявки идут подряд, от раннего назначения к позднему. Поток нужно читать внутри транзакции и
+	/// закрывать после чтения
+	@QueryHints({
+			@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+	@Query("SELECT new ru.fadeer.java_project_app.dto.Latency.LatencySample("
+			+ "r.requestId, r.priority, r.accidentType, r.submissionTime, a.assignmentTime, "
+			+ "a.startTime, a.endTime) "
+			+ "FROM Assignment a JOIN a.request r "
+			+ "ORDER BY r.requestId, a.assignmentTime, a.assignmentId")
+	Stream<LatencySample> streamLatencySamples();
+
+	/// Типы аварий заявок с назначениями, от частых к редким
+	@Query("SELECT r.accidentType FROM Assignment a JOIN a.request r "
+			+ "GROUP BY r.accidentType ORDER BY count(a) DESC, r.accidentType")
+	List<String> findFrequentAccidentTypes(Limit limit);
 }
@@ -1,11 +1,26 @@
 package ru.fadeer.java_project_app.repository;
 
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.fadeer.java_project_app.dto.Api.BrigadeSummary;
+import ru.fadeer.java_project_app.dto.Brigade.BrigadeStatusView;
+import ru.fadeer.java_project_app.dto.Brigade.FreeBrigadeView;
 import ru.fadeer.java_project_app.model.Brigade;
 
 /// Интерфейс объединяющий сущности и БД. Наследует JpaRepository, генерирующий SQL запросы
 public interface BrigadeRepository extends JpaRepository<Brigade, Integer> {
 
+	/// Общая часть запросов представлений бригады для JSON API
+	String SUMMARY = "SELECT new ru.fadeer.java_project_app.dto.Api.BrigadeSummary("
+			+ "b.brigadeId, b.brigadeCode, b.vehicleNumber, b.foremanName, b.status) "
+			+ "FROM Brigade b ";
+
 	/// Метод проверки существования мышины с номером vehicleNumber
 	/// @param vehicleNumber номер машины
 	boolean existsByVehicleNumber(String vehicleNumber);
@@ -13,4 +28,74 @@ public interface BrigadeRepository extends JpaRepository<Brigade, Integer> {
 	/// Метод проверки существования бригады с кодом brigadeCode
 	/// @param brigadeCode номер бригады
 	boolean existsByBrigadeCode(String brigadeCode);
+
+	/// Метод проверки существования другой машины с номером vehicleNumber
+	/// @param vehicleNumber номер машины
+	/// @param brigadeId     номер бригады, которая не учитывается
+	boolean existsByVehicleNumberAndBrigadeIdNot(String vehicleNumber, Integer brigadeId);
+
+	/// Метод проверки существования другой бригады с кодом brigadeCode
+	/// @param brigadeCode номер бригады
+	/// @param brigadeId   номер бригады, которая не учитывается
+	boolean existsByBrigadeCodeAndBrigadeIdNot(String brigadeCode, Integer brigadeId);
+
+	/// Метод для получения бригады вместе с историей назначений и их заявками одним запросом. Нужен
+	/// для страницы просмотра бригады
+	/// @param id номер бригады в БД
+	@EntityGraph(attributePaths = {"assignments", "assignments.request"})
+	Optional<Brigade> findWithAssignmentsByBrigadeId(Integer id);
+
+	/// Метод для получения облегченного списка бригад с определенным статусом, упорядоченного по коду.
+	/// Используется формой назначения для выбора свободных бригад
+	/// @param status статус бригады
+	List<FreeBrigadeView> findByStatusOrderByBrigadeCode(Brigade.Status status);
+
+	/// Метод для получения облегченного списка бригад со статусом, отличным от status,
+	/// упорядоченного по коду. Используется табло диспетчера
+	/// @param status исключаемый статус бригады
+	List<BrigadeStatusView> findByStatusNotOrderByBrigadeCode(Brigade.Status status);
+
+	/// Захват бригад с определенным статусом по порядку номеров для автоматического распределения.
+	/// Строки блокируются до конца транзакции, а заблокированные другими транзакциями пропускаются:
+	/// параллельные обработчики, в том числе на других узлах, получают разные бригады и не ждут друг
+	/// друга. FOR NO KEY UPDATE не мешает вставке назначений, ссылающихся на бригаду
+	/// @param status код статуса бригады
+	/// @param limit  максимальное количество бригад
+	@Query(value = "SELECT * FROM brigades WHERE status = :status ORDER BY brigade_id "
+			+ "LIMIT :limit FOR NO KEY UPDATE SKIP LOCKED", nativeQuery = true)
+	List<Brigade> claimByStatus(@Param("status") short status, @Param("limit") int limit);
+
+	/// Метод для получения количества бригад с определенным статусом
+	/// @param status статус бригады
+	long countByStatus(Brigade.Status status);
+
+	/// Массовая смена статуса бригад одним запросом. Бригады со статусом excluded не затрагиваются,
+	/// версии остальных увеличиваются. Контекст сохраняется до запроса и очищается после него
+	/// @param ids      номера бригад
+	/// @param status   новый статус
+	/// @param excluded статус, который менять нельзя
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Brigade b SET b.status = :status, b.version = b.version + 1 "
+			+ "WHERE b.brigadeId IN :ids AND b.status <> :excluded")
+	int updateStatusWhereStatusNot(@Param("ids") List<Integer> ids,
+			@Param("status") Brigade.Status status, @Param("excluded") Brigade.Status excluded);
+
+	/// Представление бригады для JSON API
+	/// @param id номер бригады в БД
+	@Query(SUMMARY + "WHERE b.brigadeId = :id")
+	Optional<BrigadeSummary> findSummaryById(@Param("id") Integer id);
+
+	/// Страница представлений бригад с номером больше after, по порядку номеров
+	/// @param after номер последней бригады предыдущей страницы, 0 - первая страница
+	/// @param limit размер страницы
+	@Query(SUMMARY + "WHERE b.brigadeId > :after ORDER BY b.brigadeId")
+	List<BrigadeSummary> findSummaryPage(@Param("after") Integer after, Limit limit);
+
+	/// Страница представлений бригад с определенным статусом и номером больше after
+	/// @param status статус бригады
+	/// @param after  номер последней бригады предыдущей страницы, 0 - первая страница
+	/// @param limit  размер страницы
+	@Query(SUMMARY + "WHERE b.status = :status AND b.brigadeId > :after ORDER BY b.brigadeId")
+	List<BrigadeSummary> findSummaryPageByStatus(@Param("status") Brigade.Status status,
+			@Param("after") Integer after, Limit limit);
 }
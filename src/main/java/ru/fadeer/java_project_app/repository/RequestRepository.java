@@ -1,14 +1,170 @@
 package ru.fadeer.java_project_app.repository;
 
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.fadeer.java_project_app.dto.Api.RequestSummary;
+import ru.fadeer.java_project_app.dto.Export.HistoryRow;
+import ru.fadeer.java_project_app.dto.Request.OpenRequestView;
 import ru.fadeer.java_project_app.model.Request;
 
 /// Интерфейс объединяющий сущности и БД. Наследует JpaRepository, генерирующий SQL запросы
 public interface RequestRepository extends JpaRepository<Request, Integer> {
 
+	/// Общая часть запросов представлений заявки для JSON API
+	String SUMMARY = "SELECT new ru.fadeer.java_project_app.dto.Api.RequestSummary("
+			+ "r.requestId, r.accidentType, r.priority, r.address, r.status, r.submissionTime) "
+			+ "FROM Request r ";
+
 	/// Метод для получения списка заявок с определенным статусом status
 	/// @param status статус заявки
 	List<Request> findByStatus(Request.Status status);
 
-}
\ No newline at end of file
+	/// Метод для получения количества заявок с определенным статусом
+	/// @param status статус заявки
+	long countByStatus(Request.Status status);
+
+	/// Захват головы очереди заявок с определенным статусом для автоматического распределения:
+	/// сначала высокий приоритет, внутри приоритета - более ранние. Строки блокируются до конца
+	/// транзакции, а заблокированные другими транзакциями пропускаются, поэтому параллельные
+	/// обработчики получают разные заявки и не ждут друг друга
+	/// @param status код статуса заявки
+	/// @param limit  максимальное количество заявок
+	@Query(value = "SELECT * FROM requests WHERE status = :status "
+			+ "ORDER BY priority, submission_time, request_id "
+			+ "LIMIT :limit FOR NO KEY UPDATE SKIP LOCKED", nativeQuery = true)
+	List<Request> claimQueue(@Param("status") short status, @Param("limit") int limit);
+
+	/// Метод для получения заявки вместе с назначениями и их бригадами одним запросом. Нужен для
+	/// страницы просмотра заявки
+	/// @param id номер заявки в БД
+	@EntityGraph(attributePaths = {"assignments", "assignments.brigade"})
+	Optional<Request> findWithAssignmentsByRequestId(Integer id);
+
+	/// Метод для получения облегченного списка заявок с одним из статусов statuses. Сначала
+	/// выводятся заявки с высоким приоритетом, внутри приоритета - более ранние
+	/// @param statuses статусы заявок, обычно Request.Status.OPEN
+	List<OpenRequestView> findByStatusInOrderByPriorityAscSubmissionTimeAscRequestIdAsc(
+			Collection<Request.Status> statuses);
+
+	/// Первая страница заявок, от новых к старым
+	/// @param limit размер страницы
+	@Query("SELECT r FROM Request r ORDER BY r.submissionTime DESC, r.requestId DESC")
+	List<Request> findFirstPage(Limit limit);
+
+	/// Страница заявок старше курсора (submissionTime, requestId), от новых к старым
+	/// @param time  время подачи последней заявки предыдущей страницы
+	/// @param id    номер последней заявки предыдущей страницы
+	/// @param limit размер страницы
+	@Query("SELECT r FROM Request r "
+			+ "WHERE r.submissionTime < :time OR (r.submissionTime = :time AND r.requestId < :id) "
+			+ "ORDER BY r.submissionTime DESC, r.requestId DESC")
+	List<Request> findPageAfter(@Param("time") LocalDateTime time, @Param("id") Integer id,
+			Limit limit);
+
+	/// Страница заявок новее курсора (submissionTime, requestId), от старых к новым. Вызывающий
+	/// разворачивает результат
+	/// @param time  время подачи первой заявки текущей страницы
+	/// @param id    номер первой заявки текущей страницы
+	/// @param limit размер страницы
+	@Query("SELECT r FROM Request r "
+			+ "WHERE r.submissionTime > :time OR (r.submissionTime = :time AND r.requestId > :id) "
+			+ "ORDER BY r.submissionTime ASC, r.requestId ASC")
+	List<Request> findPageBefore(@Param("time") LocalDateTime time, @Param("id") Integer id,
+			Limit limit);
+
+	/// Первая страница заявок с определенным статусом, от новых к старым
+	/// @param status статус заявки
+	/// @param limit  размер страницы
+	@Query("SELECT r FROM Request r WHERE r.status = :status "
+			+ "ORDER BY r.submissionTime DESC, r.requestId DESC")
+	List<Request> findFirstPageByStatus(@Param("status") Request.Status status, Limit limit);
+
+	/// Страница заявок с определенным статусом старше курсора
+	/// @param status статус заявки
+	/// @param time   время подачи последней заявки предыдущей страницы
+	/// @param id     номер последней заявки предыдущей страницы
+	/// @param limit  размер страницы
+	@Query("SELECT r FROM Request r WHERE r.status = :status "
+			+ "AND (r.submissionTime < :time OR (r.submissionTime = :time AND r.requestId < :id)) "
+			+ "ORDER BY r.submissionTime DESC, r.requestId DESC")
+	List<Request> findPageAfterByStatus(@Param("status") Request.Status status,
+			@Param("time") LocalDateTime time, @Param("id") Integer id, Limit limit);
+
+	/// Страница заявок с определенным статусом новее курсора, от старых к новым
+	/// @param status статус заявки
+	/// @param time   время подачи первой заявки текущей страницы
+	/// @param id     номер первой заявки текущей страницы
+	/// @param limit  размер страницы
+	@Query("SELECT r FROM Request r WHERE r.status = :status "
+			+ "AND (r.submissionTime > :time OR (r.submissionTime = :time AND r.requestId > :id)) "
+			+ "ORDER BY r.submissionTime ASC, r.requestId ASC")
+	List<Request> findPageBeforeByStatus(@Param("status") Request.Status status,
+			@Param("time") LocalDateTime time, @Param("id") Integer id, Limit limit);
+
+	/// Представление заявки для JSON API
+	/// @param id номер заявки в БД
+	@Query(SUMMARY + "WHERE r.requestId = :id")
+	Optional<RequestSummary> findSummaryById(@Param("id") Integer id);
+
+	/// Первая страница представлений заявок, от новых к старым
+	/// @param limit размер страницы
+	@Query(SUMMARY + "ORDER BY r.submissionTime DESC, r.requestId DESC")
+	List<RequestSummary> findFirstSummaryPage(Limit limit);
+
+	/// Страница представлений заявок старше курсора (submissionTime, requestId)
+	/// @param time  время подачи последней заявки предыдущей страницы
+	/// @param id    номер последней заявки предыдущей страницы
+	/// @param limit размер страницы
+	@Query(SUMMARY
+			+ "WHERE r.submissionTime < :time OR (r.submissionTime = :time AND r.requestId < :id) "
+			+ "ORDER BY r.submissionTime DESC, r.requestId DESC")
+	List<RequestSummary> findSummaryPageAfter(@Param("time") LocalDateTime time,
+			@Param("id") Integer id, Limit limit);
+
+	/// Первая страница представлений заявок с определенным статусом
+	/// @param status статус заявки
+	/// @param limit  размер страницы
+	@Query(SUMMARY + "WHERE r.status = :status ORDER BY r.submissionTime DESC, r.requestId DESC")
+	List<RequestSummary> findFirstSummaryPageByStatus(@Param("status") Request.Status status,
+			Limit limit);
+
+	/// Страница представлений заявок с определенным статусом старше курсора
+	/// @param status статус заявки
+	/// @param time   время подачи последней заявки предыдущей страницы
+	/// @param id     номер последней заявки предыдущей страницы
+	/// @param limit  размер страницы
+	@Query(SUMMARY + "WHERE r.status = :status "
+			+ "AND (r.submissionTime < :time OR (r.submissionTime = :time AND r.requestId < :id)) "
+			+ "ORDER BY r.submissionTime DESC, r.requestId DESC")
+	List<RequestSummary> findSummaryPageAfterByStatus(@Param("status") Request.Status status,
+			@Param("time") LocalDateTime time, @Param("id") Integer id, Limit limit);
+
+	/// Поток строк истории заявок, поданных в промежутке [from, to), вместе с назначениями. Строки
+	/// одной заявки идут подряд. Драйвер читает результат порциями по fetchSize строк через
+	/// серверный курсор, поэтому поток нужно читать внутри транзакции и закрывать после чтения
+	/// @param from начало промежутка, включительно
+	/// @param to   конец промежутка, не включительно
+	@QueryHints({
+			@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+	@Query("SELECT new ru.fadeer.java_project_app.dto.Export.HistoryRow("
+			+ "r.requestId, r.accidentType, r.priority, r.address, r.applicantName, r.submissionTime, "
+			+ "r.description, r.status, a.assignmentId, b.brigadeId, b.brigadeCode, a.assignmentTime, a.startTime, "
+			+ "a.endTime) "
+			+ "FROM Request r LEFT JOIN r.assignments a LEFT JOIN a.brigade b "
+			+ "WHERE r.submissionTime >= :from AND r.submissionTime < :to "
+			+ "ORDER BY r.submissionTime, r.requestId, a.assignmentId")
+	Stream<HistoryRow> streamHistory(@Param("from") LocalDateTime from,
+			@Param("to") LocalDateTime to);
+}
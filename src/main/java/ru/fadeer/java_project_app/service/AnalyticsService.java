@@ -0,0 +1,139 @@
+package ru.fadeer.java_project_app.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import org.hibernate.query.NativeQuery;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.fadeer.java_project_app.dto.Analytics.BrigadeUtilization;
+import ru.fadeer.java_project_app.dto.Analytics.ShiftUtilization;
+
+/// Класс-сервис аналитики загрузки бригад. Запросы читают свертку по сменам из материализованного
+/// представления brigade_shift_utilization (миграция V5) по индексу, поэтому время ответа зависит
+/// от числа смен в промежутке, а не от числа назначений. Представления периодически обновляются
+/// без блокировки читателей, поэтому данные отстают не больше чем на интервал обновления
+@Service
+public class AnalyticsService {
+
+	private static final String BRIGADES_SQL =
+			"SELECT u.brigade_id, b.brigade_code, count(*), sum(u.assignments), "
+					+ "sum(u.road_seconds), sum(u.site_seconds), sum(u.idle_seconds) "
+					+ "FROM brigade_shift_utilization u JOIN brigades b ON b.brigade_id = u.brigade_id "
+					+ "WHERE u.shift_start >= :from AND u.shift_start < :to "
+					+ "GROUP BY u.brigade_id, b.brigade_code ORDER BY b.brigade_code";
+
+	private static final String SHIFTS_SQL =
+			"SELECT brigade_id, shift_start, assignments, road_seconds, site_seconds, idle_seconds "
+					+ "FROM brigade_shift_utilization "
+					+ "WHERE brigade_id = :brigadeId AND shift_start >= :from AND shift_start < :to "
+					+ "ORDER BY shift_start";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final TransactionTemplate transactionTemplate;
+	private final ReentrantLock refreshLock = new ReentrantLock();
+
+	private volatile LocalDateTime refreshedAt;
+
+	public AnalyticsService(PlatformTransactionManager transactionManager) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/// Загрузка всех бригад, получавших назначения в промежутке [from, to)
+	@Transactional(readOnly = true)
+	public List<BrigadeUtilization> findBrigades(LocalDateTime from, LocalDateTime to) {
+		validateRange(from, to);
+		@SuppressWarnings("unchecked")
+		List<Object[]> rows = entityManager.createNativeQuery(BRIGADES_SQL)
+				.setParameter("from", from)
+				.setParameter("to", to)
+				.getResultList();
+
+		List<BrigadeUtilization> result = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			result.add(BrigadeUtilization.of(((Number) row[0]).intValue(), (String) row[1],
+					toLong(row[2]), toLong(row[3]), toLong(row[4]), toLong(row[5]), toLong(row[6])));
+		}
+		return result;
+	}
+
+	/// Загрузка бригады по сменам, начавшимся в промежутке [from, to)
+	@Transactional(readOnly = true)
+	public List<ShiftUtilization> findShifts(Integer brigadeId, LocalDateTime from,
+			LocalDateTime to) {
+		validateRange(from, to);
+		@SuppressWarnings("unchecked")
+		List<Object[]> rows = entityManager.createNativeQuery(SHIFTS_SQL)
+				.setParameter("brigadeId", brigadeId)
+				.setParameter("from", from)
+				.setParameter("to", to)
+				.getResultList();
+
+		List<ShiftUtilization> result = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			result.add(ShiftUtilization.of(((Number) row[0]).intValue(), toDateTime(row[1]),
+					toLong(row[2]), toLong(row[3]), toLong(row[4]), toLong(row[5])));
+		}
+		return result;
+	}
+
+	/// Время последнего обновления представлений, null - с момента старта не обновлялись
+	public LocalDateTime getRefreshedAt() {
+		return refreshedAt;
+	}
+
+	/// Обновление представлений: сначала факты по назначениям, затем свертка по сменам. CONCURRENTLY
+	/// не блокирует чтение, запросы аналитики во время обновления видят прежние данные
+	@Scheduled(initialDelayString = "${analytics.refresh-ms:300000}",
+			fixedDelayString = "${analytics.refresh-ms:300000}")
+	public void refresh() {
+		refreshLock.lock();
+		try {
+			// Указанные представления не отображены на сущности, поэтому второй уровень кэша
+			// Hibernate не сбрасывается
+			transactionTemplate.executeWithoutResult(status -> {
+				entityManager.createNativeQuery(
+						"REFRESH MATERIALIZED VIEW CONCURRENTLY brigade_assignment_facts")
+						.unwrap(NativeQuery.class)
+						.addSynchronizedQuerySpace("brigade_assignment_facts")
+						.executeUpdate();
+				entityManager.createNativeQuery(
+						"REFRESH MATERIALIZED VIEW CONCURRENTLY brigade_shift_utilization")
+						.unwrap(NativeQuery.class)
+						.addSynchronizedQuerySpace("brigade_shift_utilization")
+						.executeUpdate();
+			});
+			refreshedAt = LocalDateTime.now();
+		} finally {
+			refreshLock.unlock();
+		}
+	}
+
+	private static void validateRange(LocalDateTime from, LocalDateTime to) {
+		if (from == null || to == null) {
+			throw new IllegalArgumentException("Начало и конец промежутка обязательны.");
+		}
+		if (!from.isBefore(to)) {
+			throw new IllegalArgumentException("Начало промежутка должно быть раньше конца.");
+		}
+	}
+
+	private static long toLong(Object value) {
+		return value == null ? 0 : ((Number) value).longValue();
+	}
+
+	private static LocalDateTime toDateTime(Object value) {
+		return value instanceof Timestamp timestamp
+				? timestamp.toLocalDateTime()
+				: (LocalDateTime) value;
+	}
+}
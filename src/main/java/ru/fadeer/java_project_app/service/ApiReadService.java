@@ -0,0 +1,138 @@
+package ru.fadeer.java_project_app.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.dto.Api.ApiPage;
+import ru.fadeer.java_project_app.dto.Api.AssignmentSummary;
+import ru.fadeer.java_project_app.dto.Api.BrigadeSummary;
+import ru.fadeer.java_project_app.dto.Api.RequestSummary;
+import ru.fadeer.java_project_app.dto.Request.RequestCursor;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+import ru.fadeer.java_project_app.repository.AssignmentRepository;
+import ru.fadeer.java_project_app.repository.BrigadeRepository;
+import ru.fadeer.java_project_app.repository.RequestRepository;
+
+/// Класс-сервис чтения для JSON API. Все методы читают представления напрямую из репозиториев:
+/// сущности не загружаются и не попадают в контекст, каждая страница - один запрос по индексу с
+/// ограничением строк. Запрашивается на одну строку больше размера страницы, чтобы узнать, есть ли
+/// страница дальше
+@Service
+@Transactional(readOnly = true)
+public class ApiReadService {
+
+	private final RequestRepository requestRepository;
+	private final BrigadeRepository brigadeRepository;
+	private final AssignmentRepository assignmentRepository;
+
+	public ApiReadService(RequestRepository requestRepository,
+			BrigadeRepository brigadeRepository,
+			AssignmentRepository assignmentRepository) {
+		this.requestRepository = requestRepository;
+		this.brigadeRepository = brigadeRepository;
+		this.assignmentRepository = assignmentRepository;
+	}
+
+	/// Страница заявок от новых к старым
+	/// @param status фильтр по статусу, null - все заявки
+	/// @param after  курсор последней заявки предыдущей страницы
+	/// @param size   запрошенный размер страницы
+	public ApiPage<RequestSummary> findRequests(Request.Status status, String after, Integer size) {
+		int pageSize = normalizePageSize(size);
+		Limit limit = Limit.of(pageSize + 1);
+		RequestCursor cursor = RequestCursor.parse(after);
+
+		List<RequestSummary> rows;
+		if (cursor == null) {
+			rows = status == null
+					? requestRepository.findFirstSummaryPage(limit)
+					: requestRepository.findFirstSummaryPageByStatus(status, limit);
+		} else {
+			rows = status == null
+					? requestRepository.findSummaryPageAfter(cursor.submissionTime(),
+					cursor.requestId(), limit)
+					: requestRepository.findSummaryPageAfterByStatus(status, cursor.submissionTime(),
+							cursor.requestId(), limit);
+		}
+		return toPage(rows, pageSize,
+				last -> new RequestCursor(last.submissionTime(), last.requestId()).encode());
+	}
+
+	/// Одна заявка
+	public Optional<RequestSummary> findRequest(Integer id) {
+		return requestRepository.findSummaryById(id);
+	}
+
+	/// Страница бригад по порядку номеров
+	/// @param status фильтр по статусу, null - все бригады
+	/// @param after  номер последней бригады предыдущей страницы
+	/// @param size   запрошенный размер страницы
+	public ApiPage<BrigadeSummary> findBrigades(Brigade.Status status, String after, Integer size) {
+		int pageSize = normalizePageSize(size);
+		Limit limit = Limit.of(pageSize + 1);
+		int afterId = parseIdCursor(after);
+
+		List<BrigadeSummary> rows = status == null
+				? brigadeRepository.findSummaryPage(afterId, limit)
+				: brigadeRepository.findSummaryPageByStatus(status, afterId, limit);
+		return toPage(rows, pageSize, last -> String.valueOf(last.brigadeId()));
+	}
+
+	/// Одна бригада
+	public Optional<BrigadeSummary> findBrigade(Integer id) {
+		return brigadeRepository.findSummaryById(id);
+	}
+
+	/// Страница назначений по порядку номеров
+	/// @param requestId фильтр по заявке, null - все назначения
+	/// @param after     номер последнего назначения предыдущей страницы
+	/// @param size      запрошенный размер страницы
+	public ApiPage<AssignmentSummary> findAssignments(Integer requestId, String after, Integer size) {
+		int pageSize = normalizePageSize(size);
+		Limit limit = Limit.of(pageSize + 1);
+		int afterId = parseIdCursor(after);
+
+		List<AssignmentSummary> rows = requestId == null
+				? assignmentRepository.findSummaryPage(afterId, limit)
+				: assignmentRepository.findSummaryPageByRequest(requestId, afterId, limit);
+		return toPage(rows, pageSize, last -> String.valueOf(last.assignmentId()));
+	}
+
+	/// Одно назначение
+	public Optional<AssignmentSummary> findAssignment(Integer id) {
+		return assignmentRepository.findSummaryById(id);
+	}
+
+	/// Приведение запрошенного размера страницы к допустимому диапазону
+	private int normalizePageSize(Integer size) {
+		if (size == null || size <= 0) {
+			return RequestService.DEFAULT_PAGE_SIZE;
+		}
+		return Math.min(size, RequestService.MAX_PAGE_SIZE);
+	}
+
+	/// Разбор курсора-номера. Пустой курсор означает первую страницу
+	private int parseIdCursor(String value) {
+		if (value == null || value.isBlank()) {
+			return 0;
+		}
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Некорректный курсор страницы: " + value);
+		}
+	}
+
+	/// Сборка страницы: лишняя строка отбрасывается, курсор строится по последней строке страницы
+	private <T> ApiPage<T> toPage(List<T> rows, int pageSize, Function<T, String> cursor) {
+		if (rows.size() <= pageSize) {
+			return new ApiPage<>(rows, null);
+		}
+		List<T> page = rows.subList(0, pageSize);
+		return new ApiPage<>(page, cursor.apply(page.getLast()));
+	}
+}
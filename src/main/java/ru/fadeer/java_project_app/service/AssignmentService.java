@@ -1,11 +1,25 @@
 package ru.fadeer.java_project_app.service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.dto.Assignments.AssignmentPhaseCounts;
 import ru.fadeer.java_project_app.dto.Assignments.AssignmentUpdateForm;
+import ru.fadeer.java_project_app.dto.Assignments.CompletionResult;
+import ru.fadeer.java_project_app.dto.Assignments.OpenAssignmentRef;
+import ru.fadeer.java_project_app.dto.Board.StatusChangedEvent;
+import ru.fadeer.java_project_app.dto.Cache.ReferenceChangedEvent;
+import ru.fadeer.java_project_app.dto.Dashboard.AssignmentPhase;
+import ru.fadeer.java_project_app.dto.Dashboard.PhaseChangedEvent;
+import ru.fadeer.java_project_app.dto.Latency.LatencyInterval;
+import ru.fadeer.java_project_app.dto.Latency.TransitionTimedEvent;
 import ru.fadeer.java_project_app.model.Assignment;
 import ru.fadeer.java_project_app.model.Brigade;
 import ru.fadeer.java_project_app.model.Request;
@@ -23,51 +37,92 @@ public class AssignmentService {
 	private final RequestRepository requestRepository;
 	private final BrigadeService brigadeService;
 	private final RequestService requestService;
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final OperationMetrics.Operation assignMetrics;
+	private final OperationMetrics.Operation startMetrics;
+	private final OperationMetrics.Operation completeMetrics;
+	private final OperationMetrics.Operation updateMetrics;
+	private final ConflictRetry conflictRetry;
+	private final EntityCacheService entityCache;
 
 	public AssignmentService(
 			AssignmentRepository assignmentRepository,
 			BrigadeService brigadeService,
 			RequestService requestService,
 			BrigadeRepository brigadeRepository,
-			RequestRepository requestRepository) {
+			RequestRepository requestRepository,
+			ApplicationEventPublisher eventPublisher,
+			OperationMetrics operationMetrics,
+			ConflictRetry conflictRetry,
+			EntityCacheService entityCache) {
 		this.assignmentRepository = assignmentRepository;
 		this.brigadeService = brigadeService;
 		this.requestService = requestService;
 		this.brigadeRepository = brigadeRepository;
 		this.requestRepository = requestRepository;
+		this.eventPublisher = eventPublisher;
+		this.assignMetrics = operationMetrics.operation("assignment.assign");
+		this.startMetrics = operationMetrics.operation("assignment.start");
+		this.completeMetrics = operationMetrics.operation("assignment.complete");
+		this.updateMetrics = operationMetrics.operation("assignment.update");
+		this.conflictRetry = conflictRetry;
+		this.entityCache = entityCache;
 	}
 
-	/// Метод нормализующий статусы заявок согласно правилам ПО. Проверяются все назначения заявки, и
-	/// исходя из их количества или содержимого устанавливается статус
+	/// Метод нормализующий статусы заявок согласно правилам ПО. Назначения заявки не загружаются:
+	/// статус вычисляется по количеству назначений в каждой фазе, посчитанному одним запросом
 	///
 	/// @param requestId номер заявки, у которой проверятся состояния назначений
 	private void setNormalRequestStatus(Integer requestId) {
-		Request request = requestService.findById(requestId);
-		List<Assignment> assignments = assignmentRepository.findByRequestRequestId(requestId);
+		AssignmentPhaseCounts counts = assignmentRepository.countPhasesByRequest(requestId);
 
-		if (assignments.isEmpty()) {
-			request.setStatus(Request.Status.Not_Accepted);
-		} else {
-			boolean hasAnyEndTime = assignments.stream()
-					.anyMatch(a -> a.getEndTime() != null);
-
-			boolean hasAnyStartTimeWithoutEnd = assignments.stream()
-					.anyMatch(a -> a.getStartTime() != null && a.getEndTime() == null);
-
-			boolean allWithoutStartTime = assignments.stream()
-					.allMatch(a -> a.getStartTime() == null);
-
-			if (hasAnyEndTime) {
-				request.setStatus(Request.Status.Completed);
-				completeAllAssignmentsForRequest(requestId);
-			} else if (hasAnyStartTimeWithoutEnd) {
-				request.setStatus(Request.Status.In_Progress);
-			} else if (allWithoutStartTime) {
-				request.setStatus(Request.Status.Accepted);
-			}
+		Request.Status status = deriveRequestStatus(counts);
+		if (status == Request.Status.Completed) {
+			completeAllAssignmentsForRequest(requestId);
+		}
+
+		// Заявка читается после массового завершения, которое очищает контекст
+		Request request = requestService.findForUpdate(requestId);
+		Request.Status previous = request.getStatus();
+		if (status != null) {
+			request.setStatus(status);
 		}
 
 		requestRepository.save(request);
+		eventPublisher.publishEvent(StatusChangedEvent.of(requestId, previous, request.getStatus()));
+	}
+
+	/// Вычисление статуса заявки по количеству назначений в фазах. Если назначений нет - "Не
+	/// принято", есть завершенное - "Завершено", есть начатое - "В работе", все без начала работ -
+	/// "Принято". Null означает, что статус менять не нужно
+	///
+	/// @param counts количество назначений заявки по фазам
+	static Request.Status deriveRequestStatus(AssignmentPhaseCounts counts) {
+		if (counts.getTotal() == 0) {
+			return Request.Status.Not_Accepted;
+		}
+		if (counts.getEnded() > 0) {
+			return Request.Status.Completed;
+		}
+		if (counts.getStarted() > 0) {
+			return Request.Status.In_Progress;
+		}
+		if (counts.getPending() == counts.getTotal()) {
+			return Request.Status.Accepted;
+		}
+		return null;
+	}
+
+	/// Вычисление статуса бригады по количеству ее незавершенных назначений. Без активных
+	/// назначений бригада свободна, с начатой работой - на месте, иначе - в пути
+	///
+	/// @param openCounts количество незавершенных назначений бригады по фазам
+	static Brigade.Status deriveBrigadeStatus(AssignmentPhaseCounts openCounts) {
+		if (openCounts.getTotal() == 0) {
+			return Brigade.Status.free;
+		}
+		return openCounts.getStarted() > 0 ? Brigade.Status.inPlace : Brigade.Status.inRoad;
 	}
 
 	/// Метод валидации времени проверяет поля времени назначения, старта и окончания работ
@@ -100,8 +155,8 @@ public class AssignmentService {
 		}
 	}
 
-	/// Метод для установки текущего статуса бригады. Проверяются все назначения, далее если найдено
-	/// активное назначение, меняется статус согласно ПО
+	/// Метод для установки текущего статуса бригады. Статус вычисляется по количеству незавершенных
+	/// назначений бригады, посчитанному одним запросом, история выездов не загружается
 	///
 	/// @param brigadeId номер бригады, у которой необходимо обновить статус
 	private void updateBrigadeStatus(Integer brigadeId) {
@@ -113,22 +168,14 @@ public class AssignmentService {
 			return;
 		}
 
-		boolean hasActiveAssignments = brigade.getAssignments().stream()
-				.anyMatch(a -> a.getEndTime() == null);
+		Brigade.Status newStatus = deriveBrigadeStatus(
+				assignmentRepository.countOpenPhasesByBrigade(brigadeId));
 
-		if (!hasActiveAssignments) {
-			brigade.setStatus(Brigade.Status.free);
+		Brigade.Status previous = brigade.getStatus();
+		if (previous != newStatus) {
+			brigade.setStatus(newStatus);
 			brigadeRepository.save(brigade);
-		} else {
-			boolean isOnSite = brigade.getAssignments().stream()
-					.anyMatch(a -> a.getStartTime() != null && a.getEndTime() == null);
-
-			Brigade.Status newStatus = isOnSite ? Brigade.Status.inPlace : Brigade.Status.inRoad;
-
-			if (brigade.getStatus() != newStatus) {
-				brigade.setStatus(newStatus);
-				brigadeRepository.save(brigade);
-			}
+			eventPublisher.publishEvent(StatusChangedEvent.of(brigadeId, previous, newStatus));
 		}
 	}
 
@@ -139,11 +186,29 @@ public class AssignmentService {
 	///
 	/// @param brigadeId номер назначенной бригады
 	/// @param requestId номер выбранной заявки
-	@Transactional
+	///
+	/// Транзакцию открывает ConflictRetry: если бригаду или заявку одновременно изменил другой
+	/// запрос, назначение повторяется с чтения свежих данных. Так одну свободную бригаду нельзя
+	/// назначить дважды: второй запрос при повторе увидит ее уже в пути
 	public Assignment assignBrigade(Integer requestId, Integer brigadeId) {
-		Brigade brigade = brigadeService.findById(brigadeId);
-		Request request = requestService.findById(requestId);
+		return assignMetrics.record(
+				() -> conflictRetry.inTransaction(() -> doAssignBrigade(requestId, brigadeId)));
+	}
+
+	private Assignment doAssignBrigade(Integer requestId, Integer brigadeId) {
+		Brigade brigade = brigadeService.findForUpdate(brigadeId);
+		Request request = requestService.findForUpdate(requestId);
+
+		return assign(request, brigade);
+	}
 
+	/// Назначение уже загруженной бригады на уже загруженную заявку по тем же правилам, что и в
+	/// assignBrigade. Все проверки выполняются до записи в БД, поэтому при ошибке состояние не
+	/// меняется. Вызывается внутри транзакции вызывающего метода
+	///
+	/// @param request заявка
+	/// @param brigade назначаемая бригада
+	Assignment assign(Request request, Brigade brigade) {
 		if (brigade.getStatus() == Brigade.Status.disbanded) {
 			throw new IllegalArgumentException("Нельзя назначить расформированную бригаду.");
 		}
@@ -166,31 +231,49 @@ public class AssignmentService {
 		brigade.getAssignments().add(assignment);
 
 		Assignment saved = assignmentRepository.save(assignment);
+		eventPublisher.publishEvent(PhaseChangedEvent.of(null, AssignmentPhase.Pending));
+		if (request.getStatus() == Request.Status.Not_Accepted) {
+			publishTiming(LatencyInterval.SubmissionToAssignment, request.getPriority(),
+					request.getAccidentType(), request.getSubmissionTime(),
+					assignment.getAssignmentTime());
+		}
 
-		setNormalRequestStatus(requestId);
+		setNormalRequestStatus(request.getRequestId());
 
 		brigade.setStatus(Brigade.Status.inRoad);
 		brigadeRepository.save(brigade);
+		eventPublisher.publishEvent(StatusChangedEvent.of(brigade.getBrigadeId(), Brigade.Status.free,
+				Brigade.Status.inRoad));
 
 		return saved;
 	}
 
-	/// Поиск назначения в Бд по id
+	/// Поиск назначения в Бд по id. Если назначение есть во втором уровне кэша, оно, бригада и
+	/// заявка читаются из кэша, иначе загружаются одним запросом
 	@Transactional(readOnly = true)
 	public Assignment findById(Integer id) {
-		return assignmentRepository.findById(id)
+		Assignment assignment = (entityCache.containsAssignment(id)
+				? assignmentRepository.findById(id)
+				: assignmentRepository.findWithBrigadeAndRequestByAssignmentId(id))
 				.orElseThrow(() -> new IllegalArgumentException("Назначение с id: " + id + " не найдено."));
+		Hibernate.initialize(assignment.getBrigade());
+		Hibernate.initialize(assignment.getRequest());
+		return assignment;
 	}
 
-	/// Вывод всех назначений из БД
+	/// Вывод всех назначений из БД. Бригады и заявки загружаются тем же запросом
 	@Transactional(readOnly = true)
 	public List<Assignment> findAll() {
-		return assignmentRepository.findAll();
+		return assignmentRepository.findAllWithBrigadeAndRequest();
 	}
 
-	/// Метод отвечающий за установку текущего времени на начало работ и меняющий связанные статусы
-	@Transactional
+	/// Метод отвечающий за установку текущего времени на начало работ и меняющий связанные статусы.
+	/// При конфликте параллельных изменений повторяется, как assignBrigade
 	public void startWork(Integer assignmentId) {
+		startMetrics.run(() -> conflictRetry.inTransaction(() -> doStartWork(assignmentId)));
+	}
+
+	private void doStartWork(Integer assignmentId) {
 		Assignment assignment = findById(assignmentId);
 		if (assignment.getStartTime() != null) {
 			throw new IllegalArgumentException("Работа уже начата в " + assignment.getStartTime());
@@ -202,15 +285,29 @@ public class AssignmentService {
 
 		assignment.setStartTime(now);
 		assignmentRepository.save(assignment);
+		eventPublisher.publishEvent(ReferenceChangedEvent.assignments(List.of(assignmentId)));
+		eventPublisher.publishEvent(PhaseChangedEvent.of(AssignmentPhase.Pending,
+				AssignmentPhase.Started));
+		Request request = assignment.getRequest();
+		publishTiming(LatencyInterval.AssignmentToStart, request.getPriority(),
+				request.getAccidentType(), assignment.getAssignmentTime(), now);
 
 		setNormalRequestStatus(assignment.getRequest().getRequestId());
 		brigadeService.setStatusInPlace(assignment.getBrigade().getBrigadeId());
 	}
 
 	/// Метод отвечающий за установку текущего времени на окончания работ и меняющий связанные статусы
-	/// согласно ПО
-	@Transactional
-	public void completeWork(Integer assignmentId) {
+	/// согласно ПО. Вместе с назначением завершаются все незавершенные назначения заявки. При
+	/// конфликте параллельных изменений повторяется, как assignBrigade
+	///
+	/// @param assignmentId номер завершаемого назначения
+	/// @return номера завершенных назначений и освобожденных бригад
+	public CompletionResult completeWork(Integer assignmentId) {
+		return completeMetrics.record(
+				() -> conflictRetry.inTransaction(() -> doCompleteWork(assignmentId)));
+	}
+
+	private CompletionResult doCompleteWork(Integer assignmentId) {
 		Assignment assignment = findById(assignmentId);
 
 		if (assignment.getStartTime() == null) {
@@ -229,29 +326,11 @@ public class AssignmentService {
 			throw new IllegalArgumentException("Время окончания не может быть раньше начала.");
 		}
 
-		List<Assignment> assignments = assignmentRepository.findByRequestRequestId(
-				assignment.getRequest().getRequestId());
-		System.err.println(assignments.size());
-		for (Assignment a : assignments) {
-			if (a.getEndTime() == null) {
-				if (a.getStartTime() == null) {
-					a.setStartTime(now);
-				}
-				a.setEndTime(now);
-				assignmentRepository.save(a);
-
-				Brigade brigade = a.getBrigade();
-				if (brigade.getStatus() != Brigade.Status.disbanded) {
-					brigade.setStatus(Brigade.Status.free);
-					brigadeRepository.save(brigade);
-				}
-			}
-		}
-
-		assignment.setEndTime(now);
-		assignmentRepository.save(assignment);
+		Integer requestId = assignment.getRequest().getRequestId();
+		CompletionResult result = completeAllAssignmentsForRequest(requestId, now);
 
-		setNormalRequestStatus(assignment.getRequest().getRequestId());
+		setNormalRequestStatus(requestId);
+		return result;
 	}
 
 	///  Данный метод позволяет устанавливать новые значения если они не нулевые, иначе ничего не
@@ -263,47 +342,91 @@ public class AssignmentService {
 	}
 
 	/// Метод для установки значения в поле окончания работ всех назначений одной заявки, а также
-	/// обновление статуса соответствующей бригады
+	/// освобождение соответствующих бригад. Выполняется массовыми UPDATE-запросами, число запросов не
+	/// зависит от количества назначений. Расформированные бригады остаются расформированными
 	///
 	/// @param requestId номер заявки, у которой нужно завершить все назначения
 	/// @param endTime   время окончания работ над заявкой
+	/// @return номера завершенных назначений и их бригад
 	@Transactional
-	public void completeAllAssignmentsForRequest(Integer requestId, LocalDateTime endTime) {
-		List<Assignment> assignments = assignmentRepository.findByRequestRequestId(requestId);
-
-		for (Assignment assignment : assignments) {
-			if (assignment.getEndTime() == null) {
-				// Если работа не начата, ставим время начала = время окончания
-				if (assignment.getStartTime() == null) {
-					assignment.setStartTime(endTime);
-				}
-				// Ставим время окончания
-				assignment.setEndTime(endTime);
-				assignmentRepository.save(assignment);
-
-				// Обновляем статус бригады
-				Brigade brigade = assignment.getBrigade();
-				if (brigade.getStatus() != Brigade.Status.disbanded) {
-					brigade.setStatus(Brigade.Status.free);
-					brigadeRepository.save(brigade);
-				}
+	public CompletionResult completeAllAssignmentsForRequest(Integer requestId,
+			LocalDateTime endTime) {
+		List<OpenAssignmentRef> open = assignmentRepository.findOpenRefsByRequest(requestId);
+		if (open.isEmpty()) {
+			return CompletionResult.empty();
+		}
+
+		List<Integer> assignmentIds = open.stream().map(OpenAssignmentRef::getAssignmentId).toList();
+		List<Integer> brigadeIds = open.stream().map(OpenAssignmentRef::getBrigadeId).distinct()
+				.toList();
+
+		assignmentRepository.completeAll(assignmentIds, endTime);
+		brigadeRepository.updateStatusWhereStatusNot(brigadeIds, Brigade.Status.free,
+				Brigade.Status.disbanded);
+		eventPublisher.publishEvent(
+				new ReferenceChangedEvent(StatusChangedEvent.BRIGADE, brigadeIds));
+		eventPublisher.publishEvent(ReferenceChangedEvent.assignments(assignmentIds));
+
+		int pending = (int) open.stream().filter(ref -> ref.getStartTime() == null).count();
+		publishPhaseChange(AssignmentPhase.Pending, AssignmentPhase.Ended, pending);
+		publishPhaseChange(AssignmentPhase.Started, AssignmentPhase.Ended, open.size() - pending);
+
+		// Назначениям без начала работ время начала ставится равным времени окончания
+		for (OpenAssignmentRef ref : open) {
+			LocalDateTime start = ref.getStartTime() != null ? ref.getStartTime() : endTime;
+			if (ref.getStartTime() == null) {
+				publishTiming(LatencyInterval.AssignmentToStart, ref.getPriority(),
+						ref.getAccidentType(), ref.getAssignmentTime(), start);
 			}
+			publishTiming(LatencyInterval.StartToEnd, ref.getPriority(), ref.getAccidentType(),
+					start, endTime);
 		}
+
+		Map<Integer, Brigade.Status> previous = new HashMap<>();
+		open.forEach(ref -> previous.put(ref.getBrigadeId(), ref.getBrigadeStatus()));
+		previous.forEach((id, status) -> {
+			if (status != Brigade.Status.disbanded && status != Brigade.Status.free) {
+				eventPublisher.publishEvent(StatusChangedEvent.of(id, status, Brigade.Status.free));
+			}
+		});
+
+		return new CompletionResult(assignmentIds, brigadeIds);
+	}
+
+	/// Публикация смены фазы count назначений, если они есть
+	private void publishPhaseChange(AssignmentPhase previous, AssignmentPhase phase, int count) {
+		if (count > 0) {
+			eventPublisher.publishEvent(new PhaseChangedEvent(previous, phase, count));
+		}
+	}
+
+	/// Публикация длительности промежутка [from, to) для гистограмм времени реакции
+	private void publishTiming(LatencyInterval interval, Request.Priority priority,
+			String accidentType, LocalDateTime from, LocalDateTime to) {
+		eventPublisher.publishEvent(new TransitionTimedEvent(interval, priority, accidentType,
+				Duration.between(from, to).toMillis()));
 	}
 
 	/// Перегрузка метода completeAllAssignmentsForRequest для установки времени на данный момент
 	@Transactional
-	public void completeAllAssignmentsForRequest(Integer requestId) {
-		completeAllAssignmentsForRequest(requestId, LocalDateTime.now());
+	public CompletionResult completeAllAssignmentsForRequest(Integer requestId) {
+		return completeAllAssignmentsForRequest(requestId, LocalDateTime.now());
 	}
 
 	/// Метод обновления назначения, с последующим обновлением статусов
 	///
 	/// @param assignmentId номер назначения для обновления
 	/// @param dto Форма с новыми данными
-	@Transactional
+	///
+	/// При конфликте параллельных изменений повторяется, как assignBrigade
 	public void update(Integer assignmentId, AssignmentUpdateForm dto) {
+		updateMetrics.run(() -> conflictRetry.inTransaction(() -> doUpdate(assignmentId, dto)));
+	}
+
+	private void doUpdate(Integer assignmentId, AssignmentUpdateForm dto) {
 		Assignment assignment = findById(assignmentId);
+		AssignmentPhase previous = AssignmentPhase.of(assignment.getStartTime(),
+				assignment.getEndTime());
 
 		assignment.setAssignmentTime(dto.getAssignmentTime());
 		assignment.setStartTime(dto.getStartTime());
@@ -312,6 +435,11 @@ public class AssignmentService {
 		checkTime(assignment);
 
 		Assignment saved = assignmentRepository.save(assignment);
+		eventPublisher.publishEvent(ReferenceChangedEvent.assignments(List.of(assignmentId)));
+		AssignmentPhase phase = AssignmentPhase.of(saved.getStartTime(), saved.getEndTime());
+		if (phase != previous) {
+			eventPublisher.publishEvent(PhaseChangedEvent.of(previous, phase));
+		}
 
 		setNormalRequestStatus(saved.getRequest().getRequestId());
 		updateBrigadeStatus(saved.getBrigade().getBrigadeId());
@@ -329,16 +457,30 @@ public class AssignmentService {
 				});
 
 		Brigade brigade = assignment.getBrigade();
-
-		if (brigade.getStatus() != Brigade.Status.disbanded) {
+		Request request = assignment.getRequest();
+		eventPublisher.publishEvent(PhaseChangedEvent.of(
+				AssignmentPhase.of(assignment.getStartTime(), assignment.getEndTime()), null));
+
+		// Назначение убирается и из списков бригады и заявки: так Hibernate сбросит эти списки во
+		// втором уровне кэша, а остальные узлы сбросят их по событиям
+		brigade.getAssignments().remove(assignment);
+		request.getAssignments().remove(assignment);
+		eventPublisher.publishEvent(ReferenceChangedEvent.assignments(List.of(assignmentId)));
+		eventPublisher.publishEvent(ReferenceChangedEvent.brigade(brigade.getBrigadeId()));
+		eventPublisher.publishEvent(ReferenceChangedEvent.request(request.getRequestId()));
+
+		Brigade.Status previous = brigade.getStatus();
+		if (previous != Brigade.Status.disbanded) {
 			brigade.setStatus(Brigade.Status.free);
 			brigadeRepository.save(brigade);
+			eventPublisher.publishEvent(StatusChangedEvent.of(brigade.getBrigadeId(), previous,
+					Brigade.Status.free));
 		}
 
-		if (assignment.getRequest().getStatus() != Request.Status.Completed) {
+		if (request.getStatus() != Request.Status.Completed) {
 			assignmentRepository.deleteById(assignmentId);
 
-			setNormalRequestStatus(assignment.getRequest().getRequestId());
+			setNormalRequestStatus(request.getRequestId());
 
 		} else {
 			assignmentRepository.deleteById(assignmentId);
@@ -0,0 +1,173 @@
+package ru.fadeer.java_project_app.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.fadeer.java_project_app.dto.Dispatch.DispatchStats;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+import ru.fadeer.java_project_app.repository.BrigadeRepository;
+import ru.fadeer.java_project_app.repository.RequestRepository;
+
+/// Класс-сервис автоматического распределения бригад. Очередь непринятых заявок упорядочена по
+/// приоритету и времени подачи, пул - свободные бригады. За один раунд из головы очереди берется
+/// не больше batchSize заявок, и каждой по порядку назначается свободная бригада. Раунд выполняется
+/// в одной транзакции, назначения проходят те же проверки, что и ручное назначение. Если во время
+/// раунда бригаду или заявку изменил другой запрос, раунд повторяется целиком
+///
+/// Заявки и бригады раунда захватываются блокировкой строк с пропуском заблокированных (SKIP
+/// LOCKED), поэтому раунды могут идти параллельно - в нескольких обработчиках одного приложения и
+/// на разных узлах - и каждый получает свою часть очереди и пула, не дожидаясь остальных
+@Service
+public class AutoDispatchService {
+
+	private final AssignmentService assignmentService;
+	private final RequestRepository requestRepository;
+	private final BrigadeRepository brigadeRepository;
+	private final ConflictRetry conflictRetry;
+	private final int batchSize;
+	private final int workers;
+	private final boolean scheduled;
+
+	private final AtomicLong rounds = new AtomicLong();
+	private final AtomicLong totalMatches = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private volatile long lastRoundMatches;
+	private volatile long lastRoundNanos;
+	private volatile long queueDepth;
+	private volatile long freeBrigades;
+
+	public AutoDispatchService(AssignmentService assignmentService,
+			RequestRepository requestRepository,
+			BrigadeRepository brigadeRepository,
+			ConflictRetry conflictRetry,
+			@Value("${dispatch.auto.batch-size:50}") int batchSize,
+			@Value("${dispatch.auto.workers:1}") int workers,
+			@Value("${dispatch.auto.scheduled:false}") boolean scheduled) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("Размер раунда должен быть положительным: " + batchSize);
+		}
+		if (workers <= 0) {
+			throw new IllegalArgumentException("Количество обработчиков должно быть положительным: "
+					+ workers);
+		}
+		this.assignmentService = assignmentService;
+		this.requestRepository = requestRepository;
+		this.brigadeRepository = brigadeRepository;
+		this.conflictRetry = conflictRetry;
+		this.batchSize = batchSize;
+		this.workers = workers;
+		this.scheduled = scheduled;
+	}
+
+	/// Метод выполняющий один раунд распределения. Возвращает количество сделанных назначений
+	public int runRound() {
+		long start = System.nanoTime();
+		int count = conflictRetry.inTransaction(this::matchRound);
+		long elapsed = System.nanoTime() - start;
+
+		rounds.incrementAndGet();
+		totalMatches.addAndGet(count);
+		totalNanos.addAndGet(elapsed);
+		lastRoundMatches = count;
+		lastRoundNanos = elapsed;
+		return count;
+	}
+
+	/// Распределение всей очереди workerCount параллельными обработчиками. Каждый обработчик
+	/// выполняет раунды, пока очередной раунд что-то назначает. Раунд без назначений означает, что
+	/// очередь или пул пусты либо оставшиеся строки уже захвачены другими обработчиками. Возвращает
+	/// общее количество сделанных назначений
+	///
+	/// @param workerCount количество параллельных обработчиков
+	public long drain(int workerCount) {
+		if (workerCount <= 0) {
+			throw new IllegalArgumentException("Количество обработчиков должно быть положительным: "
+					+ workerCount);
+		}
+		List<Future<Long>> results = new ArrayList<>(workerCount);
+		try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+				Thread.ofVirtual().name("dispatch-worker-", 0).factory())) {
+			for (int i = 0; i < workerCount; i++) {
+				results.add(executor.submit(() -> {
+					long matched = 0;
+					for (int count = runRound(); count > 0; count = runRound()) {
+						matched += count;
+					}
+					return matched;
+				}));
+			}
+		}
+
+		long matched = 0;
+		for (Future<Long> result : results) {
+			try {
+				matched += result.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Распределение прервано", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException cause) {
+					throw cause;
+				}
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+		return matched;
+	}
+
+	/// Распределение очереди по расписанию dispatch.auto.workers обработчиками. Выполняется, только
+	/// если включен параметр dispatch.auto.scheduled
+	@Scheduled(fixedDelayString = "${dispatch.auto.interval-ms:10000}")
+	public void scheduledRound() {
+		if (scheduled) {
+			drain(workers);
+		}
+	}
+
+	/// Текущие показатели распределения
+	public DispatchStats getStats() {
+		long nanos = totalNanos.get();
+		long matches = totalMatches.get();
+		double perSecond = nanos == 0 ? 0 : matches / (nanos / 1_000_000_000.0);
+		return new DispatchStats(rounds.get(), matches, lastRoundMatches,
+				TimeUnit.NANOSECONDS.toMillis(lastRoundNanos), perSecond, queueDepth, freeBrigades,
+				workers, scheduled);
+	}
+
+	/// Тело раунда, выполняется внутри транзакции. Заявки и бригады захватываются из головы
+	/// очереди и пула и назначаются парами, пока не закончится одно из них. Захват держится до
+	/// фиксации транзакции
+	private int matchRound() {
+		List<Request> queue = requestRepository.claimQueue(Request.Status.Not_Accepted.getCode(),
+				batchSize);
+
+		int matched = 0;
+		if (!queue.isEmpty()) {
+			List<Brigade> pool = brigadeRepository.claimByStatus(Brigade.Status.free.getCode(),
+					queue.size());
+
+			Iterator<Brigade> brigades = pool.iterator();
+			for (Request request : queue) {
+				if (!brigades.hasNext()) {
+					break;
+				}
+				assignmentService.assign(request, brigades.next());
+				matched++;
+			}
+		}
+
+		queueDepth = requestRepository.countByStatus(Request.Status.Not_Accepted);
+		freeBrigades = brigadeRepository.countByStatus(Brigade.Status.free);
+		return matched;
+	}
+}
@@ -1,9 +1,18 @@
 package ru.fadeer.java_project_app.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.dto.Board.StatusChangedEvent;
+import ru.fadeer.java_project_app.dto.Brigade.FreeBrigadeView;
+import ru.fadeer.java_project_app.dto.Cache.BrigadeSnapshot;
+import ru.fadeer.java_project_app.dto.Cache.ReferenceChangedEvent;
 import ru.fadeer.java_project_app.model.Brigade;
 import ru.fadeer.java_project_app.model.Brigade.Status;
 import ru.fadeer.java_project_app.repository.BrigadeRepository;
@@ -13,10 +22,31 @@ import ru.fadeer.java_project_app.repository.BrigadeRepository;
 @Service
 public class BrigadeService {
 
+	/// Суффикс архивной версии _vN, зарезервированный за архивными кодами и номерами машин
+	private static final Pattern ARCHIVE_SUFFIX = Pattern.compile(".*_v\\d+$");
+
 	private final BrigadeRepository brigadeRepository;
 
-	public BrigadeService(BrigadeRepository brigadeRepository) {
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final OperationMetrics.Operation archiveMetrics;
+
+	private final ReferenceCacheService referenceCache;
+	private final EntityCacheService entityCache;
+
+	public BrigadeService(BrigadeRepository brigadeRepository,
+			ApplicationEventPublisher eventPublisher,
+			OperationMetrics operationMetrics,
+			ReferenceCacheService referenceCache,
+			EntityCacheService entityCache) {
 		this.brigadeRepository = brigadeRepository;
+		this.eventPublisher = eventPublisher;
+		this.archiveMetrics = operationMetrics.operation("brigade.archive");
+		this.referenceCache = referenceCache;
+		this.entityCache = entityCache;
 	}
 
 	/// Метод для создания новой бригады и записи ее в БД. Выполняется проверка данных и запись в БД
@@ -28,7 +58,7 @@ public class BrigadeService {
 			throw new IllegalArgumentException("Номер бригады обязателен.");
 
 		}
-		if (brigade.getBrigadeCode().matches(".*_v\\d+$")) {
+		if (hasArchiveSuffix(brigade.getBrigadeCode())) {
 			throw new IllegalArgumentException(
 					"Код бригады не может заканчиваться на '_v...'. Это зарезервировано для архивных версий.");
 		}
@@ -41,7 +71,7 @@ public class BrigadeService {
 			throw new IllegalArgumentException("Номер машины обязателен");
 		}
 
-		if (brigade.getVehicleNumber().matches(".*_v\\d+$")) {
+		if (hasArchiveSuffix(brigade.getVehicleNumber())) {
 			throw new IllegalArgumentException(
 					"Номер машины не может заканчиваться на '_v...'. Это зарезервировано для архивных версий.");
 		}
@@ -62,22 +92,54 @@ public class BrigadeService {
 
 		brigade.setBrigadeId(null);
 
-		return brigadeRepository.save(brigade);
+		Brigade saved = brigadeRepository.save(brigade);
+		eventPublisher.publishEvent(StatusChangedEvent.of(saved.getBrigadeId(), null, Status.free));
+		return saved;
 	}
 
-	/// Вывод всех бригад из бд
-	@Transactional(readOnly = true)
+	/// Вывод всех бригад. Список читается из кэша справочных данных, каждый раз выдаются новые
+	/// отсоединенные бригады без назначений
 	public List<Brigade> findAll() {
-		return brigadeRepository.findAll();
+		return referenceCache.roster(
+						() -> brigadeRepository.findAll().stream().map(BrigadeSnapshot::of).toList())
+				.stream().map(BrigadeSnapshot::toBrigade).toList();
 	}
 
-	/// Поиск бригады в Бд по id
+	/// Вывод свободных бригад для формы назначения. Читаются только нужные форме поля
 	@Transactional(readOnly = true)
+	public List<FreeBrigadeView> findFreeBrigades() {
+		return brigadeRepository.findByStatusOrderByBrigadeCode(Status.free);
+	}
+
+	/// Поиск бригады по id через кэш справочных данных. Возвращается отсоединенная копия без
+	/// назначений: для изменения бригады используется findForUpdate
 	public Brigade findById(Integer id) {
+		BrigadeSnapshot brigade = referenceCache.brigade(id,
+				() -> brigadeRepository.findById(id).map(BrigadeSnapshot::of).orElse(null));
+		if (brigade == null) {
+			throw new IllegalArgumentException("Бригада с id: " + id + " не найдена.");
+		}
+		return brigade.toBrigade();
+	}
+
+	/// Поиск бригады в Бд по id для изменения в текущей транзакции, мимо кэша
+	Brigade findForUpdate(Integer id) {
 		return brigadeRepository.findById(id)
 				.orElseThrow(() -> new IllegalArgumentException("Бригада с id: " + id + " не найдена."));
 	}
 
+	/// Поиск бригады вместе с историей назначений и заявками для страницы просмотра. Если бригада и
+	/// список ее назначений есть во втором уровне кэша, все читается из кэша, иначе одним запросом
+	@Transactional(readOnly = true)
+	public Brigade findByIdWithAssignments(Integer id) {
+		Brigade brigade = (entityCache.containsBrigadeWithAssignments(id)
+				? brigadeRepository.findById(id)
+				: brigadeRepository.findWithAssignmentsByBrigadeId(id))
+				.orElseThrow(() -> new IllegalArgumentException("Бригада с id: " + id + " не найдена."));
+		brigade.getAssignments().forEach(assignment -> Hibernate.initialize(assignment.getRequest()));
+		return brigade;
+	}
+
 	///  Данный метод позволяет устанавливать новые значения если они не нулевые, иначе ничего не
 	/// происходит и значения в исходном параметре остаются такими же
 	private <T> void copyNotNull(Consumer<T> action, T value) {
@@ -92,7 +154,7 @@ public class BrigadeService {
 	/// @param updatedBrigade объект хранящий новые значения
 	@Transactional
 	public Brigade update(Integer id, Brigade updatedBrigade) {
-		Brigade currentBrigade = findById(id);
+		Brigade currentBrigade = findForUpdate(id);
 
 		if (currentBrigade.getStatus() == Status.disbanded) {
 			throw new IllegalArgumentException("Нельзя менять расформированную бригаду");
@@ -101,7 +163,7 @@ public class BrigadeService {
 		if (updatedBrigade.getBrigadeCode() != null &&
 				!updatedBrigade.getBrigadeCode().equals(currentBrigade.getBrigadeCode())) {
 
-			if (updatedBrigade.getBrigadeCode().matches(".*_v\\d+$")) {
+			if (hasArchiveSuffix(updatedBrigade.getBrigadeCode())) {
 				throw new IllegalArgumentException(
 						"Код бригады не может заканчиваться на '_v...'. Это зарезервировано для архивных версий.");
 			}
@@ -115,7 +177,7 @@ public class BrigadeService {
 		if (updatedBrigade.getVehicleNumber() != null &&
 				!updatedBrigade.getVehicleNumber().equals(currentBrigade.getVehicleNumber())) {
 
-			if (updatedBrigade.getVehicleNumber().matches(".*_v\\d+$")) {
+			if (hasArchiveSuffix(updatedBrigade.getVehicleNumber())) {
 				throw new IllegalArgumentException(
 						"Номер машины не может заканчиваться на '_v...'. Это зарезервировано для архивных версий.");
 			}
@@ -131,6 +193,7 @@ public class BrigadeService {
 		copyNotNull(currentBrigade::setForemanName, updatedBrigade.getForemanName());
 		copyNotNull(currentBrigade::setForemanPhone, updatedBrigade.getForemanPhone());
 
+		eventPublisher.publishEvent(ReferenceChangedEvent.brigade(id));
 		return brigadeRepository.save(currentBrigade);
 	}
 
@@ -148,12 +211,14 @@ public class BrigadeService {
 	/// Метод смены статуса на "На месте"
 	@Transactional
 	void setStatusInPlace(Integer id) {
-		Brigade currentBrigade = findById(id);
+		Brigade currentBrigade = findForUpdate(id);
 		if (currentBrigade.getStatus() == Brigade.Status.disbanded) {
 			throw new IllegalStateException("Нельзя изменить статус расформированной бригады");
 		}
+		Status previous = currentBrigade.getStatus();
 		currentBrigade.setStatus(Status.inPlace);
 		brigadeRepository.save(currentBrigade);
+		eventPublisher.publishEvent(StatusChangedEvent.of(id, previous, Status.inPlace));
 	}
 
 //	/// Метод смены статуса на "В пути"
@@ -167,37 +232,74 @@ public class BrigadeService {
 //		brigadeRepository.save(currentBrigade);
 //	}
 
-	/// Генерация архивного номера бригады согласно ПО
-	private String generateArchiveBrigadeCode(String brigadeCode) {
-		String newBrigadeCode = brigadeCode;
-		int version = 1;
+	/// Поля бригады, для которых выдаются архивные версии. Имя колонки подставляется в SQL только
+	/// из этого перечисления
+	private enum ArchiveField {
+		BRIGADE_CODE("brigade_code"),
+		VEHICLE_NUMBER("vehicle_number");
+
+		private final String column;
 
-		while (brigadeRepository.existsByBrigadeCode(newBrigadeCode + "_v" + version)) {
-			version++;
+		ArchiveField(String column) {
+			this.column = column;
 		}
-		return newBrigadeCode + "_v" + version;
 	}
 
-	/// Генерация архивного номера машины согласно ПО
-	private String generateArchiveVehicleNumber(String vehicleNumber) {
-		String newVehicleNumber = vehicleNumber;
-		int version = 1;
-
-		while (brigadeRepository.existsByVehicleNumber(newVehicleNumber + "_v" + version)) {
-			version++;
+	/// Генерация архивного значения поля согласно ПО: исходное значение с суффиксом _vN. Номер версии
+	/// берется из счетчика brigade_archive_versions одним запросом. Если счетчика для значения еще
+	/// нет, он однократно заполняется максимальной версией среди уже существующих архивов, которые
+	/// находятся по префиксу через индексы миграции V9
+	///
+	/// @param field поле бригады
+	/// @param value исходное значение поля
+	private String generateArchiveValue(ArchiveField field, String value) {
+		List<?> incremented = entityManager.createNativeQuery(
+						"UPDATE brigade_archive_versions SET last_version = last_version + 1 "
+								+ "WHERE kind = :kind AND base_value = :value RETURNING last_version")
+				.setParameter("kind", field.name())
+				.setParameter("value", value)
+				.getResultList();
+
+		Number version;
+		if (!incremented.isEmpty()) {
+			version = (Number) incremented.getFirst();
+		} else {
+			String column = field.column;
+			version = (Number) entityManager.createNativeQuery(
+							"INSERT INTO brigade_archive_versions (kind, base_value, last_version) "
+									+ "SELECT :kind, :value, COALESCE(MAX(CAST(substring(" + column
+									+ " FROM length(:value) + 3) AS INTEGER)), 0) + 1 FROM brigades "
+									+ "WHERE " + column + " LIKE :prefix ESCAPE '\\' "
+									+ "AND substring(" + column + " FROM length(:value) + 3) ~ '^[0-9]+$' "
+									+ "ON CONFLICT (kind, base_value) DO UPDATE "
+									+ "SET last_version = brigade_archive_versions.last_version + 1 "
+									+ "RETURNING last_version")
+					.setParameter("kind", field.name())
+					.setParameter("value", value)
+					.setParameter("prefix", escapeLike(value) + "\\_v%")
+					.getSingleResult();
 		}
-		return newVehicleNumber + "_v" + version;
+		return value + "_v" + version.intValue();
+	}
+
+	/// Экранирование символов шаблона LIKE, чтобы значение сравнивалось как есть
+	private static String escapeLike(String value) {
+		return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
 	}
 
-	/// Метод выполняющий обновление с архивацией согласно ПО. Сохраняется исходные имена для отката.
-	/// Текущей бригаде задаются архивные имена. Проверяем уникальность новой бригады, откатываем если
-	/// неуникальные
+	/// Метод выполняющий обновление с архивацией согласно ПО. Все проверки выполняются до записи,
+	/// поэтому откат вручную не нужен: при ошибке транзакция просто не вносит изменений. Текущей
+	/// бригаде задаются архивные имена, затем создается новая бригада
 	///
 	/// @param originalId номер архивируемой бригады
 	/// @param updatedBrigade новые данные
 	@Transactional
 	public void updateAndArchive(Integer originalId, Brigade updatedBrigade) {
-		Brigade currentBrigade = findById(originalId);
+		archiveMetrics.run(() -> doUpdateAndArchive(originalId, updatedBrigade));
+	}
+
+	private void doUpdateAndArchive(Integer originalId, Brigade updatedBrigade) {
+		Brigade currentBrigade = findForUpdate(originalId);
 
 		if (currentBrigade.getStatus() == Status.disbanded) {
 			throw new IllegalArgumentException("Нельзя заархивировать уже расформированную бригаду.");
@@ -210,48 +312,38 @@ public class BrigadeService {
 		}
 
 		if (updatedBrigade.getBrigadeCode() != null &&
-				updatedBrigade.getBrigadeCode().matches(".*_v\\d+$")) {
+				hasArchiveSuffix(updatedBrigade.getBrigadeCode())) {
 			throw new IllegalArgumentException(
 					"Новый код бригады не может заканчиваться на '_v...'. Это зарезервировано для архивных версий.");
 		}
 
 		if (updatedBrigade.getVehicleNumber() != null &&
-				updatedBrigade.getVehicleNumber().matches(".*_v\\d+$")) {
+				hasArchiveSuffix(updatedBrigade.getVehicleNumber())) {
 			throw new IllegalArgumentException(
 					"Новый номер машины не может заканчиваться на '_v...'. Это зарезервировано для архивных версий.");
 		}
 
-		String originalBrigadeCode = currentBrigade.getBrigadeCode();
-		String originalVehicleNumber = currentBrigade.getVehicleNumber();
-
-		String archiveBrigadeCode = generateArchiveBrigadeCode(originalBrigadeCode);
-		String archiveVehicleNumber = generateArchiveVehicleNumber(originalVehicleNumber);
-
-		currentBrigade.setBrigadeCode(archiveBrigadeCode);
-		currentBrigade.setVehicleNumber(archiveVehicleNumber);
-		currentBrigade.setStatus(Status.disbanded);
-		brigadeRepository.save(currentBrigade);
-
-		if (brigadeRepository.existsByVehicleNumber(updatedBrigade.getVehicleNumber())) {
-			currentBrigade.setBrigadeCode(originalBrigadeCode);
-			currentBrigade.setVehicleNumber(originalVehicleNumber);
-			currentBrigade.setStatus(Status.free);
-			brigadeRepository.save(currentBrigade);
-
+		// Текущая бригада освобождает свои код и номер машины, поэтому с ней совпадение допустимо
+		if (brigadeRepository.existsByVehicleNumberAndBrigadeIdNot(updatedBrigade.getVehicleNumber(),
+				originalId)) {
 			throw new IllegalArgumentException(
 					"Машина с номером '" + updatedBrigade.getVehicleNumber() + "' уже назначена.");
 		}
 
-		if (brigadeRepository.existsByBrigadeCode(updatedBrigade.getBrigadeCode())) {
-			currentBrigade.setBrigadeCode(originalBrigadeCode);
-			currentBrigade.setVehicleNumber(originalVehicleNumber);
-			currentBrigade.setStatus(Status.free);
-			brigadeRepository.save(currentBrigade);
-
+		if (brigadeRepository.existsByBrigadeCodeAndBrigadeIdNot(updatedBrigade.getBrigadeCode(),
+				originalId)) {
 			throw new IllegalArgumentException(
 					"Бригада с кодом '" + updatedBrigade.getBrigadeCode() + "' уже существует.");
 		}
 
+		currentBrigade.setBrigadeCode(
+				generateArchiveValue(ArchiveField.BRIGADE_CODE, currentBrigade.getBrigadeCode()));
+		currentBrigade.setVehicleNumber(
+				generateArchiveValue(ArchiveField.VEHICLE_NUMBER, currentBrigade.getVehicleNumber()));
+		currentBrigade.setStatus(Status.disbanded);
+		// Архивные имена записываются до вставки новой бригады, которая может занять исходный код
+		brigadeRepository.saveAndFlush(currentBrigade);
+
 		Brigade newBrigade = new Brigade();
 		newBrigade.setBrigadeCode(updatedBrigade.getBrigadeCode());
 		newBrigade.setVehicleNumber(updatedBrigade.getVehicleNumber());
@@ -260,6 +352,8 @@ public class BrigadeService {
 		newBrigade.setStatus(Status.free);
 
 		brigadeRepository.save(newBrigade);
+		eventPublisher.publishEvent(StatusChangedEvent.of(originalId, Status.free, Status.disbanded));
+		eventPublisher.publishEvent(StatusChangedEvent.of(newBrigade.getBrigadeId(), null, Status.free));
 	}
 
 	/// Метод "удаления" бригады - установка статуса "Расформировано"
@@ -275,6 +369,7 @@ public class BrigadeService {
 		if (brigade.getStatus() != Status.disbanded) {
 			brigade.setStatus(Status.disbanded);
 			brigadeRepository.save(brigade);
+			eventPublisher.publishEvent(StatusChangedEvent.of(id, Status.free, Status.disbanded));
 		}
 	}
 
@@ -282,6 +377,12 @@ public class BrigadeService {
 	@Transactional
 	public void hardDelete(Integer id) {
 		brigadeRepository.deleteById(id);
+		eventPublisher.publishEvent(StatusChangedEvent.removed(StatusChangedEvent.BRIGADE, id));
 	}
 
+	/// Проверка, что значение оканчивается суффиксом архивной версии _vN. Шаблон компилируется один
+	/// раз, а не при каждой проверке, как в String.matches
+	static boolean hasArchiveSuffix(String value) {
+		return ARCHIVE_SUFFIX.matcher(value).matches();
+	}
 }
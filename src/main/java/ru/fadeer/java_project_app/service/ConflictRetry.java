@@ -0,0 +1,98 @@
+package ru.fadeer.java_project_app.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/// Класс-сервис повторов при конфликтах параллельных изменений. Действие выполняется в собственной
+/// транзакции; если при записи оказалось, что строку уже изменил другой запрос (не совпала версия
+/// или взаимная блокировка), транзакция откатывается и действие повторяется заново с чтения
+/// данных. Перед повтором выдерживается пауза со случайным разбросом, удваивающаяся с каждой
+/// попыткой, чтобы столкнувшиеся запросы не сталкивались снова. После maxAttempts попыток конфликт
+/// пробрасывается вызывающему
+@Service
+public class ConflictRetry {
+
+	/// Текст ошибки для пользователя, когда повторы не помогли
+	public static final String CONFLICT_MESSAGE =
+			"Данные изменены другим пользователем. Обновите страницу и повторите действие.";
+
+	static final String RETRIES = "dispatch.conflict.retries";
+
+	private final TransactionTemplate transactionTemplate;
+	private final int maxAttempts;
+	private final long backoffMs;
+	private final Counter retries;
+
+	public ConflictRetry(PlatformTransactionManager transactionManager, MeterRegistry registry,
+			@Value("${dispatch.retry.max-attempts:4}") int maxAttempts,
+			@Value("${dispatch.retry.backoff-ms:20}") long backoffMs) {
+		if (maxAttempts <= 0) {
+			throw new IllegalArgumentException("Количество попыток должно быть положительным: "
+					+ maxAttempts);
+		}
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.maxAttempts = maxAttempts;
+		this.backoffMs = backoffMs;
+		this.retries = Counter.builder(RETRIES)
+				.description("Повторы операций после конфликта параллельных изменений")
+				.register(registry);
+	}
+
+	/// Выполнение action в отдельной транзакции с повторами при конфликте. Если транзакция уже
+	/// открыта вызывающим, action выполняется в ней один раз: повторить часть чужой транзакции
+	/// нельзя, конфликт обработает тот, кто ее открыл
+	public <T> T inTransaction(Supplier<T> action) {
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			return action.get();
+		}
+
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return transactionTemplate.execute(status -> action.get());
+			} catch (RuntimeException e) {
+				if (!isConflict(e) || attempt >= maxAttempts) {
+					throw e;
+				}
+				retries.increment();
+				pause(attempt);
+			}
+		}
+	}
+
+	/// Перегрузка метода inTransaction для действий без результата
+	public void inTransaction(Runnable action) {
+		inTransaction(() -> {
+			action.run();
+			return null;
+		});
+	}
+
+	/// Признак конфликта параллельных изменений. Кроме переведенных Spring исключений учитывается
+	/// OptimisticLockException, который Hibernate бросает из запросов мимо репозиториев
+	public static boolean isConflict(Throwable e) {
+		return e instanceof ConcurrencyFailureException || e instanceof OptimisticLockException;
+	}
+
+	/// Пауза перед попыткой attempt + 1: случайное время от 0 до backoffMs * 2^(attempt - 1)
+	private void pause(int attempt) {
+		long bound = backoffMs << Math.min(attempt - 1, 16);
+		if (bound <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Повтор операции прерван", e);
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package ru.fadeer.java_project_app.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.fadeer.java_project_app.dto.Board.StatusChangedEvent;
+import ru.fadeer.java_project_app.dto.Brigade.BrigadeStatusView;
+import ru.fadeer.java_project_app.dto.Request.OpenRequestView;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+import ru.fadeer.java_project_app.repository.BrigadeRepository;
+import ru.fadeer.java_project_app.repository.RequestRepository;
+
+/// Класс-сервис табло диспетчера. Хранит подписчиков Server-Sent Events и рассылает им смены
+/// статусов после фиксации транзакций. SseEmitter работает через асинхронную обработку запроса, а
+/// у каждого подписчика своя очередь и свой виртуальный поток отправки: события одному клиенту идут
+/// по порядку, а клиент, который перестал читать, задерживает только себя. Клиент, у которого
+/// очередь заполнилась, отключается
+@Service
+public class DispatchBoardService implements DisposableBean {
+
+	private final BrigadeRepository brigadeRepository;
+	private final RequestRepository requestRepository;
+	private final int queueSize;
+
+	/// Метка периодического комментария в очереди подписчика, сравнивается по ссылке
+	private static final StatusChangedEvent HEARTBEAT = new StatusChangedEvent(null, null, null,
+			null, null);
+
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+	public DispatchBoardService(BrigadeRepository brigadeRepository,
+			RequestRepository requestRepository,
+			@Value("${board.queue-size:256}") int queueSize) {
+		if (queueSize <= 0) {
+			throw new IllegalArgumentException("Размер очереди подписчика должен быть положительным.");
+		}
+		this.brigadeRepository = brigadeRepository;
+		this.requestRepository = requestRepository;
+		this.queueSize = queueSize;
+	}
+
+	/// Действующие бригады для начального состояния табло
+	@Transactional(readOnly = true)
+	public List<BrigadeStatusView> findActiveBrigades() {
+		return brigadeRepository.findByStatusNotOrderByBrigadeCode(Brigade.Status.disbanded);
+	}
+
+	/// Незавершенные заявки для начального состояния табло
+	@Transactional(readOnly = true)
+	public List<OpenRequestView> findOpenRequests() {
+		return requestRepository.findByStatusInOrderByPriorityAscSubmissionTimeAscRequestIdAsc(
+				Request.Status.OPEN);
+	}
+
+	/// Регистрация нового подписчика. Соединение не ограничено по времени, отвалившиеся клиенты
+	/// обнаруживаются при очередной отправке
+	public SseEmitter subscribe() {
+		Subscriber subscriber = new Subscriber(new SseEmitter(0L), queueSize);
+		SseEmitter emitter = subscriber.emitter;
+		emitter.onCompletion(() -> remove(subscriber));
+		emitter.onTimeout(() -> remove(subscriber));
+		emitter.onError(e -> remove(subscriber));
+		subscriber.sender = Thread.ofVirtual().name("board-sender").start(subscriber);
+		subscribers.add(subscriber);
+		return emitter;
+	}
+
+	/// Количество подключенных подписчиков
+	public int getSubscriberCount() {
+		return subscribers.size();
+	}
+
+	/// Рассылка события после фиксации транзакции, в которой оно опубликовано. Изменения, которые
+	/// откатились, подписчикам не попадают
+	@TransactionalEventListener
+	public void onStatusChanged(StatusChangedEvent event) {
+		broadcast(event);
+	}
+
+	/// Периодический комментарий, чтобы прокси не закрывали простаивающие соединения и чтобы
+	/// обнаруживать отключившихся клиентов
+	@Scheduled(fixedDelayString = "${board.heartbeat-ms:30000}")
+	public void heartbeat() {
+		broadcast(HEARTBEAT);
+	}
+
+	/// Постановка события в очереди всех подписчиков. В очередь попадает само событие, а кадр SSE
+	/// собирается потоком отправки: SseEventBuilder меняется при сборке и не может быть общим.
+	/// Подписчик с заполненной очередью не читает события и отключается. Завершение его соединения
+	/// идет в отдельном потоке: поток отправки может держать SseEmitter, зависнув на записи в сокет
+	private void broadcast(StatusChangedEvent event) {
+		for (Subscriber subscriber : subscribers) {
+			if (!subscriber.queue.offer(event) && remove(subscriber)) {
+				Thread.ofVirtual().name("board-close").start(subscriber.emitter::complete);
+			}
+		}
+	}
+
+	/// Удаление подписчика и остановка его потока отправки. False, если подписчик уже удален
+	private boolean remove(Subscriber subscriber) {
+		if (!subscribers.remove(subscriber)) {
+			return false;
+		}
+		subscriber.sender.interrupt();
+		return true;
+	}
+
+	@Override
+	public void destroy() {
+		for (Subscriber subscriber : subscribers) {
+			remove(subscriber);
+			subscriber.emitter.complete();
+		}
+	}
+
+	/// Подписчик табло: соединение, очередь неотправленных событий и поток, который их отправляет
+	private final class Subscriber implements Runnable {
+
+		private final SseEmitter emitter;
+		private final BlockingQueue<StatusChangedEvent> queue;
+		private volatile Thread sender;
+
+		Subscriber(SseEmitter emitter, int queueSize) {
+			this.emitter = emitter;
+			this.queue = new ArrayBlockingQueue<>(queueSize);
+		}
+
+		/// Отправка событий из очереди до отключения подписчика. Подписчик, которому не удалось
+		/// отправить по любой причине, удаляется, чтобы клиент не ждал событий от остановленного потока
+		@Override
+		public void run() {
+			try {
+				while (!Thread.currentThread().isInterrupted()) {
+					emitter.send(frame(queue.take()));
+				}
+			} catch (InterruptedException e) {
+				// Подписчик удален
+			} catch (IOException | RuntimeException e) {
+				remove(this);
+				emitter.completeWithError(e);
+			}
+		}
+
+		/// Новый кадр SSE для события из очереди
+		private static SseEmitter.SseEventBuilder frame(StatusChangedEvent event) {
+			if (event == HEARTBEAT) {
+				return SseEmitter.event().comment("ping");
+			}
+			return SseEmitter.event().name(event.type()).data(event);
+		}
+	}
+}
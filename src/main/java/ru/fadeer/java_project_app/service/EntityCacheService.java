@@ -0,0 +1,83 @@
+package ru.fadeer.java_project_app.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Collection;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Service;
+import ru.fadeer.java_project_app.model.Assignment;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Класс-сервис второго уровня кэша Hibernate. Изменения на своем узле Hibernate учитывает сам,
+/// включая массовые и SQL-запросы с указанными таблицами. Изменения других узлов приходят через
+/// ReferenceCacheService, и их записи сбрасываются здесь. Страницы просмотра проверяют наличие
+/// записей, чтобы читать из кэша без запросов или сразу одним запросом, без загрузки по одной
+@Service
+public class EntityCacheService {
+
+	static final String BRIGADE_ASSIGNMENTS = Brigade.class.getName() + ".assignments";
+	static final String REQUEST_ASSIGNMENTS = Request.class.getName() + ".assignments";
+
+	private final Cache cache;
+
+	public EntityCacheService(EntityManagerFactory entityManagerFactory) {
+		this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+	}
+
+	/// Признак, что назначение есть в кэше
+	boolean containsAssignment(Integer id) {
+		return cache.containsEntity(Assignment.class, id);
+	}
+
+	/// Признак, что бригада и список ее назначений есть в кэше
+	boolean containsBrigadeWithAssignments(Integer id) {
+		return cache.containsEntity(Brigade.class, id)
+				&& cache.containsCollection(BRIGADE_ASSIGNMENTS, id);
+	}
+
+	/// Признак, что заявка и список ее назначений есть в кэше
+	boolean containsRequestWithAssignments(Integer id) {
+		return cache.containsEntity(Request.class, id)
+				&& cache.containsCollection(REQUEST_ASSIGNMENTS, id);
+	}
+
+	/// Сброс бригад и их списков назначений, null - всех
+	void evictBrigades(Collection<Integer> ids) {
+		if (ids == null) {
+			cache.evictEntityData(Brigade.class);
+			cache.evictCollectionData(BRIGADE_ASSIGNMENTS);
+			return;
+		}
+		for (Integer id : ids) {
+			cache.evictEntityData(Brigade.class, id);
+			cache.evictCollectionData(BRIGADE_ASSIGNMENTS, id);
+		}
+	}
+
+	/// Сброс заявок и их списков назначений, null - всех
+	void evictRequests(Collection<Integer> ids) {
+		if (ids == null) {
+			cache.evictEntityData(Request.class);
+			cache.evictCollectionData(REQUEST_ASSIGNMENTS);
+			return;
+		}
+		for (Integer id : ids) {
+			cache.evictEntityData(Request.class, id);
+			cache.evictCollectionData(REQUEST_ASSIGNMENTS, id);
+		}
+	}
+
+	/// Сброс назначений, null - всех
+	void evictAssignments(Collection<Integer> ids) {
+		if (ids == null) {
+			cache.evictEntityData(Assignment.class);
+			return;
+		}
+		ids.forEach(id -> cache.evictEntityData(Assignment.class, id));
+	}
+
+	void evictAll() {
+		cache.evictAllRegions();
+	}
+}
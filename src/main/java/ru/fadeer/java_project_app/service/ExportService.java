@@ -0,0 +1,213 @@
+package ru.fadeer.java_project_app.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.dto.Export.ExportFormat;
+import ru.fadeer.java_project_app.dto.Export.HistoryRow;
+import ru.fadeer.java_project_app.repository.RequestRepository;
+
+/// Класс-сервис выгрузки истории заявок и назначений. Строки читаются из БД потоком через
+/// серверный курсор и сразу пишутся в ответ, поэтому память не зависит от размера выгрузки.
+/// Строки - представления, а не сущности, и контекст постоянства за время выгрузки не растет
+@Service
+public class ExportService {
+
+	/// Через сколько строк буфер сбрасывается клиенту. Совпадает с порцией чтения из БД
+	private static final int FLUSH_EVERY = 1000;
+
+	private static final String CSV_HEADER = "request_id,accident_type,priority,address,"
+			+ "applicant_name,submission_time,description,status,assignment_id,brigade_id,brigade_code,"
+			+ "assignment_time,start_time,end_time\n";
+
+	private final RequestRepository requestRepository;
+
+	public ExportService(RequestRepository requestRepository) {
+		this.requestRepository = requestRepository;
+	}
+
+	/// Проверка промежутка выгрузки до начала ответа, пока ошибку еще можно вернуть статусом
+	public void validateRange(LocalDateTime from, LocalDateTime to) {
+		if (from == null || to == null) {
+			throw new IllegalArgumentException("Начало и конец промежутка обязательны.");
+		}
+		if (!from.isBefore(to)) {
+			throw new IllegalArgumentException("Начало промежутка должно быть раньше конца.");
+		}
+	}
+
+	/// Выгрузка заявок, поданных в промежутке [from, to), вместе с назначениями
+	///
+	/// @param from   начало промежутка, включительно
+	/// @param to     конец промежутка, не включительно
+	/// @param format формат выгрузки
+	/// @param out    поток ответа, не закрывается
+	/// @return количество выгруженных строк БД
+	@Transactional(readOnly = true)
+	public long exportHistory(LocalDateTime from, LocalDateTime to, ExportFormat format,
+			OutputStream out) throws IOException {
+		validateRange(from, to);
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		if (format == ExportFormat.CSV) {
+			writer.write(CSV_HEADER);
+		}
+		// Заголовок и первые строки уходят клиенту сразу, не дожидаясь заполнения буфера
+		writer.flush();
+
+		long count = 0;
+		try (Stream<HistoryRow> rows = requestRepository.streamHistory(from, to)) {
+			Iterator<HistoryRow> iterator = rows.iterator();
+			Integer currentRequest = null;
+			while (iterator.hasNext()) {
+				HistoryRow row = iterator.next();
+				if (format == ExportFormat.CSV) {
+					writeCsv(writer, row);
+				} else {
+					currentRequest = writeNdjson(writer, row, currentRequest);
+				}
+				if (++count % FLUSH_EVERY == 0) {
+					writer.flush();
+				}
+			}
+			if (currentRequest != null) {
+				writer.write("]}\n");
+			}
+		}
+		writer.flush();
+		return count;
+	}
+
+	/// Одна строка CSV на строку БД
+	private void writeCsv(Writer writer, HistoryRow row) throws IOException {
+		writer.write(String.valueOf(row.requestId()));
+		writer.write(',');
+		writer.write(csv(row.accidentType()));
+		writer.write(',');
+		writer.write(row.priority().name());
+		writer.write(',');
+		writer.write(csv(row.address()));
+		writer.write(',');
+		writer.write(csv(row.applicantName()));
+		writer.write(',');
+		writer.write(String.valueOf(row.submissionTime()));
+		writer.write(',');
+		writer.write(csv(row.description()));
+		writer.write(',');
+		writer.write(row.status().name());
+		writer.write(',');
+		writer.write(text(row.assignmentId()));
+		writer.write(',');
+		writer.write(text(row.brigadeId()));
+		writer.write(',');
+		writer.write(csv(row.brigadeCode()));
+		writer.write(',');
+		writer.write(text(row.assignmentTime()));
+		writer.write(',');
+		writer.write(text(row.startTime()));
+		writer.write(',');
+		writer.write(text(row.endTime()));
+		writer.write('\n');
+	}
+
+	/// Запись строки БД в NDJSON. Строки одной заявки идут подряд: первая открывает объект заявки,
+	/// следующие дописывают назначения в его массив. Объект закрывается при смене заявки
+	///
+	/// @return номер заявки, объект которой остался открытым
+	private Integer writeNdjson(Writer writer, HistoryRow row, Integer currentRequest)
+			throws IOException {
+		boolean sameRequest = row.requestId().equals(currentRequest);
+		if (!sameRequest) {
+			if (currentRequest != null) {
+				writer.write("]}\n");
+			}
+			writer.write("{\"requestId\":");
+			writer.write(String.valueOf(row.requestId()));
+			writer.write(",\"accidentType\":");
+			writer.write(json(row.accidentType()));
+			writer.write(",\"priority\":\"");
+			writer.write(row.priority().name());
+			writer.write("\",\"address\":");
+			writer.write(json(row.address()));
+			writer.write(",\"applicantName\":");
+			writer.write(json(row.applicantName()));
+			writer.write(",\"submissionTime\":");
+			writer.write(json(row.submissionTime()));
+			writer.write(",\"description\":");
+			writer.write(json(row.description()));
+			writer.write(",\"status\":\"");
+			writer.write(row.status().name());
+			writer.write("\",\"assignments\":[");
+		}
+		if (row.assignmentId() != null) {
+			if (sameRequest) {
+				writer.write(',');
+			}
+			writer.write("{\"assignmentId\":");
+			writer.write(String.valueOf(row.assignmentId()));
+			writer.write(",\"brigadeId\":");
+			writer.write(String.valueOf(row.brigadeId()));
+			writer.write(",\"brigadeCode\":");
+			writer.write(json(row.brigadeCode()));
+			writer.write(",\"assignmentTime\":");
+			writer.write(json(row.assignmentTime()));
+			writer.write(",\"startTime\":");
+			writer.write(json(row.startTime()));
+			writer.write(",\"endTime\":");
+			writer.write(json(row.endTime()));
+			writer.write('}');
+		}
+		return row.requestId();
+	}
+
+	/// Значение для CSV без кавычек: пустая строка для null
+	private static String text(Object value) {
+		return value == null ? "" : value.toString();
+	}
+
+	/// Строка для CSV. Значения с разделителем, кавычкой или переводом строки берутся в кавычки
+	static String csv(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+				&& value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	/// Значение для JSON: строка в кавычках с экранированием или null
+	static String json(Object value) {
+		if (value == null) {
+			return "null";
+		}
+		String text = value.toString();
+		StringBuilder result = new StringBuilder(text.length() + 2).append('"');
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			switch (c) {
+				case '"' -> result.append("\\\"");
+				case '\\' -> result.append("\\\\");
+				case '\n' -> result.append("\\n");
+				case '\r' -> result.append("\\r");
+				case '\t' -> result.append("\\t");
+				default -> {
+					if (c < 0x20) {
+						result.append(String.format("\\u%04x", (int) c));
+					} else {
+						result.append(c);
+					}
+				}
+			}
+		}
+		return result.append('"').toString();
+	}
+}
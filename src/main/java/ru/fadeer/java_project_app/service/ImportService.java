@@ -0,0 +1,312 @@
+package ru.fadeer.java_project_app.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.fadeer.java_project_app.dto.Export.ExportFormat;
+import ru.fadeer.java_project_app.dto.Import.ImportReject;
+import ru.fadeer.java_project_app.dto.Import.ImportReport;
+import ru.fadeer.java_project_app.dto.Request.RequestNewForm;
+import ru.fadeer.java_project_app.model.Request;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+/// Класс-сервис массовой загрузки заявок. Строки проверяются по тем же правилам, что и в
+/// RequestService.create, и записываются порциями командой COPY: при IDENTITY-ключах Hibernate не
+/// может группировать вставки, а COPY передает всю порцию одним потоком. Каждая порция записывается
+/// в своей транзакции. Если БД отклоняет COPY, порция делится пополам под точками сохранения, пока
+/// отказ не сведется к отдельным строкам: в отчет попадает каждая неверная строка, а остальные
+/// строки порции записываются
+@Service
+public class ImportService {
+
+	private static final String COPY_SQL = "COPY requests (accident_type, priority, address, "
+			+ "applicant_name, submission_time, description, status) FROM STDIN WITH (FORMAT csv)";
+
+	/// Сколько отклоненных строк перечисляется в отчете, остальные только считаются
+	private static final int MAX_REPORTED_REJECTS = 1000;
+
+	private static final List<String> REQUIRED_COLUMNS =
+			List.of("accident_type", "priority", "address", "applicant_name");
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final TransactionTemplate transactionTemplate;
+	private final JsonMapper jsonMapper;
+	private final LiveCountersService liveCountersService;
+	private final int chunkSize;
+
+	public ImportService(PlatformTransactionManager transactionManager, JsonMapper jsonMapper,
+			LiveCountersService liveCountersService,
+			@Value("${import.chunk-size:5000}") int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Размер порции должен быть положительным: " + chunkSize);
+		}
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.jsonMapper = jsonMapper;
+		this.liveCountersService = liveCountersService;
+		this.chunkSize = chunkSize;
+	}
+
+	/// Загрузка заявок из потока. CSV - строка заголовка с именами столбцов таблицы, далее по
+	/// заявке на строку. NDJSON - по объекту на строку с полями формы новой заявки. Все заявки
+	/// получают статус "Не принято"
+	///
+	/// @param in     входной поток, не закрывается
+	/// @param format формат файла
+	public ImportReport importRequests(InputStream in, ExportFormat format) throws IOException {
+		long start = System.nanoTime();
+		LocalDateTime now = LocalDateTime.now();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+		List<ImportReject> rejects = new ArrayList<>();
+		long accepted = 0;
+		long rejected = 0;
+		long lineNumber = 0;
+
+		Map<String, Integer> header = null;
+		List<CopyRow> chunk = new ArrayList<>(chunkSize);
+
+		String line;
+		while ((line = reader.readLine()) != null) {
+			lineNumber++;
+			if (line.isBlank()) {
+				continue;
+			}
+			if (format == ExportFormat.CSV && header == null) {
+				header = parseHeader(line);
+				continue;
+			}
+
+			try {
+				Request request = format == ExportFormat.CSV ? fromCsv(line, header) : fromJson(line);
+				RequestService.validateNew(request, now);
+				chunk.add(new CopyRow(lineNumber, copyRow(request)));
+			} catch (IllegalArgumentException | JacksonException e) {
+				rejected++;
+				addReject(rejects, lineNumber, e.getMessage());
+				continue;
+			}
+
+			if (chunk.size() == chunkSize) {
+				long copied = copyChunk(chunk, rejects);
+				accepted += copied;
+				rejected += chunk.size() - copied;
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			long copied = copyChunk(chunk, rejects);
+			accepted += copied;
+			rejected += chunk.size() - copied;
+		}
+
+		if (accepted > 0) {
+			liveCountersService.reconcileSoon();
+		}
+
+		long nanos = System.nanoTime() - start;
+		long rowsPerSecond = nanos == 0 ? 0 : (accepted + rejected) * 1_000_000_000L / nanos;
+		return new ImportReport(accepted, rejected, rejects, nanos / 1_000_000, rowsPerSecond);
+	}
+
+	/// Запись одной порции в отдельной транзакции. Возвращает количество записанных строк. Если
+	/// транзакция не удалась целиком, например при потере соединения, - 0 и отказ на всю порцию
+	private long copyChunk(List<CopyRow> rows, List<ImportReject> rejects) {
+		try {
+			Long copied = transactionTemplate.execute(status -> entityManager.unwrap(Session.class)
+					.doReturningWork(connection -> copyRows(connection, rows, rejects)));
+			return copied == null ? 0 : copied;
+		} catch (DataAccessException | PersistenceException | UncheckedIOException e) {
+			addReject(rejects, rows.getFirst().line(), "Строки " + rows.getFirst().line() + "-"
+					+ rows.getLast().line() + " не записаны: " + e.getMessage());
+			return 0;
+		}
+	}
+
+	/// Запись строк командой COPY под точкой сохранения. Отклоненный COPY откатывается до нее, строки
+	/// делятся пополам и записываются заново, а одна отклоненная строка попадает в отчет. Одна
+	/// неверная строка стоит порции около log2(размер порции) лишних COPY
+	private long copyRows(Connection connection, List<CopyRow> rows, List<ImportReject> rejects)
+			throws SQLException {
+		StringBuilder text = new StringBuilder();
+		rows.forEach(row -> text.append(row.text()));
+		Savepoint savepoint = connection.setSavepoint();
+		try {
+			long copied = connection.unwrap(PGConnection.class).getCopyAPI()
+					.copyIn(COPY_SQL, new StringReader(text.toString()));
+			connection.releaseSavepoint(savepoint);
+			return copied;
+		} catch (SQLException e) {
+			connection.rollback(savepoint);
+			if (rows.size() == 1) {
+				addReject(rejects, rows.getFirst().line(), "Строка не записана: " + e.getMessage());
+				return 0;
+			}
+			int middle = rows.size() / 2;
+			return copyRows(connection, rows.subList(0, middle), rejects)
+					+ copyRows(connection, rows.subList(middle, rows.size()), rejects);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void addReject(List<ImportReject> rejects, long line, String message) {
+		if (rejects.size() < MAX_REPORTED_REJECTS) {
+			rejects.add(new ImportReject(line, message));
+		}
+	}
+
+	/// Разбор строки заголовка CSV: имя столбца - его позиция
+	private Map<String, Integer> parseHeader(String line) {
+		List<String> columns = parseCsvLine(line);
+		Map<String, Integer> header = new HashMap<>();
+		for (int i = 0; i < columns.size(); i++) {
+			header.put(columns.get(i).strip().toLowerCase(), i);
+		}
+		for (String column : REQUIRED_COLUMNS) {
+			if (!header.containsKey(column)) {
+				throw new IllegalArgumentException("В заголовке CSV нет столбца " + column);
+			}
+		}
+		return header;
+	}
+
+	/// Заявка из строки CSV
+	private Request fromCsv(String line, Map<String, Integer> header) {
+		List<String> values = parseCsvLine(line);
+		String submissionTime = column(values, header, "submission_time");
+		return new Request(
+				column(values, header, "accident_type"),
+				parsePriority(column(values, header, "priority")),
+				column(values, header, "address"),
+				column(values, header, "applicant_name"),
+				submissionTime == null ? null : parseTime(submissionTime),
+				column(values, header, "description"));
+	}
+
+	/// Заявка из строки NDJSON
+	private Request fromJson(String line) {
+		RequestNewForm form = jsonMapper.readValue(line, RequestNewForm.class);
+		return form.toNewRequest();
+	}
+
+	/// Значение столбца, пустое значение - null
+	private static String column(List<String> values, Map<String, Integer> header, String name) {
+		Integer index = header.get(name);
+		if (index == null || index >= values.size()) {
+			return null;
+		}
+		String value = values.get(index);
+		return value.isEmpty() ? null : value;
+	}
+
+	/// Приоритет по имени (High) или значению (1)
+	private static Request.Priority parsePriority(String value) {
+		if (value == null) {
+			return null;
+		}
+		if (Character.isDigit(value.charAt(0))) {
+			try {
+				return Request.Priority.fromValue(Integer.parseInt(value));
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Недопустимый приоритет: " + value);
+			}
+		}
+		for (Request.Priority priority : Request.Priority.values()) {
+			if (priority.name().equalsIgnoreCase(value)) {
+				return priority;
+			}
+		}
+		throw new IllegalArgumentException("Недопустимый приоритет: " + value);
+	}
+
+	/// Время подачи в формате ISO, дата и время могут разделяться пробелом
+	private static LocalDateTime parseTime(String value) {
+		try {
+			return LocalDateTime.parse(value.replace(' ', 'T'));
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("Некорректное время подачи: " + value);
+		}
+	}
+
+	/// Разбор строки CSV с полями в кавычках и удвоенными кавычками внутри них
+	static List<String> parseCsvLine(String line) {
+		List<String> values = new ArrayList<>();
+		StringBuilder value = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					value.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					value.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				values.add(value.toString());
+				value.setLength(0);
+			} else {
+				value.append(c);
+			}
+		}
+		if (quoted) {
+			throw new IllegalArgumentException("Незакрытая кавычка в строке CSV");
+		}
+		values.add(value.toString());
+		return values;
+	}
+
+	/// Строка порции для COPY в формате CSV. Строки всегда в кавычках, null - пустое поле
+	private static String copyRow(Request request) {
+		StringBuilder row = new StringBuilder();
+		appendQuoted(row, request.getAccidentType());
+		row.append(',').append(request.getPriority().getToDisplayInt()).append(',');
+		appendQuoted(row, request.getAddress());
+		row.append(',');
+		appendQuoted(row, request.getApplicantName());
+		row.append(',').append(request.getSubmissionTime()).append(',');
+		if (request.getDescription() != null) {
+			appendQuoted(row, request.getDescription());
+		}
+		row.append(',').append(Request.Status.Not_Accepted.getCode()).append('\n');
+		return row.toString();
+	}
+
+	private static void appendQuoted(StringBuilder row, String value) {
+		row.append('"').append(value.replace("\"", "\"\"")).append('"');
+	}
+
+	/// Строка порции COPY и номер строки входного файла, из которой она получена
+	private record CopyRow(long line, String text) {
+	}
+}
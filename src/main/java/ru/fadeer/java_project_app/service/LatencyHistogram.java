@@ -0,0 +1,72 @@
+package ru.fadeer.java_project_app.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/// Гистограмма длительностей в миллисекундах с логарифмически-линейными корзинами, как в
+/// HdrHistogram: значения до 128 хранятся точно, дальше каждый интервал [2^k, 2^(k+1)) делится на
+/// 64 корзины, поэтому относительная ошибка перцентиля не больше 1,6%. Запись - один атомарный
+/// инкремент без выделения памяти, читать можно одновременно с записью
+final class LatencyHistogram {
+
+	/// Количество точно хранимых значений и корзин в первом интервале
+	private static final int SUB_BUCKETS = 128;
+	private static final int HALF = SUB_BUCKETS / 2;
+	private static final int HALF_BITS = 6;
+
+	/// Наибольшее хранимое значение, около 50 суток. Большие значения попадают в последнюю корзину
+	static final long MAX_VALUE = (1L << 32) - 1;
+
+	static final int BUCKETS = index(MAX_VALUE) + 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	/// Учет одного значения. Отрицательные значения (часы сервера сдвинулись) считаются нулем
+	void record(long millis) {
+		counts.incrementAndGet(index(Math.clamp(millis, 0, MAX_VALUE)));
+	}
+
+	/// Прибавление счетчиков гистограммы к массиву target длиной BUCKETS
+	void addTo(long[] target) {
+		for (int i = 0; i < BUCKETS; i++) {
+			target[i] += counts.get(i);
+		}
+	}
+
+	/// Номер корзины значения value от 0 до MAX_VALUE
+	static int index(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - HALF_BITS;
+		return shift * HALF + (int) (value >>> shift);
+	}
+
+	/// Наибольшее значение, попадающее в корзину index
+	static long highestValue(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = index / HALF - 1;
+		long mantissa = index - (long) shift * HALF;
+		return ((mantissa + 1) << shift) - 1;
+	}
+
+	/// Значение перцентиля percentile (от 0 до 100) по счетчикам корзин counts
+	///
+	/// @param counts счетчики корзин, собранные addTo
+	/// @param total  сумма счетчиков
+	static long percentile(long[] counts, long total, double percentile) {
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return highestValue(i);
+			}
+		}
+		return MAX_VALUE;
+	}
+}
@@ -0,0 +1,322 @@
+package ru.fadeer.java_project_app.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.fadeer.java_project_app.dto.Latency.LatencyInterval;
+import ru.fadeer.java_project_app.dto.Latency.LatencyPercentiles;
+import ru.fadeer.java_project_app.dto.Latency.LatencySample;
+import ru.fadeer.java_project_app.dto.Latency.TransitionTimedEvent;
+import ru.fadeer.java_project_app.model.Request;
+import ru.fadeer.java_project_app.repository.AssignmentRepository;
+
+/// Класс-сервис перцентилей времени реакции по приоритетам и типам аварий: от подачи заявки до
+/// первого назначения, от назначения до начала работ и от начала до окончания. Замеры приходят
+/// событиями AssignmentService после фиксации транзакций и пишутся в гистограммы за все время и в
+/// кольцо окон по latency.window-ms. Тип аварии - свободный текст, поэтому отдельные строки ведутся
+/// только для latency.max-types типов (при пересчете - самых частых), остальные учитываются под
+/// OTHER_TYPES. Гистограмма окна создается первым замером в окне и освобождается при сдвиге кольца.
+/// Запись не выделяет память, кроме первого замера нового типа аварии или окна. При старте и по
+/// запросу гистограммы пересчитываются по таблице назначений
+@Service
+public class LatencyService {
+
+	/// Ключ строк типов аварий сверх latency.max-types
+	public static final String OTHER_TYPES = "(прочие)";
+
+	private static final Request.Priority[] PRIORITIES = Request.Priority.values();
+	private static final LatencyInterval[] INTERVALS = LatencyInterval.values();
+
+	private final AssignmentRepository assignmentRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final long windowMs;
+	private final int windows;
+	private final int maxTypes;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private volatile Registry registry;
+
+	public LatencyService(AssignmentRepository assignmentRepository,
+			PlatformTransactionManager transactionManager,
+			@Value("${latency.window-ms:300000}") long windowMs,
+			@Value("${latency.windows:12}") int windows,
+			@Value("${latency.max-types:30}") int maxTypes) {
+		if (windowMs <= 0 || windows <= 0) {
+			throw new IllegalArgumentException("Длина и количество окон должны быть положительными.");
+		}
+		if (maxTypes < 0) {
+			throw new IllegalArgumentException("Количество типов аварий не может быть отрицательным.");
+		}
+		this.assignmentRepository = assignmentRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+		this.windowMs = windowMs;
+		this.windows = windows;
+		this.maxTypes = maxTypes;
+		this.registry = new Registry(windows, maxTypes, System.currentTimeMillis());
+	}
+
+	/// Учет завершенного промежутка
+	@TransactionalEventListener
+	public void onTransition(TransitionTimedEvent event) {
+		registry.series(event.interval(), event.priority(), event.accidentType())
+				.record(event.millis());
+	}
+
+	/// Перцентили по приоритету priority или по всем приоритетам. Для каждого промежутка и
+	/// приоритета сначала идет строка по всем типам аварий, затем строки по типам
+	///
+	/// @param priority фильтр по приоритету, null - все приоритеты
+	/// @param recent   true - только последние latency.windows окон, false - все время
+	public List<LatencyPercentiles> percentiles(Request.Priority priority, boolean recent) {
+		Registry current = registry;
+		List<LatencyPercentiles> result = new ArrayList<>();
+		for (LatencyInterval interval : INTERVALS) {
+			for (Request.Priority p : PRIORITIES) {
+				if (priority != null && priority != p) {
+					continue;
+				}
+				long[] all = new long[LatencyHistogram.BUCKETS];
+				List<LatencyPercentiles> byType = new ArrayList<>();
+				for (Map.Entry<String, Series> entry
+						: new TreeMap<>(current.byKey(interval, p)).entrySet()) {
+					long[] counts = new long[LatencyHistogram.BUCKETS];
+					entry.getValue().addTo(counts, recent);
+					for (int i = 0; i < counts.length; i++) {
+						all[i] += counts[i];
+					}
+					LatencyPercentiles row = summarize(interval, p, entry.getKey(), counts);
+					if (row.count() > 0) {
+						byType.add(row);
+					}
+				}
+				result.add(summarize(interval, p, null, all));
+				result.addAll(byType);
+			}
+		}
+		return result;
+	}
+
+	/// Сдвиг кольца окон: самое старое окно очищается и становится текущим
+	@Scheduled(initialDelayString = "${latency.window-ms:300000}",
+			fixedRateString = "${latency.window-ms:300000}")
+	public void roll() {
+		lock.lock();
+		try {
+			registry.roll(System.currentTimeMillis());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/// Заполнение гистограмм при старте приложения
+	@EventListener(ApplicationReadyEvent.class)
+	public void seed() {
+		rebuild();
+	}
+
+	/// Пересчет гистограмм по таблице назначений. Отдельные строки получают самые частые типы
+	/// аварий. Новые гистограммы собираются отдельно и подменяют прежние целиком. Замеры,
+	/// зафиксированные во время пересчета, могут учесться дважды или потеряться
+	public void rebuild() {
+		lock.lock();
+		try {
+			long now = System.currentTimeMillis();
+			Registry rebuilt = new Registry(windows, maxTypes, now);
+			ZoneId zone = ZoneId.systemDefault();
+			transactionTemplate.executeWithoutResult(status -> {
+				if (maxTypes > 0) {
+					assignmentRepository.findFrequentAccidentTypes(Limit.of(maxTypes))
+							.forEach(rebuilt::admit);
+				}
+				try (Stream<LatencySample> samples = assignmentRepository.streamLatencySamples()) {
+					Integer[] previousRequest = {null};
+					samples.forEach(sample -> {
+						// Строки одной заявки идут подряд, первая - самое раннее назначение
+						if (!sample.requestId().equals(previousRequest[0])) {
+							previousRequest[0] = sample.requestId();
+							rebuilt.replay(LatencyInterval.SubmissionToAssignment, sample,
+									sample.submissionTime(), sample.assignmentTime(), zone, windowMs);
+						}
+						rebuilt.replay(LatencyInterval.AssignmentToStart, sample,
+								sample.assignmentTime(), sample.startTime(), zone, windowMs);
+						rebuilt.replay(LatencyInterval.StartToEnd, sample,
+								sample.startTime(), sample.endTime(), zone, windowMs);
+					});
+				}
+			});
+			registry = rebuilt;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static LatencyPercentiles summarize(LatencyInterval interval, Request.Priority priority,
+			String accidentType, long[] counts) {
+		long total = 0;
+		int highest = 0;
+		for (int i = 0; i < counts.length; i++) {
+			total += counts[i];
+			if (counts[i] > 0) {
+				highest = i;
+			}
+		}
+		return new LatencyPercentiles(interval, priority, accidentType, total,
+				LatencyHistogram.percentile(counts, total, 50),
+				LatencyHistogram.percentile(counts, total, 90),
+				LatencyHistogram.percentile(counts, total, 99),
+				total == 0 ? 0 : LatencyHistogram.highestValue(highest));
+	}
+
+	/// Гистограммы всех промежутков, приоритетов и типов аварий с общим кольцом окон
+	private static final class Registry {
+
+		/// Гистограммы по типу аварии, индекс - interval * PRIORITIES.length + priority
+		private final List<ConcurrentHashMap<String, Series>> series;
+		/// Типы аварий с отдельными строками
+		private final Set<String> types = ConcurrentHashMap.newKeySet();
+		private final int windows;
+		private final int maxTypes;
+		private volatile int current;
+		private long windowStart;
+
+		Registry(int windows, int maxTypes, long windowStart) {
+			this.windows = windows;
+			this.maxTypes = maxTypes;
+			this.windowStart = windowStart;
+			this.series = new ArrayList<>(INTERVALS.length * PRIORITIES.length);
+			for (int i = 0; i < INTERVALS.length * PRIORITIES.length; i++) {
+				series.add(new ConcurrentHashMap<>());
+			}
+		}
+
+		Map<String, Series> byKey(LatencyInterval interval, Request.Priority priority) {
+			return series.get(interval.ordinal() * PRIORITIES.length + priority.ordinal());
+		}
+
+		Series series(LatencyInterval interval, Request.Priority priority, String accidentType) {
+			ConcurrentHashMap<String, Series> map = series.get(
+					interval.ordinal() * PRIORITIES.length + priority.ordinal());
+			String key = key(accidentType);
+			Series found = map.get(key);
+			return found != null ? found : map.computeIfAbsent(key, type -> new Series(this));
+		}
+
+		/// Выделение отдельной строки типу аварии, пока не набрано maxTypes типов
+		void admit(String accidentType) {
+			key(accidentType);
+		}
+
+		/// Ключ строки типа аварии: сам тип без крайних пробелов, если для него есть строка или
+		/// место под нее, иначе OTHER_TYPES
+		private String key(String accidentType) {
+			String type = accidentType == null ? "" : accidentType.strip();
+			if (type.isEmpty()) {
+				return OTHER_TYPES;
+			}
+			if (types.contains(type)) {
+				return type;
+			}
+			if (types.size() >= maxTypes) {
+				return OTHER_TYPES;
+			}
+			synchronized (types) {
+				if (types.contains(type) || types.size() < maxTypes && types.add(type)) {
+					return type;
+				}
+				return OTHER_TYPES;
+			}
+		}
+
+		/// Перевод кольца на следующее окно. Вызывается под блокировкой сервиса
+		void roll(long now) {
+			int next = (current + 1) % windows;
+			for (ConcurrentHashMap<String, Series> map : series) {
+				for (Series s : map.values()) {
+					s.windows.set(next, null);
+				}
+			}
+			current = next;
+			windowStart = now;
+		}
+
+		/// Учет промежутка [from, to) из таблицы в гистограмму за все время и в окно, в которое
+		/// попадает его окончание, если оно еще в кольце
+		void replay(LatencyInterval interval, LatencySample sample, LocalDateTime from,
+				LocalDateTime to, ZoneId zone, long windowMs) {
+			if (from == null || to == null) {
+				return;
+			}
+			long millis = Duration.between(from, to).toMillis();
+			Series s = series(interval, sample.priority(), sample.accidentType());
+			s.total.record(millis);
+
+			long age = windowStart - to.atZone(zone).toInstant().toEpochMilli();
+			long windowsAgo = age <= 0 ? 0 : (age - 1) / windowMs + 1;
+			if (windowsAgo < windows) {
+				s.window((int) ((current - windowsAgo + windows) % windows)).record(millis);
+			}
+		}
+	}
+
+	/// Гистограмма за все время и кольцо гистограмм по окнам одного ключа. Окно без замеров не
+	/// занимает памяти: у редкого типа аварии заполнены одно-два окна из кольца
+	private static final class Series {
+
+		private final Registry registry;
+		private final LatencyHistogram total = new LatencyHistogram();
+		private final AtomicReferenceArray<LatencyHistogram> windows;
+
+		Series(Registry registry) {
+			this.registry = registry;
+			this.windows = new AtomicReferenceArray<>(registry.windows);
+		}
+
+		void record(long millis) {
+			total.record(millis);
+			window(registry.current).record(millis);
+		}
+
+		/// Гистограмма окна index, создается при первом замере в окне
+		LatencyHistogram window(int index) {
+			LatencyHistogram window = windows.get(index);
+			if (window == null) {
+				LatencyHistogram created = new LatencyHistogram();
+				window = windows.compareAndExchange(index, null, created);
+				return window != null ? window : created;
+			}
+			return window;
+		}
+
+		void addTo(long[] counts, boolean recent) {
+			if (!recent) {
+				total.addTo(counts);
+				return;
+			}
+			for (int i = 0; i < windows.length(); i++) {
+				LatencyHistogram window = windows.get(i);
+				if (window != null) {
+					window.addTo(counts);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,185 @@
+package ru.fadeer.java_project_app.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.fadeer.java_project_app.dto.Board.StatusChangedEvent;
+import ru.fadeer.java_project_app.dto.Dashboard.AssignmentPhase;
+import ru.fadeer.java_project_app.dto.Dashboard.LiveCounts;
+import ru.fadeer.java_project_app.dto.Dashboard.PhaseChangedEvent;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Класс-сервис счетчиков заявок по статусам, бригад по статусам и назначений по фазам для главной
+/// страницы и списков. Чтение счетчиков не обращается к БД. Счетчики заполняются одним групповым
+/// запросом при старте, меняются событиями сервисов после фиксации транзакций и периодически
+/// сверяются с БД. Если прежнее состояние неизвестно (удаление через SQL, массовая загрузка),
+/// сверка запускается сразу
+@Service
+public class LiveCountersService implements DisposableBean {
+
+	/// Количество строк по (вид, код): 0 - заявки по коду статуса, 1 - бригады по коду статуса,
+	/// 2 - назначения по номеру фазы
+	private static final String COUNT_SQL =
+			"SELECT 0, status, count(*) FROM requests GROUP BY status "
+					+ "UNION ALL SELECT 1, status, count(*) FROM brigades GROUP BY status "
+					+ "UNION ALL SELECT 2, CASE WHEN end_time IS NOT NULL THEN 2 "
+					+ "WHEN start_time IS NOT NULL THEN 1 ELSE 0 END AS phase, count(*) "
+					+ "FROM assignments GROUP BY phase";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final LongAdder[] requests = newAdders(Request.Status.values().length);
+	private final LongAdder[] brigades = newAdders(Brigade.Status.values().length);
+	private final LongAdder[] phases = newAdders(AssignmentPhase.values().length);
+
+	private final ReentrantLock reconcileLock = new ReentrantLock();
+	private final AtomicBoolean reconcileQueued = new AtomicBoolean();
+	private final ExecutorService reconciler = Executors.newSingleThreadExecutor(
+			Thread.ofVirtual().name("counters-reconcile").factory());
+
+	public LiveCountersService(PlatformTransactionManager transactionManager) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+	}
+
+	/// Текущие значения счетчиков
+	public LiveCounts snapshot() {
+		Map<Request.Status, Long> requestCounts = new EnumMap<>(Request.Status.class);
+		for (Request.Status status : Request.Status.values()) {
+			requestCounts.put(status, requests[status.ordinal()].sum());
+		}
+		Map<Brigade.Status, Long> brigadeCounts = new EnumMap<>(Brigade.Status.class);
+		for (Brigade.Status status : Brigade.Status.values()) {
+			brigadeCounts.put(status, brigades[status.ordinal()].sum());
+		}
+		Map<AssignmentPhase, Long> phaseCounts = new EnumMap<>(AssignmentPhase.class);
+		for (AssignmentPhase phase : AssignmentPhase.values()) {
+			phaseCounts.put(phase, phases[phase.ordinal()].sum());
+		}
+		return new LiveCounts(requestCounts, brigadeCounts, phaseCounts);
+	}
+
+	/// Учет смены статуса заявки или бригады
+	@TransactionalEventListener
+	public void onStatusChanged(StatusChangedEvent event) {
+		if (event.status() == null) {
+			reconcileSoon();
+			return;
+		}
+		LongAdder[] counters = StatusChangedEvent.BRIGADE.equals(event.type()) ? brigades : requests;
+		int current = ordinal(event.type(), event.status());
+		if (event.previous() == null) {
+			counters[current].increment();
+			return;
+		}
+		int previous = ordinal(event.type(), event.previous());
+		if (previous != current) {
+			counters[previous].decrement();
+			counters[current].increment();
+		}
+	}
+
+	/// Учет смены фазы назначений
+	@TransactionalEventListener
+	public void onPhaseChanged(PhaseChangedEvent event) {
+		if (event.previous() != null) {
+			phases[event.previous().ordinal()].add(-event.count());
+		}
+		if (event.phase() != null) {
+			phases[event.phase().ordinal()].add(event.count());
+		}
+	}
+
+	/// Заполнение счетчиков при старте приложения
+	@EventListener(ApplicationReadyEvent.class)
+	public void seed() {
+		reconcile();
+	}
+
+	/// Запуск сверки в фоне. Несколько запросов подряд сливаются в одну сверку
+	public void reconcileSoon() {
+		if (reconcileQueued.compareAndSet(false, true)) {
+			reconciler.execute(() -> {
+				reconcileQueued.set(false);
+				reconcile();
+			});
+		}
+	}
+
+	/// Сверка счетчиков с БД одним запросом. Счетчики не обнуляются, а сдвигаются на разницу, поэтому
+	/// читатели не видят промежуточных нулей. Изменения, зафиксированные во время сверки, могут
+	/// учесться дважды или потеряться - это исправит следующая сверка
+	@Scheduled(initialDelayString = "${counters.reconcile-ms:60000}",
+			fixedDelayString = "${counters.reconcile-ms:60000}")
+	public void reconcile() {
+		reconcileLock.lock();
+		try {
+			@SuppressWarnings("unchecked")
+			List<Object[]> rows = transactionTemplate.execute(
+					status -> entityManager.createNativeQuery(COUNT_SQL).getResultList());
+
+			long[][] actual = {
+					new long[requests.length], new long[brigades.length], new long[phases.length]};
+			for (Object[] row : rows) {
+				int kind = ((Number) row[0]).intValue();
+				short code = ((Number) row[1]).shortValue();
+				long count = ((Number) row[2]).longValue();
+				int index = switch (kind) {
+					case 0 -> Request.Status.fromCode(code).ordinal();
+					case 1 -> Brigade.Status.fromCode(code).ordinal();
+					default -> code;
+				};
+				actual[kind][index] = count;
+			}
+			adjust(requests, actual[0]);
+			adjust(brigades, actual[1]);
+			adjust(phases, actual[2]);
+		} finally {
+			reconcileLock.unlock();
+		}
+	}
+
+	@Override
+	public void destroy() {
+		reconciler.shutdownNow();
+	}
+
+	private static void adjust(LongAdder[] counters, long[] actual) {
+		for (int i = 0; i < counters.length; i++) {
+			counters[i].add(actual[i] - counters[i].sum());
+		}
+	}
+
+	private static int ordinal(String type, String status) {
+		return StatusChangedEvent.BRIGADE.equals(type)
+				? Brigade.Status.valueOf(status).ordinal()
+				: Request.Status.valueOf(status).ordinal();
+	}
+
+	private static LongAdder[] newAdders(int size) {
+		LongAdder[] adders = new LongAdder[size];
+		for (int i = 0; i < size; i++) {
+			adders[i] = new LongAdder();
+		}
+		return adders;
+	}
+}
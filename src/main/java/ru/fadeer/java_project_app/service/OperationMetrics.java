@@ -0,0 +1,106 @@
+package ru.fadeer.java_project_app.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import org.springframework.stereotype.Service;
+
+/// Класс-сервис замеров операций сервисов. Каждая операция - таймер dispatch.operation с метками
+/// operation и outcome: success, rejected (нарушено правило ПО, IllegalArgumentException), conflict
+/// (параллельное изменение, которое не удалось разрешить повторами ConflictRetry) или error.
+/// Отказы дополнительно считаются счетчиком dispatch.operation.rejections с меткой rule - текстом
+/// правила без чисел и значений в кавычках. Таймеры успешных операций создаются заранее, поэтому
+/// замер на успешном пути не выделяет память и не ищет метрику в реестре
+@Service
+public class OperationMetrics {
+
+	static final String TIMER = "dispatch.operation";
+	static final String REJECTIONS = "dispatch.operation.rejections";
+
+	/// Изменяемые части текста ошибки: значения в кавычках, числа, даты и время
+	private static final Pattern QUOTED = Pattern.compile("'[^']*'");
+	private static final Pattern NUMBERS = Pattern.compile("\\d[\\d\\-:.T]*");
+	private static final int MAX_RULE_LENGTH = 120;
+
+	private final MeterRegistry registry;
+
+	public OperationMetrics(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	/// Замеры операции name. Вызывается один раз, при создании сервиса
+	public Operation operation(String name) {
+		return new Operation(registry, name);
+	}
+
+	/// Текст правила для метки rule. Разные значения в одном правиле дают одну метку
+	static String ruleOf(IllegalArgumentException e) {
+		String message = e.getMessage();
+		if (message == null) {
+			return "unknown";
+		}
+		String rule = NUMBERS.matcher(QUOTED.matcher(message).replaceAll("'?'")).replaceAll("?");
+		return rule.length() > MAX_RULE_LENGTH ? rule.substring(0, MAX_RULE_LENGTH) : rule;
+	}
+
+	/// Таймеры одной операции
+	public static final class Operation {
+
+		private final MeterRegistry registry;
+		private final String name;
+		private final Timer success;
+		private final Timer rejected;
+		private final Timer conflict;
+		private final Timer failed;
+
+		private Operation(MeterRegistry registry, String name) {
+			this.registry = registry;
+			this.name = name;
+			this.success = timer(registry, name, "success");
+			this.rejected = timer(registry, name, "rejected");
+			this.conflict = timer(registry, name, "conflict");
+			this.failed = timer(registry, name, "error");
+		}
+
+		/// Выполнение action с замером времени и исхода. Исключения пробрасываются как есть
+		public <T> T record(Supplier<T> action) {
+			long start = System.nanoTime();
+			try {
+				T result = action.get();
+				success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				return result;
+			} catch (IllegalArgumentException e) {
+				rejected.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				Counter.builder(REJECTIONS)
+						.tag("operation", name)
+						.tag("rule", ruleOf(e))
+						.register(registry)
+						.increment();
+				throw e;
+			} catch (RuntimeException | Error e) {
+				Timer timer = ConflictRetry.isConflict(e) ? conflict : failed;
+				timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				throw e;
+			}
+		}
+
+		/// Выполнение action без результата с замером времени и исхода
+		public void run(Runnable action) {
+			record(() -> {
+				action.run();
+				return null;
+			});
+		}
+
+		private static Timer timer(MeterRegistry registry, String name, String outcome) {
+			return Timer.builder(TIMER)
+					.description("Время операций сервисов вместе с повторами при конфликтах")
+					.tag("operation", name)
+					.tag("outcome", outcome)
+					.register(registry);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package ru.fadeer.java_project_app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/// Ограниченный локальный кэш одного вида справочных данных. Записи вытесняются по размеру и
+/// устаревают через ttl после записи, даже если сброс с другого узла потерялся. Загрузка идет мимо
+/// блокировок кэша: если во время загрузки пришел сброс, загруженное значение не кэшируется, чтобы
+/// не сохранить данные, прочитанные до чужой фиксации
+///
+/// @param <K> ключ записи
+/// @param <V> неизменяемое значение
+final class ReferenceCache<K, V> {
+
+	private final Cache<K, V> cache;
+
+	/// Номер сброса: увеличивается при каждом сбросе записей
+	private final AtomicLong generation = new AtomicLong();
+
+	ReferenceCache(String name, long maxSize, Duration ttl, MeterRegistry registry) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(registry, cache, name);
+		Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+				.description("Доля чтений справочных данных, обслуженных кэшем")
+				.tag("cache", name)
+				.register(registry);
+	}
+
+	/// Значение из кэша или из loader. Null от loader не кэшируется
+	V get(K key, Supplier<V> loader) {
+		V cached = cache.getIfPresent(key);
+		if (cached != null) {
+			return cached;
+		}
+		long stamp = generation.get();
+		V loaded = loader.get();
+		if (loaded != null) {
+			cache.put(key, loaded);
+			if (generation.get() != stamp) {
+				cache.invalidate(key);
+			}
+		}
+		return loaded;
+	}
+
+	void invalidate(Collection<K> keys) {
+		generation.incrementAndGet();
+		cache.invalidateAll(keys);
+	}
+
+	void invalidateAll() {
+		generation.incrementAndGet();
+		cache.invalidateAll();
+	}
+}
@@ -0,0 +1,444 @@
+package ru.fadeer.java_project_app.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.fadeer.java_project_app.config.ReadRouting;
+import ru.fadeer.java_project_app.dto.Board.StatusChangedEvent;
+import ru.fadeer.java_project_app.dto.Cache.BrigadeSnapshot;
+import ru.fadeer.java_project_app.dto.Cache.ReferenceChangedEvent;
+import ru.fadeer.java_project_app.dto.Cache.RequestSnapshot;
+
+/// Класс-сервис кэша справочных данных: бригад по номеру, списка бригад и заявок по номеру. Кэш
+/// согласован между экземплярами приложения через LISTEN/NOTIFY PostgreSQL. Изменения, о которых
+/// сервисы сообщают событиями, копятся до конца транзакции и перед фиксацией отправляются одним
+/// pg_notify в той же транзакции: PostgreSQL доставит его остальным узлам только при фиксации и не
+/// доставит при откате. Свой кэш узел сбрасывает после фиксации, поэтому записавший сразу видит
+/// свои изменения. Кэш используется, только пока открыто соединение прослушивания: после обрыва
+/// чтения идут в БД, а при восстановлении кэш сбрасывается целиком, так как уведомления за время
+/// обрыва потеряны. Внутри пишущей транзакции кэш тоже не используется. В кэш данные загружаются
+/// из основной БД: отставшая копия с реплики осталась бы в кэше до истечения срока записи. По тем
+/// же уведомлениям на остальных узлах сбрасываются записи второго уровня кэша Hibernate, в том
+/// числе назначений; после переподключения он тоже сбрасывается целиком
+@Service
+public class ReferenceCacheService implements DisposableBean {
+
+	static final String BRIGADES = "reference.brigades";
+	static final String ROSTER = "reference.roster";
+	static final String REQUESTS = "reference.requests";
+	static final String LAG = "cache.invalidation.lag";
+	static final String RECONNECTS = "cache.listener.reconnects";
+	static final String LISTENING = "cache.listener.listening";
+
+	private static final Logger log = LoggerFactory.getLogger(ReferenceCacheService.class);
+
+	private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+
+	/// Полезная нагрузка NOTIFY ограничена 8000 байт на три списка номеров. Более длинный список
+	/// заменяется сбросом всех записей этого типа
+	private static final int MAX_IDS_LENGTH = 2500;
+
+	private static final long POLL_MS = 500;
+	private static final long RECONNECT_MS = 2000;
+	/// Повторные ошибки прослушивания пишутся в журнал не чаще раза в минуту
+	private static final long LOG_EVERY_MS = 60_000;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final TransactionTemplate transactionTemplate;
+	private final EntityCacheService entityCache;
+
+	private final ReferenceCache<Integer, BrigadeSnapshot> brigades;
+	private final ReferenceCache<Boolean, List<BrigadeSnapshot>> roster;
+	private final ReferenceCache<Integer, RequestSnapshot> requests;
+
+	private final Timer lag;
+	private final Counter reconnects;
+
+	private final String channel;
+	private final String url;
+	private final String username;
+	private final String password;
+
+	/// Номер узла в уведомлениях, чтобы узел не сбрасывал кэш по своим же уведомлениям
+	private final String nodeId = UUID.randomUUID().toString();
+
+	private volatile boolean running;
+	private volatile boolean listening;
+	private Thread listener;
+
+	/// Ошибки прослушивания с последней записи в журнал. Меняются только потоком прослушивания
+	private int failures;
+	private long failureLoggedAt;
+
+	public ReferenceCacheService(PlatformTransactionManager transactionManager,
+			EntityCacheService entityCache,
+			MeterRegistry registry,
+			@Value("${reference-cache.max-size:10000}") long maxSize,
+			@Value("${reference-cache.ttl-ms:300000}") long ttlMs,
+			@Value("${reference-cache.channel:reference_cache}") String channel,
+			@Value("${spring.datasource.url}") String url,
+			@Value("${spring.datasource.username:}") String username,
+			@Value("${spring.datasource.password:}") String password) {
+		if (!CHANNEL.matcher(channel).matches()) {
+			throw new IllegalArgumentException("Недопустимое имя канала уведомлений: " + channel);
+		}
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.entityCache = entityCache;
+		Duration ttl = Duration.ofMillis(ttlMs);
+		this.brigades = new ReferenceCache<>(BRIGADES, maxSize, ttl, registry);
+		this.roster = new ReferenceCache<>(ROSTER, 1, ttl, registry);
+		this.requests = new ReferenceCache<>(REQUESTS, maxSize, ttl, registry);
+		this.lag = Timer.builder(LAG)
+				.description("Время от фиксации изменения на другом узле до сброса кэша на этом узле")
+				.register(registry);
+		this.reconnects = Counter.builder(RECONNECTS)
+				.description("Ошибки соединения прослушивания, после которых оно открывается заново")
+				.register(registry);
+		Gauge.builder(LISTENING, this, service -> service.listening ? 1 : 0)
+				.description("1 - соединение прослушивания открыто и кэш используется, 0 - нет")
+				.register(registry);
+		this.channel = channel;
+		this.url = url;
+		this.username = username;
+		this.password = password;
+	}
+
+	/// Бригада из кэша или из loader. Null означает, что бригады нет
+	public BrigadeSnapshot brigade(Integer id, Supplier<BrigadeSnapshot> loader) {
+		return usable() ? brigades.get(id, () -> ReadRouting.onPrimary(loader)) : loader.get();
+	}
+
+	/// Список всех бригад из кэша или из loader
+	public List<BrigadeSnapshot> roster(Supplier<List<BrigadeSnapshot>> loader) {
+		return usable() ? roster.get(Boolean.TRUE, () -> ReadRouting.onPrimary(loader))
+				: loader.get();
+	}
+
+	/// Заявка из кэша или из loader. Null означает, что заявки нет
+	public RequestSnapshot request(Integer id, Supplier<RequestSnapshot> loader) {
+		return usable() ? requests.get(id, () -> ReadRouting.onPrimary(loader)) : loader.get();
+	}
+
+	/// Признак открытого соединения прослушивания, без которого кэш не используется
+	public boolean isListening() {
+		return listening;
+	}
+
+	/// Учет смены статуса бригады или заявки
+	@EventListener
+	public void onStatusChanged(StatusChangedEvent event) {
+		changed(event.type(), List.of(event.id()));
+	}
+
+	/// Учет изменения бригад, заявок или назначений без смены статуса
+	@EventListener
+	public void onReferenceChanged(ReferenceChangedEvent event) {
+		changed(event.type(), event.ids());
+	}
+
+	/// Запуск прослушивания канала при старте приложения
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void start() {
+		if (listener != null) {
+			return;
+		}
+		running = true;
+		listener = Thread.ofVirtual().name("reference-cache-listener").start(this::listen);
+	}
+
+	@Override
+	public void destroy() throws InterruptedException {
+		Thread thread;
+		synchronized (this) {
+			running = false;
+			thread = listener;
+		}
+		if (thread != null) {
+			thread.join(POLL_MS * 4);
+		}
+	}
+
+	/// Кэш используется вне транзакций и в транзакциях только для чтения
+	private boolean usable() {
+		return listening && (!TransactionSynchronizationManager.isActualTransactionActive()
+				|| TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+	}
+
+	/// Добавление изменения к изменениям текущей транзакции. Вне транзакции уведомление
+	/// отправляется сразу в отдельной транзакции
+	private void changed(String type, List<Integer> ids) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			Changes changes = new Changes();
+			changes.add(type, ids);
+			transactionTemplate.executeWithoutResult(status -> notifyNodes(changes));
+			evict(changes);
+			return;
+		}
+		pending().changes.add(type, ids);
+	}
+
+	/// Изменения текущей транзакции. Синхронизации приостанавливаются вместе с транзакцией, поэтому
+	/// изменения вложенной транзакции не смешиваются с внешней
+	private PendingChanges pending() {
+		for (TransactionSynchronization synchronization :
+				TransactionSynchronizationManager.getSynchronizations()) {
+			if (synchronization instanceof PendingChanges pending && pending.owner == this) {
+				return pending;
+			}
+		}
+		PendingChanges pending = new PendingChanges(this);
+		TransactionSynchronizationManager.registerSynchronization(pending);
+		return pending;
+	}
+
+	/// Отправка изменений остальным узлам в текущей транзакции
+	private void notifyNodes(Changes changes) {
+		if (changes.isEmpty()) {
+			return;
+		}
+		entityManager.createNativeQuery("SELECT pg_notify(:channel, :payload)")
+				.setParameter("channel", channel)
+				.setParameter("payload", nodeId + " " + System.currentTimeMillis() + " "
+						+ changes.encode())
+				.getSingleResult();
+	}
+
+	/// Сброс записей кэша по изменениям. Изменение любой бригады сбрасывает и список бригад
+	private void evict(Changes changes) {
+		if (changes.brigades == null) {
+			brigades.invalidateAll();
+			roster.invalidateAll();
+		} else if (!changes.brigades.isEmpty()) {
+			brigades.invalidate(changes.brigades);
+			roster.invalidateAll();
+		}
+		if (changes.requests == null) {
+			requests.invalidateAll();
+		} else if (!changes.requests.isEmpty()) {
+			requests.invalidate(changes.requests);
+		}
+	}
+
+	/// Сброс записей второго уровня кэша Hibernate по изменениям другого узла. Свои изменения
+	/// Hibernate сбрасывает сам при фиксации
+	private void evictEntities(Changes changes) {
+		if (changes.brigades == null || !changes.brigades.isEmpty()) {
+			entityCache.evictBrigades(changes.brigades);
+		}
+		if (changes.requests == null || !changes.requests.isEmpty()) {
+			entityCache.evictRequests(changes.requests);
+		}
+		if (changes.assignments == null || !changes.assignments.isEmpty()) {
+			entityCache.evictAssignments(changes.assignments);
+		}
+	}
+
+	private void evictAll() {
+		brigades.invalidateAll();
+		roster.invalidateAll();
+		requests.invalidateAll();
+		entityCache.evictAll();
+	}
+
+	/// Цикл прослушивания канала на отдельном соединении вне пула. При ошибке соединение
+	/// открывается заново после паузы
+	private void listen() {
+		while (running) {
+			try (Connection connection = DriverManager.getConnection(url, username, password);
+					Statement statement = connection.createStatement()) {
+				statement.execute("LISTEN " + channel);
+				PGConnection notifications = connection.unwrap(PGConnection.class);
+				evictAll();
+				listening = true;
+				recovered();
+				while (running) {
+					PGNotification[] received = notifications.getNotifications((int) POLL_MS);
+					if (received != null) {
+						for (PGNotification notification : received) {
+							receive(notification.getParameter());
+						}
+					}
+				}
+			} catch (SQLException | RuntimeException e) {
+				// Соединение потеряно или не открылось, уведомления до переподключения не придут
+				failed(e);
+			} finally {
+				listening = false;
+				evictAll();
+			}
+			pause();
+		}
+	}
+
+	/// Учет ошибки прослушивания. Первая ошибка подряд пишется в журнал сразу, следующие - не чаще
+	/// LOG_EVERY_MS с числом ошибок подряд: неверный адрес или пароль иначе давал бы запись
+	/// каждые RECONNECT_MS
+	private void failed(Exception e) {
+		if (!running) {
+			return;
+		}
+		reconnects.increment();
+		failures++;
+		long now = System.currentTimeMillis();
+		if (failures == 1 || now - failureLoggedAt >= LOG_EVERY_MS) {
+			log.warn("Прослушивание канала {} прервано, кэш справочных данных отключен до "
+					+ "переподключения (ошибок подряд: {})", channel, failures, e);
+			failureLoggedAt = now;
+		}
+	}
+
+	/// Учет открытого соединения прослушивания после ошибок
+	private void recovered() {
+		if (failures > 0) {
+			log.info("Прослушивание канала {} восстановлено после {} ошибок", channel, failures);
+			failures = 0;
+		}
+	}
+
+	/// Обработка уведомления: узел, время отправки, изменения
+	private void receive(String payload) {
+		String[] parts = payload.split(" ", 3);
+		if (parts.length < 3 || nodeId.equals(parts[0])) {
+			return;
+		}
+		Changes changes = Changes.decode(parts[2]);
+		evict(changes);
+		evictEntities(changes);
+		long sent = Long.parseLong(parts[1]);
+		lag.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - sent)));
+	}
+
+	private void pause() {
+		long deadline = System.currentTimeMillis() + RECONNECT_MS;
+		while (running && System.currentTimeMillis() < deadline) {
+			try {
+				Thread.sleep(POLL_MS);
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	/// Измененные бригады, заявки и назначения. Null - изменены неизвестные объекты этого типа.
+	/// Кодируются в строку "b:<номера|*> r:<номера|*> a:<номера|*>", номера через запятую
+	private static final class Changes {
+
+		private Set<Integer> brigades = new HashSet<>();
+		private Set<Integer> requests = new HashSet<>();
+		private Set<Integer> assignments = new HashSet<>();
+
+		void add(String type, List<Integer> ids) {
+			switch (type) {
+				case StatusChangedEvent.BRIGADE -> brigades = merge(brigades, ids);
+				case StatusChangedEvent.REQUEST -> requests = merge(requests, ids);
+				case ReferenceChangedEvent.ASSIGNMENT -> assignments = merge(assignments, ids);
+				default -> throw new IllegalArgumentException("Неизвестный тип изменения: " + type);
+			}
+		}
+
+		boolean isEmpty() {
+			return brigades != null && brigades.isEmpty() && requests != null && requests.isEmpty()
+					&& assignments != null && assignments.isEmpty();
+		}
+
+		String encode() {
+			return "b:" + encode(brigades) + " r:" + encode(requests) + " a:" + encode(assignments);
+		}
+
+		static Changes decode(String value) {
+			Changes changes = new Changes();
+			for (String part : value.split(" ")) {
+				Set<Integer> ids = decodeIds(part.substring(2));
+				if (part.startsWith("b:")) {
+					changes.brigades = ids;
+				} else if (part.startsWith("r:")) {
+					changes.requests = ids;
+				} else if (part.startsWith("a:")) {
+					changes.assignments = ids;
+				}
+			}
+			return changes;
+		}
+
+		private static Set<Integer> merge(Set<Integer> current, List<Integer> ids) {
+			if (current == null || ids == null) {
+				return null;
+			}
+			current.addAll(ids);
+			return current;
+		}
+
+		private static String encode(Set<Integer> ids) {
+			if (ids == null) {
+				return "*";
+			}
+			String joined = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+			return joined.length() > MAX_IDS_LENGTH ? "*" : joined;
+		}
+
+		private static Set<Integer> decodeIds(String value) {
+			if (value.equals("*")) {
+				return null;
+			}
+			Set<Integer> ids = new HashSet<>();
+			for (String id : value.split(",")) {
+				if (!id.isEmpty()) {
+					ids.add(Integer.valueOf(id));
+				}
+			}
+			return ids;
+		}
+	}
+
+	/// Изменения одной транзакции: перед фиксацией отправляются остальным узлам, после фиксации
+	/// сбрасываются в своем кэше
+	private static final class PendingChanges implements TransactionSynchronization {
+
+		private final ReferenceCacheService owner;
+		private final Changes changes = new Changes();
+
+		PendingChanges(ReferenceCacheService owner) {
+			this.owner = owner;
+		}
+
+		@Override
+		public void beforeCommit(boolean readOnly) {
+			owner.notifyNodes(changes);
+		}
+
+		@Override
+		public void afterCommit() {
+			owner.evict(changes);
+		}
+	}
+}
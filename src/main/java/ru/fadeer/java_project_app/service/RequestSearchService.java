@@ -0,0 +1,118 @@
+package ru.fadeer.java_project_app.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.dto.Request.RequestSearchHit;
+import ru.fadeer.java_project_app.dto.Request.RequestSearchPage;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Класс-сервис поиска заявок по типу аварии, адресу, описанию и заявителю. Заявка находится, если
+/// совпадают слова (полнотекстовый поиск с русской морфологией) или строка поиска похожа на слова
+/// адреса, типа аварии или фамилии заявителя (триграммы pg_trgm), что прощает опечатки. Оба условия
+/// проверяются по GIN-индексам миграции V8. Релевантность - сумма ts_rank и наибольшего сходства
+/// строки с полями. Ранжируются только request-search.max-candidates самых новых найденных заявок,
+/// чтобы время ответа не росло вместе с числом совпадений у частых слов. Отбор упорядочен по времени
+/// подачи и номеру, поэтому страницы одного запроса не повторяют и не пропускают заявки, а страница
+/// сообщает, что совпадений было больше
+@Service
+public class RequestSearchService {
+
+	/// Минимальная длина строки: по более коротким триграммный индекс не работает
+	static final int MIN_QUERY_LENGTH = 3;
+	static final int MAX_QUERY_LENGTH = 200;
+
+	private static final String DOCUMENT =
+			"request_search_document(accident_type, address, description, applicant_name)";
+
+	/// Отбирается на одну заявку больше предела: по ней видно, что совпадений больше, а в выдачу
+	/// она не попадает
+	private static final String SEARCH_SQL =
+			"SELECT request_id, accident_type, priority, address, applicant_name, status, "
+					+ "submission_time, rank, truncated FROM ("
+					+ "SELECT *, "
+					+ "ts_rank(" + DOCUMENT + ", websearch_to_tsquery('russian', :query)) "
+					+ "+ greatest(word_similarity(:query, address), "
+					+ "word_similarity(:query, accident_type), "
+					+ "word_similarity(:query, applicant_name)) AS rank, "
+					+ "count(*) OVER () > :candidates AS truncated, "
+					+ "row_number() OVER (ORDER BY submission_time DESC, request_id DESC) AS n "
+					+ "FROM (SELECT * FROM requests "
+					+ "WHERE " + DOCUMENT + " @@ websearch_to_tsquery('russian', :query) "
+					+ "OR :query <% address OR :query <% accident_type OR :query <% applicant_name "
+					+ "ORDER BY submission_time DESC, request_id DESC "
+					+ "LIMIT :candidates + 1) candidates) ranked "
+					+ "WHERE n <= :candidates "
+					+ "ORDER BY rank DESC, request_id DESC OFFSET :offset LIMIT :limit";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final int maxCandidates;
+
+	public RequestSearchService(
+			@Value("${request-search.max-candidates:1000}") int maxCandidates) {
+		this.maxCandidates = maxCandidates;
+	}
+
+	/// Страница результатов поиска
+	///
+	/// @param query  строка поиска: слова, фразы в кавычках, -исключаемые слова
+	/// @param offset смещение первой заявки страницы, null - первая страница
+	/// @param size   запрошенный размер страницы, ограничивается RequestService.MAX_PAGE_SIZE
+	@Transactional(readOnly = true)
+	public RequestSearchPage search(String query, Integer offset, Integer size) {
+		String text = query == null ? "" : query.strip();
+		if (text.length() < MIN_QUERY_LENGTH) {
+			throw new IllegalArgumentException(
+					"Строка поиска должна содержать не меньше " + MIN_QUERY_LENGTH + " символов.");
+		}
+		if (text.length() > MAX_QUERY_LENGTH) {
+			throw new IllegalArgumentException(
+					"Строка поиска должна быть не длиннее " + MAX_QUERY_LENGTH + " символов.");
+		}
+		int start = offset == null ? 0 : offset;
+		if (start < 0) {
+			throw new IllegalArgumentException("Смещение страницы не может быть отрицательным.");
+		}
+		int pageSize = normalizePageSize(size);
+
+		@SuppressWarnings("unchecked")
+		List<Object[]> rows = entityManager.createNativeQuery(SEARCH_SQL)
+				.setParameter("query", text)
+				.setParameter("candidates", maxCandidates)
+				.setParameter("offset", start)
+				.setParameter("limit", pageSize + 1)
+				.getResultList();
+
+		List<RequestSearchHit> hits = new ArrayList<>(Math.min(rows.size(), pageSize));
+		for (Object[] row : rows.subList(0, Math.min(rows.size(), pageSize))) {
+			hits.add(new RequestSearchHit(((Number) row[0]).intValue(), (String) row[1],
+					Request.Priority.fromValue(((Number) row[2]).intValue()), (String) row[3],
+					(String) row[4], Request.Status.fromCode(((Number) row[5]).shortValue()),
+					toDateTime(row[6]), ((Number) row[7]).doubleValue()));
+		}
+		boolean truncated = !rows.isEmpty() && (Boolean) rows.getFirst()[8];
+		return new RequestSearchPage(text, hits, pageSize, start, rows.size() > pageSize, truncated);
+	}
+
+	/// Приведение запрошенного размера страницы к допустимому диапазону
+	private static int normalizePageSize(Integer size) {
+		if (size == null || size <= 0) {
+			return RequestService.DEFAULT_PAGE_SIZE;
+		}
+		return Math.min(size, RequestService.MAX_PAGE_SIZE);
+	}
+
+	private static LocalDateTime toDateTime(Object value) {
+		return value instanceof Timestamp timestamp
+				? timestamp.toLocalDateTime()
+				: (LocalDateTime) value;
+	}
+}
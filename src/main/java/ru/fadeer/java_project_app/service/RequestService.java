@@ -2,10 +2,22 @@ package ru.fadeer.java_project_app.service;
 
 import jakarta.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
+import org.hibernate.Hibernate;
+import org.hibernate.query.NativeQuery;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.dto.Board.StatusChangedEvent;
+import ru.fadeer.java_project_app.dto.Cache.ReferenceChangedEvent;
+import ru.fadeer.java_project_app.dto.Cache.RequestSnapshot;
+import ru.fadeer.java_project_app.dto.Request.OpenRequestView;
+import ru.fadeer.java_project_app.dto.Request.RequestCursor;
+import ru.fadeer.java_project_app.dto.Request.RequestPage;
 import ru.fadeer.java_project_app.model.Assignment;
 import ru.fadeer.java_project_app.model.Brigade;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,22 +32,66 @@ import ru.fadeer.java_project_app.repository.RequestRepository;
 @Service
 public class RequestService {
 
+	/// Размер страницы списка заявок по умолчанию
+	public static final int DEFAULT_PAGE_SIZE = 20;
+
+	/// Максимальный размер страницы списка заявок
+	public static final int MAX_PAGE_SIZE = 100;
+
+	/// Максимальная длина текстовых полей заявки, как у столбцов таблицы
+	public static final int MAX_TEXT_LENGTH = 255;
+
 	private final RequestRepository requestRepository;
 	private final BrigadeRepository brigadeRepository;
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final OperationMetrics.Operation createMetrics;
+	private final OperationMetrics.Operation deleteMetrics;
+
+	private final ReferenceCacheService referenceCache;
+	private final EntityCacheService entityCache;
 
 	@PersistenceContext
 	private EntityManager entityManager;
 
 	public RequestService(RequestRepository requestRepository,
-			BrigadeRepository brigadeRepository) {
+			BrigadeRepository brigadeRepository,
+			ApplicationEventPublisher eventPublisher,
+			OperationMetrics operationMetrics,
+			ReferenceCacheService referenceCache,
+			EntityCacheService entityCache) {
 		this.requestRepository = requestRepository;
 		this.brigadeRepository = brigadeRepository;
+		this.eventPublisher = eventPublisher;
+		this.createMetrics = operationMetrics.operation("request.create");
+		this.deleteMetrics = operationMetrics.operation("request.delete");
+		this.referenceCache = referenceCache;
+		this.entityCache = entityCache;
 	}
 
 	/// Метод для создания новой заявки и записи ее в БД. Выполняется проверка данных и запись в БД со
 	/// статусом "Не принято"
 	@Transactional
 	public Request create(Request request) {
+		return createMetrics.record(() -> doCreate(request));
+	}
+
+	private Request doCreate(Request request) {
+		validateNew(request, LocalDateTime.now());
+
+		request.setRequestId(null);
+
+		Request saved = requestRepository.save(request);
+		eventPublisher.publishEvent(StatusChangedEvent.of(saved.getRequestId(), null, saved.getStatus()));
+		return saved;
+	}
+
+	/// Проверка новой заявки по правилам ПО. Пустое время подачи заменяется на now. Используется и при
+	/// создании одной заявки, и при массовой загрузке
+	///
+	/// @param request новая заявка
+	/// @param now     текущий момент, позже которого время подачи быть не может
+	static void validateNew(Request request, LocalDateTime now) {
 		if (request.getAccidentType() == null || request.getAccidentType().isBlank()) {
 			throw new IllegalArgumentException("Тип аварии обязателен.");
 		}
@@ -52,31 +108,72 @@ public class RequestService {
 		}
 
 		if (request.getSubmissionTime() == null) {
-			request.setSubmissionTime(LocalDateTime.now());
+			request.setSubmissionTime(now);
 		}
 
-		if (LocalDateTime.now().isBefore(request.getSubmissionTime())) {
+		if (now.isBefore(request.getSubmissionTime())) {
 			throw new IllegalArgumentException("Время назначения не может быть позже текущего момента.");
 		}
 
-		request.setRequestId(null);
+		checkLength(request.getAccidentType(), "Тип аварии");
+		checkLength(request.getAddress(), "Адрес");
+		checkLength(request.getApplicantName(), "Имя заявителя");
+		checkLength(request.getDescription(), "Описание");
+	}
 
-		return requestRepository.save(request);
+	/// Проверка длины текстового поля по столбцу VARCHAR(255). Длина считается в символах, как в БД
+	private static void checkLength(String value, String field) {
+		if (value != null && value.length() > MAX_TEXT_LENGTH
+				&& value.codePointCount(0, value.length()) > MAX_TEXT_LENGTH) {
+			throw new IllegalArgumentException(
+					field + " не может быть длиннее " + MAX_TEXT_LENGTH + " символов.");
+		}
 	}
 
-	/// Метод поиска одной заявки
-	@Transactional(readOnly = true)
+	/// Метод поиска одной заявки через кэш справочных данных. Возвращается отсоединенная копия без
+	/// назначений: для изменения заявки используется findForUpdate
 	public Request findById(Integer id) {
+		RequestSnapshot request = referenceCache.request(id,
+				() -> requestRepository.findById(id).map(RequestSnapshot::of).orElse(null));
+		if (request == null) {
+			throw new IllegalArgumentException("Заявка с id: " + id + "не найдена.");
+		}
+		return request.toRequest();
+	}
+
+	/// Метод поиска одной заявки в БД для изменения в текущей транзакции, мимо кэша
+	Request findForUpdate(Integer id) {
 		return requestRepository.findById(id)
 				.orElseThrow(() -> new IllegalArgumentException("Заявка с id: " + id + "не найдена."));
 	}
 
+	/// Метод поиска одной заявки вместе с назначениями и бригадами для страницы просмотра. Если
+	/// заявка и список ее назначений есть во втором уровне кэша, все читается из кэша, иначе одним
+	/// запросом, который заполняет кэш
+	@Transactional(readOnly = true)
+	public Request findByIdWithAssignments(Integer id) {
+		Request request = (entityCache.containsRequestWithAssignments(id)
+				? requestRepository.findById(id)
+				: requestRepository.findWithAssignmentsByRequestId(id))
+				.orElseThrow(() -> new IllegalArgumentException("Заявка с id: " + id + "не найдена."));
+		request.getAssignments().forEach(assignment -> Hibernate.initialize(assignment.getBrigade()));
+		return request;
+	}
+
 	/// Метод для вывода всех заявок
 	@Transactional(readOnly = true)
 	public List<Request> findAll() {
 		return requestRepository.findAll();
 	}
 
+	/// Метод для вывода незавершенных заявок для формы назначения, по приоритету и времени подачи.
+	/// Читаются только нужные форме поля
+	@Transactional(readOnly = true)
+	public List<OpenRequestView> findOpenRequests() {
+		return requestRepository.findByStatusInOrderByPriorityAscSubmissionTimeAscRequestIdAsc(
+				Status.OPEN);
+	}
+
 	/// Метод для вывода всех заявок с определенным статусом
 	public List<Request> findByStatus(Request.Status status) {
 		if (status == null) {
@@ -85,6 +182,81 @@ public class RequestService {
 		return requestRepository.findByStatus(status);
 	}
 
+	/// Метод постраничного вывода заявок методом "seek" по ключу (время подачи, номер заявки).
+	/// Каждая страница читается одним запросом с ограничением строк, поэтому стоимость не зависит от
+	/// размера таблицы. Запрашивается на одну строку больше размера страницы, чтобы узнать, есть ли
+	/// страница дальше
+	///
+	/// @param status фильтр по статусу, null - все заявки
+	/// @param after  курсор для перехода к более старым заявкам
+	/// @param before курсор для перехода к более новым заявкам
+	/// @param size   запрошенный размер страницы, ограничивается MAX_PAGE_SIZE
+	@Transactional(readOnly = true)
+	public RequestPage findPage(Request.Status status, String after, String before, Integer size) {
+		int pageSize = normalizePageSize(size);
+		Limit limit = Limit.of(pageSize + 1);
+		RequestCursor afterCursor = RequestCursor.parse(after);
+		RequestCursor beforeCursor = RequestCursor.parse(before);
+
+		if (beforeCursor != null) {
+			List<Request> rows = status == null
+					? requestRepository.findPageBefore(beforeCursor.submissionTime(),
+					beforeCursor.requestId(), limit)
+					: requestRepository.findPageBeforeByStatus(status, beforeCursor.submissionTime(),
+							beforeCursor.requestId(), limit);
+
+			// Дошли до начала списка - отдаем полную первую страницу
+			if (rows.size() <= pageSize) {
+				return findPage(status, null, null, pageSize);
+			}
+
+			List<Request> page = new ArrayList<>(rows.subList(0, pageSize));
+			Collections.reverse(page);
+			return toPage(page, pageSize, true, true);
+		}
+
+		List<Request> rows;
+		if (afterCursor == null) {
+			rows = status == null
+					? requestRepository.findFirstPage(limit)
+					: requestRepository.findFirstPageByStatus(status, limit);
+		} else {
+			rows = status == null
+					? requestRepository.findPageAfter(afterCursor.submissionTime(),
+					afterCursor.requestId(), limit)
+					: requestRepository.findPageAfterByStatus(status, afterCursor.submissionTime(),
+							afterCursor.requestId(), limit);
+		}
+
+		boolean hasNext = rows.size() > pageSize;
+		List<Request> page = hasNext ? rows.subList(0, pageSize) : rows;
+		return toPage(page, pageSize, hasNext, afterCursor != null);
+	}
+
+	/// Приведение запрошенного размера страницы к допустимому диапазону
+	private int normalizePageSize(Integer size) {
+		if (size == null || size <= 0) {
+			return DEFAULT_PAGE_SIZE;
+		}
+		return Math.min(size, MAX_PAGE_SIZE);
+	}
+
+	/// Сборка страницы с курсорами по первой и последней строке
+	private RequestPage toPage(List<Request> page, int pageSize, boolean hasNext, boolean hasPrev) {
+		if (page.isEmpty()) {
+			return new RequestPage(page, pageSize, null, null);
+		}
+		Request first = page.getFirst();
+		Request last = page.getLast();
+		String nextCursor = hasNext
+				? new RequestCursor(last.getSubmissionTime(), last.getRequestId()).encode()
+				: null;
+		String prevCursor = hasPrev
+				? new RequestCursor(first.getSubmissionTime(), first.getRequestId()).encode()
+				: null;
+		return new RequestPage(page, pageSize, nextCursor, prevCursor);
+	}
+
 
 	///  Данный метод позволяет устанавливать новые значения если они не нулевые, иначе ничего не
 	/// происходит и значения в исходном параметре остаются такими же
@@ -101,7 +273,7 @@ public class RequestService {
 	/// @param updatedRequest новые данные
 	@Transactional
 	public Request update(Integer id, Request updatedRequest) {
-		Request currentRequest = findById(id);
+		Request currentRequest = findForUpdate(id);
 
 		if (updatedRequest.getRequestId() != null && !updatedRequest.getRequestId().equals(id)) {
 			throw new IllegalArgumentException("Нельзя изменить номер(id) заявки!");
@@ -137,62 +309,101 @@ public class RequestService {
 			case Completed:
 				throw new IllegalArgumentException("Нельзя менять завершенную заявку.");
 		}
+		eventPublisher.publishEvent(ReferenceChangedEvent.request(id));
 		return requestRepository.save(currentRequest);
 	}
 
 	/// Вызывается если с заявки снимаются все назначения
 	@Transactional
 	void setStatusNotAccepted(Integer id) {
-		Request request = findById(id);
+		Request request = findForUpdate(id);
 		request.setStatus(Status.Not_Accepted);
+		eventPublisher.publishEvent(ReferenceChangedEvent.request(id));
 	}
 
 	/// Вызывается если в связанном назначении поля начало и окончание работ null
 	@Transactional
 	void setStatusAccepted(Integer id) {
-		Request request = findById(id);
+		Request request = findForUpdate(id);
 		request.setStatus(Request.Status.Accepted);
+		eventPublisher.publishEvent(ReferenceChangedEvent.request(id));
 	}
 
 	/// Вызывается если в связанном назначении поле начало работ не null, а поле окончание работ null
 	@Transactional
 	void setStatusInProgress(Integer id) {
-		Request request = findById(id);
+		Request request = findForUpdate(id);
 		request.setStatus(Status.In_Progress);
+		eventPublisher.publishEvent(ReferenceChangedEvent.request(id));
 	}
 
 	/// Вызывается если в связанном назначении поле начало работ и окончание работ не null
 	@Transactional
 	void setStatusCompleted(Integer id) {
-		Request request = findById(id);
+		Request request = findForUpdate(id);
 		request.setStatus(Status.Completed);
+		eventPublisher.publishEvent(ReferenceChangedEvent.request(id));
 	}
 
 	/// Метод удаления заявки. Обновление статуса бригад вызывается в других вызовах.
 	@Transactional
 	public void deleteById(Integer id) {
-		// Просто удаляем все через native queries - никаких проблем с контекстом
+		deleteMetrics.run(() -> doDeleteById(id));
+	}
+
+	private void doDeleteById(Integer id) {
+		// Просто удаляем все через native queries - никаких проблем с контекстом. Для каждого
+		// запроса указана затронутая сущность: Hibernate сбросит во втором уровне кэша только ее
+		// записи и связанные списки, а не весь кэш
 
 		// 1. Удаляем назначения
 		entityManager.createNativeQuery(
 						"DELETE FROM assignments WHERE request_id = :id")
+				.unwrap(NativeQuery.class)
+				.addSynchronizedEntityClass(Assignment.class)
 				.setParameter("id", id)
 				.executeUpdate();
+		eventPublisher.publishEvent(ReferenceChangedEvent.all(ReferenceChangedEvent.ASSIGNMENT));
 
 		int deleted = entityManager.createNativeQuery(
 						"DELETE FROM requests WHERE request_id = :id")
+				.unwrap(NativeQuery.class)
+				.addSynchronizedEntityClass(Request.class)
 				.setParameter("id", id)
 				.executeUpdate();
 
 		if (deleted == 0) {
 			throw new IllegalArgumentException("Заявка не найдена");
 		}
+		eventPublisher.publishEvent(StatusChangedEvent.removed(StatusChangedEvent.REQUEST, id));
 
-		entityManager.createNativeQuery(
-						"UPDATE brigades b SET status = 'Свободен' " +
-								"WHERE status != 'Расформирована' AND " +
-								"NOT EXISTS (SELECT 1 FROM assignments a WHERE a.brigade_id = b.brigade_id AND a.end_time IS NULL)")
-				.executeUpdate();
+		// 2. Освобождаем бригады без незавершенных назначений. Прежний статус берется из
+		// подзапроса: RETURNING видит только новые значения строки
+		@SuppressWarnings("unchecked")
+		List<Object[]> released = entityManager.createNativeQuery(
+						"UPDATE brigades b SET status = :free, version = b.version + 1 " +
+								"FROM (SELECT brigade_id, status FROM brigades c " +
+								"WHERE status NOT IN (:free, :disbanded) AND " +
+								"NOT EXISTS (SELECT 1 FROM assignments a WHERE a.brigade_id = c.brigade_id AND a.end_time IS NULL) " +
+								"FOR UPDATE) old " +
+								"WHERE b.brigade_id = old.brigade_id RETURNING b.brigade_id, old.status")
+				.unwrap(NativeQuery.class)
+				.addSynchronizedEntityClass(Brigade.class)
+				.setParameter("free", Brigade.Status.free.getCode())
+				.setParameter("disbanded", Brigade.Status.disbanded.getCode())
+				.getResultList();
+		// Запрос с RETURNING выполняется как выборка, поэтому Hibernate сам второй уровень кэша
+		// не сбрасывает
+		List<Integer> releasedIds = new ArrayList<>(released.size());
+		for (Object[] row : released) {
+			Integer brigadeId = ((Number) row[0]).intValue();
+			releasedIds.add(brigadeId);
+			eventPublisher.publishEvent(StatusChangedEvent.of(brigadeId,
+					Brigade.Status.fromCode(((Number) row[1]).shortValue()), Brigade.Status.free));
+		}
+		if (!releasedIds.isEmpty()) {
+			entityCache.evictBrigades(releasedIds);
+		}
 	}
 
 }
@@ -0,0 +1,31 @@
+-- Исходная схема приложения. Для БД, созданной до появления миграций, эта версия принимается за
+-- базовую и не выполняется (spring.flyway.baseline-on-migrate)
+
+CREATE TABLE IF NOT EXISTS requests (
+    request_id      SERIAL PRIMARY KEY,
+    accident_type   VARCHAR(255) NOT NULL,
+    priority        INTEGER      NOT NULL,
+    address         VARCHAR(255) NOT NULL,
+    applicant_name  VARCHAR(255) NOT NULL,
+    submission_time TIMESTAMP    NOT NULL,
+    description     VARCHAR(255),
+    status          VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS brigades (
+    brigade_id     SERIAL PRIMARY KEY,
+    brigade_code   VARCHAR(255) NOT NULL UNIQUE,
+    vehicle_number VARCHAR(255) NOT NULL,
+    foreman_name   VARCHAR(255) NOT NULL,
+    foreman_phone  VARCHAR(255) NOT NULL,
+    status         VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS assignments (
+    assignment_id   SERIAL PRIMARY KEY,
+    brigade_id      INTEGER   NOT NULL REFERENCES brigades (brigade_id),
+    request_id      INTEGER   NOT NULL REFERENCES requests (request_id),
+    assignment_time TIMESTAMP NOT NULL,
+    start_time      TIMESTAMP,
+    end_time        TIMESTAMP
+);
@@ -0,0 +1,8 @@
+-- Счетчики архивных версий бригад. Для каждого исходного кода бригады и номера машины хранится
+-- номер последней выданной архивной версии (_vN)
+CREATE TABLE IF NOT EXISTS brigade_archive_versions (
+    kind         VARCHAR(32)  NOT NULL,
+    base_value   VARCHAR(255) NOT NULL,
+    last_version INTEGER      NOT NULL,
+    PRIMARY KEY (kind, base_value)
+);
@@ -0,0 +1,28 @@
+-- Индексы под запросы сервисов
+
+-- Назначения заявки: AssignmentRepository.findByRequestRequestId, countPhasesByRequest,
+-- а также удаление назначений в RequestService.deleteById
+CREATE INDEX IF NOT EXISTS idx_assignments_request_id ON assignments (request_id);
+
+-- История выездов бригады: страница просмотра бригады
+CREATE INDEX IF NOT EXISTS idx_assignments_brigade_id ON assignments (brigade_id);
+
+-- Незавершенные назначения: countOpenPhasesByBrigade, подзапрос NOT EXISTS в
+-- RequestService.deleteById, findOpenRefsByRequest. Завершенные назначения в индекс не попадают,
+-- поэтому его размер зависит только от текущей нагрузки
+CREATE INDEX IF NOT EXISTS idx_assignments_open_brigade_id ON assignments (brigade_id)
+    WHERE end_time IS NULL;
+CREATE INDEX IF NOT EXISTS idx_assignments_open_request_id ON assignments (request_id)
+    WHERE end_time IS NULL;
+
+-- Очередь незавершенных заявок: форма назначения и автораспределение
+CREATE INDEX IF NOT EXISTS idx_requests_status_priority_submission_time
+    ON requests (status, priority, submission_time);
+
+-- Постраничный список заявок и фильтр по статусу
+CREATE INDEX IF NOT EXISTS idx_requests_submission_time_id ON requests (submission_time, request_id);
+CREATE INDEX IF NOT EXISTS idx_requests_status_submission_time_id
+    ON requests (status, submission_time, request_id);
+
+-- Свободные бригады для формы назначения
+CREATE INDEX IF NOT EXISTS idx_brigades_status_code ON brigades (status, brigade_code);
@@ -0,0 +1,25 @@
+-- Статусы заявок и бригад хранятся числовыми кодами вместо русского текста. Коды совпадают с
+-- Request.Status.getCode() и Brigade.Status.getCode(). Индексы по status перестраиваются
+-- автоматически. Неизвестное значение превращается в NULL и останавливает миграцию на NOT NULL
+
+ALTER TABLE requests
+    ALTER COLUMN status TYPE SMALLINT USING CASE status
+        WHEN 'Не принято' THEN 0
+        WHEN 'Принято' THEN 1
+        WHEN 'В работе' THEN 2
+        WHEN 'Завершено' THEN 3
+    END;
+
+ALTER TABLE requests
+    ADD CONSTRAINT chk_requests_status CHECK (status BETWEEN 0 AND 3);
+
+ALTER TABLE brigades
+    ALTER COLUMN status TYPE SMALLINT USING CASE status
+        WHEN 'На месте' THEN 0
+        WHEN 'В пути' THEN 1
+        WHEN 'Свободен' THEN 2
+        WHEN 'Расформирована' THEN 3
+    END;
+
+ALTER TABLE brigades
+    ADD CONSTRAINT chk_brigades_status CHECK (status BETWEEN 0 AND 3);
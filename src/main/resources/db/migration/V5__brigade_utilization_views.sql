@@ -0,0 +1,56 @@
+-- Аналитика загрузки бригад. Смена - восьмичасовой промежуток, начинающийся в 00:00, 08:00 или
+-- 16:00. Учитываются только завершенные назначения
+
+-- Факты по каждому завершенному назначению: время в пути (назначение -> начало работ), время на
+-- месте (начало -> окончание) и простой бригады перед назначением. Простой - время от окончания
+-- предыдущего назначения той же бригады, если оно закончилось в той же смене
+CREATE MATERIALIZED VIEW IF NOT EXISTS brigade_assignment_facts AS
+WITH ordered AS (
+    SELECT a.assignment_id,
+           a.brigade_id,
+           a.assignment_time,
+           a.start_time,
+           a.end_time,
+           LAG(a.end_time) OVER (PARTITION BY a.brigade_id
+                                 ORDER BY a.assignment_time, a.assignment_id) AS previous_end,
+           date_trunc('day', a.assignment_time)
+               + make_interval(hours => (EXTRACT(HOUR FROM a.assignment_time)::int / 8) * 8)
+               AS shift_start
+    FROM assignments a
+    WHERE a.end_time IS NOT NULL
+)
+SELECT assignment_id,
+       brigade_id,
+       shift_start,
+       EXTRACT(EPOCH FROM start_time - assignment_time)::bigint AS road_seconds,
+       EXTRACT(EPOCH FROM end_time - start_time)::bigint        AS site_seconds,
+       CASE
+           WHEN previous_end >= shift_start AND previous_end <= assignment_time
+               THEN EXTRACT(EPOCH FROM assignment_time - previous_end)::bigint
+           ELSE 0
+       END                                                      AS idle_seconds
+FROM ordered;
+
+-- Уникальный индекс нужен для REFRESH MATERIALIZED VIEW CONCURRENTLY
+CREATE UNIQUE INDEX IF NOT EXISTS ux_brigade_assignment_facts
+    ON brigade_assignment_facts (assignment_id);
+
+-- Свертка по бригаде и смене. Запросы аналитики читают только ее: строк не больше трех на бригаду
+-- в сутки, сколько бы назначений ни было
+CREATE MATERIALIZED VIEW IF NOT EXISTS brigade_shift_utilization AS
+SELECT brigade_id,
+       shift_start,
+       count(*)          AS assignments,
+       sum(road_seconds) AS road_seconds,
+       sum(site_seconds) AS site_seconds,
+       sum(idle_seconds) AS idle_seconds
+FROM brigade_assignment_facts
+GROUP BY brigade_id, shift_start;
+
+-- Смены одной бригады за промежуток, а также ключ для CONCURRENTLY
+CREATE UNIQUE INDEX IF NOT EXISTS ux_brigade_shift_utilization
+    ON brigade_shift_utilization (brigade_id, shift_start);
+
+-- Все бригады за промежуток
+CREATE INDEX IF NOT EXISTS idx_brigade_shift_utilization_shift_start
+    ON brigade_shift_utilization (shift_start);
@@ -0,0 +1,9 @@
+-- Версии строк для оптимистической блокировки (@Version). Каждое изменение строки через Hibernate
+-- увеличивает version и проверяет, что строку не изменили с момента чтения. Массовые UPDATE-запросы
+-- увеличивают version сами. Существующие строки и строки, загруженные через COPY, получают 0
+
+ALTER TABLE brigades ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE requests ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE assignments ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
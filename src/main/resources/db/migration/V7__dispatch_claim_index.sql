@@ -0,0 +1,4 @@
+-- Захват свободных бригад автоматическим распределением: BrigadeRepository.claimByStatus выбирает
+-- бригады по статусу в порядке номеров. С индексом обработчик читает только первые подходящие
+-- строки, а не сортирует весь пул в каждом раунде
+CREATE INDEX IF NOT EXISTS idx_brigades_status_id ON brigades (status, brigade_id);
@@ -0,0 +1,32 @@
+-- Поиск заявок (RequestSearchService): полнотекстовый по типу аварии, адресу, описанию и заявителю
+-- и нечеткий по триграммам, который находит адрес, тип аварии или фамилию с опечаткой
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Документ заявки для полнотекстового поиска. Индекс строится по вызову функции, запрос повторяет
+-- тот же вызов, поэтому отдельная колонка и перезапись таблицы не нужны. Тип аварии и адрес весят
+-- больше описания, заявитель - меньше всего. Фамилии разбираются без морфологии (simple)
+CREATE OR REPLACE FUNCTION request_search_document(accident_type TEXT, address TEXT,
+                                                   description TEXT, applicant_name TEXT)
+    RETURNS tsvector
+    LANGUAGE sql
+    IMMUTABLE
+    PARALLEL SAFE
+AS
+$$
+SELECT setweight(to_tsvector('russian', coalesce(accident_type, '')), 'A')
+           || setweight(to_tsvector('russian', coalesce(address, '')), 'A')
+           || setweight(to_tsvector('russian', coalesce(description, '')), 'B')
+           || setweight(to_tsvector('simple', coalesce(applicant_name, '')), 'C')
+$$;
+
+CREATE INDEX IF NOT EXISTS idx_requests_search_document ON requests
+    USING gin (request_search_document(accident_type, address, description, applicant_name));
+
+-- Триграммы для оператора <% (word_similarity): строка поиска сравнивается со словами поля, поэтому
+-- "Ленинскй" находит "ул. Ленинская, 5". Описание ищется только по словам: триграммный индекс по
+-- длинному тексту большой, а опечатки важны в первую очередь в названиях улиц
+CREATE INDEX IF NOT EXISTS idx_requests_address_trgm ON requests USING gin (address gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_requests_accident_type_trgm ON requests
+    USING gin (accident_type gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_requests_applicant_name_trgm ON requests
+    USING gin (applicant_name gin_trgm_ops);
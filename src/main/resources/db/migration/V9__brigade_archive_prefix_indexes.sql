@@ -0,0 +1,9 @@
+-- Поиск архивных версий по префиксу: BrigadeService заполняет счетчик brigade_archive_versions
+-- максимальной версией среди значений вида "<значение>_v<N>" (условие LIKE 'значение\_v%').
+-- Обычный индекс по тексту с правилами сортировки базы не подходит для LIKE, класс операторов
+-- text_pattern_ops сравнивает строки побайтно, и префикс находится по индексу, а не перебором
+-- всех бригад
+CREATE INDEX IF NOT EXISTS idx_brigades_brigade_code_pattern
+    ON brigades (brigade_code text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_brigades_vehicle_number_pattern
+    ON brigades (vehicle_number text_pattern_ops);
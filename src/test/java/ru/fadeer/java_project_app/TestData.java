@@ -0,0 +1,37 @@
+package ru.fadeer.java_project_app;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import ru.fadeer.java_project_app.model.Brigade;
+
+/// Общие данные и средства тестов и бенчмарков. Статистика Hibernate включена в
+/// application.properties, поэтому тестам не нужно включать ее своими свойствами
+public final class TestData {
+
+	public static final String FOREMAN_NAME = "Петров";
+	public static final String FOREMAN_PHONE = "+70000000000";
+
+	private TestData() {
+	}
+
+	/// Новая свободная бригада с кодом code и номером машины code-car
+	public static Brigade brigade(String code) {
+		return brigade(code, code + "-car");
+	}
+
+	/// Новая свободная бригада с кодом code и номером машины vehicleNumber
+	public static Brigade brigade(String code, String vehicleNumber) {
+		Brigade brigade = new Brigade();
+		brigade.setBrigadeCode(code);
+		brigade.setVehicleNumber(vehicleNumber);
+		brigade.setForemanName(FOREMAN_NAME);
+		brigade.setForemanPhone(FOREMAN_PHONE);
+		return brigade;
+	}
+
+	/// Статистика Hibernate для подсчета запросов
+	public static Statistics statistics(EntityManagerFactory entityManagerFactory) {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+}
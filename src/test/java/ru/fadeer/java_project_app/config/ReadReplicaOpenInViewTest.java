@@ -0,0 +1,114 @@
+package ru.fadeer.java_project_app.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.fadeer.java_project_app.service.ReferenceCacheService;
+
+/// Маршрутизация внутри одного HTTP-запроса при включенном open-in-view: чтение из реплики в начале
+/// запроса не должно закреплять соединение реплики за следующей загрузкой в кэш. Реплика - та же
+/// БД, соединения пула реплики открываются с application_name = replica
+@SpringBootTest(properties = {
+		"replica.datasource.url=${spring.datasource.url}?ApplicationName=replica",
+		"replica.lag-check-ms=60000",
+		"spring.jpa.open-in-view=true"})
+@AutoConfigureMockMvc
+class ReadReplicaOpenInViewTest {
+
+	private static final String REPLICA = "replica";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ReplicaLagMonitor lagMonitor;
+
+	@Autowired
+	private ReferenceCacheService referenceCache;
+
+	@Test
+	void cacheLoadAfterReplicaReadUsesPrimary() throws Exception {
+		lagMonitor.check();
+		assertTrue(lagMonitor.isAcceptable());
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!referenceCache.isListening() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		assertTrue(referenceCache.isListening());
+
+		String[] names = mockMvc.perform(get("/test/routing"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString().split(",");
+
+		assertEquals(REPLICA, names[0]);
+		assertNotEquals(REPLICA, names[1]);
+	}
+
+	@TestConfiguration(proxyBeanMethods = false)
+	static class RoutingProbeConfig {
+
+		@Bean
+		RoutingProbeController routingProbeController(PlatformTransactionManager transactionManager,
+				ReferenceCacheService referenceCache) {
+			return new RoutingProbeController(transactionManager, referenceCache);
+		}
+	}
+
+	/// Обработчик читает application_name сначала в транзакции только для чтения, затем в
+	/// загрузчике кэша заявок. Номер заявки отрицательный и каждый раз новый, чтобы загрузчик
+	/// вызывался и не задевал настоящие записи кэша
+	@RestController
+	static class RoutingProbeController {
+
+		private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+		@PersistenceContext
+		private EntityManager entityManager;
+
+		private final TransactionTemplate readOnly;
+
+		private final ReferenceCacheService referenceCache;
+
+		RoutingProbeController(PlatformTransactionManager transactionManager,
+				ReferenceCacheService referenceCache) {
+			this.readOnly = new TransactionTemplate(transactionManager);
+			this.readOnly.setReadOnly(true);
+			this.referenceCache = referenceCache;
+		}
+
+		@GetMapping("/test/routing")
+		String routing() {
+			String read = applicationName();
+			AtomicReference<String> load = new AtomicReference<>();
+			referenceCache.request(-NEXT_ID.incrementAndGet(), () -> {
+				load.set(applicationName());
+				return null;
+			});
+			return read + "," + load.get();
+		}
+
+		private String applicationName() {
+			return readOnly.execute(status -> (String) entityManager
+					.createNativeQuery("SELECT current_setting('application_name')")
+					.getSingleResult());
+		}
+	}
+}
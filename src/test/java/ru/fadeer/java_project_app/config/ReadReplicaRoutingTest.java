@@ -0,0 +1,100 @@
+package ru.fadeer.java_project_app.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.servlet.http.Cookie;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/// Проверка маршрутизации чтений с заменой реплики: реплика - та же БД, но соединения пула реплики
+/// открываются с application_name = replica, по которому видно, куда ушел запрос
+@SpringBootTest(properties = {
+		"replica.datasource.url=${spring.datasource.url}?ApplicationName=replica",
+		"replica.lag-check-ms=60000"})
+class ReadReplicaRoutingTest {
+
+	private static final String REPLICA = "replica";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private ReplicaLagMonitor lagMonitor;
+
+	@Autowired
+	private FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter;
+
+	@BeforeEach
+	void measureLag() {
+		lagMonitor.check();
+		assertTrue(lagMonitor.isAcceptable());
+	}
+
+	@Test
+	void readOnlyTransactionUsesReplica() {
+		assertEquals(REPLICA, applicationName(true));
+	}
+
+	@Test
+	void writeTransactionUsesPrimary() {
+		assertNotEquals(REPLICA, applicationName(false));
+	}
+
+	@Test
+	void pinnedReadUsesPrimary() {
+		assertNotEquals(REPLICA, ReadRouting.onPrimary(() -> applicationName(true)));
+	}
+
+	@Test
+	void writeRequestPinsFollowingReads() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		assertTrue(pinned(new MockHttpServletRequest("POST", "/assignments"), response));
+		Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE);
+		assertNotNull(cookie);
+
+		MockHttpServletRequest redirect = new MockHttpServletRequest("GET", "/assignments/1");
+		redirect.setCookies(cookie);
+		assertTrue(pinned(redirect, new MockHttpServletResponse()));
+
+		assertFalse(pinned(new MockHttpServletRequest("GET", "/assignments/1"),
+				new MockHttpServletResponse()));
+		MockHttpServletRequest forged = new MockHttpServletRequest("GET", "/assignments/1");
+		forged.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, String.valueOf(Long.MAX_VALUE)));
+		assertFalse(pinned(forged, new MockHttpServletResponse()));
+	}
+
+	/// Признак чтения из основной БД внутри цепочки фильтра
+	private boolean pinned(MockHttpServletRequest request, MockHttpServletResponse response)
+			throws Exception {
+		AtomicBoolean pinned = new AtomicBoolean();
+		readYourWritesFilter.getFilter().doFilter(request, response,
+				(req, res) -> pinned.set(ReadRouting.isPrimaryRequired()));
+		assertFalse(ReadRouting.isPrimaryRequired());
+		return pinned.get();
+	}
+
+	private String applicationName(boolean readOnly) {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(readOnly);
+		return template.execute(status -> (String) entityManager
+				.createNativeQuery("SELECT current_setting('application_name')")
+				.getSingleResult());
+	}
+}
@@ -0,0 +1,245 @@
+package ru.fadeer.java_project_app.loadtest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Генератор синтетического города для нагрузочных тестов. Таблицы очищаются и заполняются командами
+/// COPY в одной транзакции. Данные воспроизводимы: все случайные значения строки выводятся из seed и
+/// номера строки, от запуска к запуску меняется только точка отсчета - час генерации.
+///
+/// Действующие бригады получают номера 1..brigades и свободны. У каждой десятой есть цепочка из 1-5
+/// архивных версий с суффиксами _vN и счетчиками в brigade_archive_versions. Заявки, кроме последних
+/// openRequests, завершены и распределены по days дням, у каждой 1-3 завершенных назначения.
+/// Последние openRequests заявок поданы за последний час и не приняты
+final class CityDataset {
+
+	private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+	private static final String[] ACCIDENT_TYPES = {"Прорыв трубы", "Обрыв линии", "Утечка газа",
+			"Засор канализации", "Отключение отопления", "Подтопление подвала", "Падение дерева",
+			"Повреждение кабеля"};
+	private static final String[] STREETS = {"ул. Ленина", "ул. Гагарина", "пр. Мира",
+			"ул. Советская", "ул. Садовая", "ул. Лесная", "ул. Заречная", "пер. Школьный",
+			"ул. Молодежная", "ул. Набережная"};
+	private static final String[] SURNAMES = {"Иванов", "Петров", "Сидоров", "Смирнова", "Кузнецов",
+			"Попова", "Васильев", "Соколова", "Михайлов", "Новикова"};
+
+	/// Параметры города
+	///
+	/// @param brigades     количество действующих бригад
+	/// @param requests     количество заявок
+	/// @param openRequests количество непринятых заявок в конце
+	/// @param days         за сколько дней распределены завершенные заявки
+	/// @param seed         начальное значение генератора
+	record Config(int brigades, int requests, int openRequests, int days, long seed) {
+	}
+
+	/// Итог генерации
+	///
+	/// @param brigades      количество строк бригад вместе с архивными
+	/// @param requests      количество заявок
+	/// @param assignments   количество назначений
+	/// @param firstOpenId   номер первой непринятой заявки
+	/// @param millis        длительность генерации
+	record Summary(int brigades, int requests, long assignments, int firstOpenId, long millis) {
+	}
+
+	private final Config config;
+	private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+
+	CityDataset(Config config) {
+		this.config = config;
+	}
+
+	/// Очистка таблиц и запись города через соединение connection
+	Summary generate(Connection connection) throws SQLException, IOException {
+		long started = System.currentTimeMillis();
+		PGConnection pg = connection.unwrap(PGConnection.class);
+		boolean autoCommit = connection.getAutoCommit();
+		connection.setAutoCommit(false);
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("TRUNCATE assignments, requests, brigades, brigade_archive_versions "
+					+ "RESTART IDENTITY");
+
+			int brigadeRows = writeBrigades(pg);
+			writeRequests(pg);
+			long assignments = writeAssignments(pg);
+
+			statement.execute("SELECT setval(pg_get_serial_sequence('brigades', 'brigade_id'), "
+					+ brigadeRows + ")");
+			statement.execute("SELECT setval(pg_get_serial_sequence('requests', 'request_id'), "
+					+ config.requests() + ")");
+			statement.execute("SELECT setval(pg_get_serial_sequence('assignments', 'assignment_id'), "
+					+ assignments + ")");
+			connection.commit();
+
+			// Статистика планировщика нужна сразу, до автоматического ANALYZE
+			connection.setAutoCommit(true);
+			statement.execute("ANALYZE brigades");
+			statement.execute("ANALYZE requests");
+			statement.execute("ANALYZE assignments");
+			return new Summary(brigadeRows, config.requests(), assignments, firstOpenId(),
+					System.currentTimeMillis() - started);
+		} catch (SQLException | IOException | RuntimeException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommit);
+		}
+	}
+
+	/// Номер первой непринятой заявки
+	int firstOpenId() {
+		return config.requests() - config.openRequests() + 1;
+	}
+
+	private int writeBrigades(PGConnection pg) throws SQLException, IOException {
+		int id = 0;
+		StringBuilder versions = new StringBuilder();
+		try (Writer out = copy(pg, "COPY brigades (brigade_id, brigade_code, vehicle_number, "
+				+ "foreman_name, foreman_phone, status) FROM STDIN WITH (FORMAT csv)")) {
+			for (int i = 1; i <= config.brigades(); i++) {
+				row(out, ++id, code(i), vehicle(i), SURNAMES[i % SURNAMES.length], phone(i),
+						Brigade.Status.free.getCode());
+			}
+			for (int i = 10; i <= config.brigades(); i += 10) {
+				int chain = 1 + random(i, 0).nextInt(5);
+				for (int v = 1; v <= chain; v++) {
+					row(out, ++id, code(i) + "_v" + v, vehicle(i) + "_v" + v,
+							SURNAMES[(i + v) % SURNAMES.length], phone(i),
+							Brigade.Status.disbanded.getCode());
+				}
+				versions.append("BRIGADE_CODE,").append(code(i)).append(',').append(chain).append('\n');
+				versions.append("VEHICLE_NUMBER,").append(vehicle(i)).append(',').append(chain)
+						.append('\n');
+			}
+		}
+		try (Writer out = copy(pg, "COPY brigade_archive_versions (kind, base_value, last_version) "
+				+ "FROM STDIN WITH (FORMAT csv)")) {
+			out.write(versions.toString());
+		}
+		return id;
+	}
+
+	private void writeRequests(PGConnection pg) throws SQLException, IOException {
+		int firstOpen = firstOpenId();
+		try (Writer out = copy(pg, "COPY requests (request_id, accident_type, priority, address, "
+				+ "applicant_name, submission_time, description, status) "
+				+ "FROM STDIN WITH (FORMAT csv)")) {
+			for (int id = 1; id <= config.requests(); id++) {
+				SplittableRandom random = random(id, 1);
+				Request.Priority priority = priority(random);
+				String description = random.nextInt(3) == 0 ? "" : "Сообщение жителя №" + id;
+				Request.Status status = id >= firstOpen ? Request.Status.Not_Accepted
+						: Request.Status.Completed;
+				row(out, id, ACCIDENT_TYPES[random.nextInt(ACCIDENT_TYPES.length)],
+						priority.getToDisplayInt(), address(random), SURNAMES[random.nextInt(
+								SURNAMES.length)], TIME.format(submissionTime(id)), description,
+						status.getCode());
+			}
+		}
+	}
+
+	private long writeAssignments(PGConnection pg) throws SQLException, IOException {
+		long id = 0;
+		try (Writer out = copy(pg, "COPY assignments (assignment_id, brigade_id, request_id, "
+				+ "assignment_time, start_time, end_time) FROM STDIN WITH (FORMAT csv)")) {
+			for (int requestId = 1; requestId < firstOpenId(); requestId++) {
+				SplittableRandom random = random(requestId, 2);
+				int roll = random.nextInt(100);
+				int brigades = roll < 85 ? 1 : roll < 97 ? 2 : 3;
+				LocalDateTime submitted = submissionTime(requestId);
+				LocalDateTime end = null;
+				for (int b = 0; b < brigades; b++) {
+					LocalDateTime assigned = submitted.plusMinutes(2 + random.nextInt(28) + b * 10L);
+					LocalDateTime start = assigned.plusMinutes(10 + random.nextInt(50));
+					if (end == null) {
+						end = start.plusMinutes(30 + random.nextInt(210));
+					}
+					// Завершение заявки закрывает все ее назначения одним временем окончания
+					LocalDateTime finish = end.isAfter(start) ? end : start;
+					row(out, ++id, 1 + random.nextInt(config.brigades()), requestId,
+							TIME.format(assigned), TIME.format(start), TIME.format(finish));
+				}
+			}
+		}
+		return id;
+	}
+
+	/// Время подачи: завершенные равномерно за days дней до последних суток, непринятые - за
+	/// последний час
+	private LocalDateTime submissionTime(int id) {
+		SplittableRandom random = random(id, 3);
+		if (id >= firstOpenId()) {
+			return now.minusMinutes(1 + random.nextInt(59));
+		}
+		long span = config.days() * 86_400L;
+		long offset = span * id / firstOpenId() + random.nextInt(600);
+		return now.minusDays(config.days() + 1L).plusSeconds(offset);
+	}
+
+	/// Приоритеты: высокий - 15%, средний - 50%, низкий - 35%
+	private static Request.Priority priority(SplittableRandom random) {
+		int roll = random.nextInt(100);
+		return roll < 15 ? Request.Priority.High
+				: roll < 65 ? Request.Priority.Medium : Request.Priority.Low;
+	}
+
+	private static String address(SplittableRandom random) {
+		return STREETS[random.nextInt(STREETS.length)] + ", " + (1 + random.nextInt(150));
+	}
+
+	static String code(int brigade) {
+		return String.format("BR-%05d", brigade);
+	}
+
+	private static String vehicle(int brigade) {
+		return String.format("V%05d", brigade);
+	}
+
+	private static String phone(int brigade) {
+		return String.format("+7900%07d", brigade);
+	}
+
+	/// Генератор строки id потока stream: одинаковые значения при каждом запуске
+	private SplittableRandom random(long id, int stream) {
+		return new SplittableRandom(config.seed() * 1_000_003L + id * 7 + stream);
+	}
+
+	private static Writer copy(PGConnection pg, String sql) throws SQLException {
+		return new BufferedWriter(new OutputStreamWriter(new PGCopyOutputStream(pg, sql, 1 << 16),
+				StandardCharsets.UTF_8), 1 << 16);
+	}
+
+	/// Запись строки CSV. Пустая строка без кавычек записывается как NULL
+	private static void row(Writer out, Object... values) throws IOException {
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				out.write(',');
+			}
+			String value = String.valueOf(values[i]);
+			if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0) {
+				out.write('"');
+				out.write(value.replace("\"", "\"\""));
+				out.write('"');
+			} else {
+				out.write(value);
+			}
+		}
+		out.write('\n');
+	}
+}
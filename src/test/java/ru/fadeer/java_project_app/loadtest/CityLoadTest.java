@@ -0,0 +1,321 @@
+package ru.fadeer.java_project_app.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.sql.DataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import ru.fadeer.java_project_app.service.LiveCountersService;
+import tools.jackson.databind.json.JsonMapper;
+
+/// Нагрузочный тест на синтетическом городе: генерация данных в отдельную БД и сценарии через
+/// настоящие контроллеры по HTTP. Каждый сценарий - прогрев, затем замер с loadtest.users
+/// виртуальными пользователями. Итоги - пропускная способность, перцентили задержки по операциям и
+/// количество SQL-запросов - выводятся в консоль и пишутся в target/loadtest. Запуск:
+/// mvn -Ploadtest test, параметры - в BENCHMARKS.md
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=${loadtest.datasource.url:jdbc:postgresql://localhost:5432/JavaProjectLoad}",
+		"spring.datasource.hikari.maximum-pool-size=${loadtest.pool-size:20}",
+		"spring.jpa.show-sql=false",
+		"dispatch.auto.scheduled=false"})
+class CityLoadTest {
+
+	@Autowired
+	private Environment environment;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private LiveCountersService liveCountersService;
+
+	@Autowired
+	private JsonMapper jsonMapper;
+
+	@Value("${loadtest.brigades:5000}")
+	private int brigades;
+
+	@Value("${loadtest.requests:2000000}")
+	private int requests;
+
+	@Value("${loadtest.open-requests:1000}")
+	private int openRequests;
+
+	@Value("${loadtest.days:365}")
+	private int days;
+
+	@Value("${loadtest.seed:42}")
+	private long seed;
+
+	@Value("${loadtest.reuse:false}")
+	private boolean reuse;
+
+	@Value("${loadtest.users:32}")
+	private int users;
+
+	@Value("${loadtest.warmup-seconds:10}")
+	private int warmupSeconds;
+
+	@Value("${loadtest.duration-seconds:60}")
+	private int durationSeconds;
+
+	/// Названия улиц города с опечатками для сценария поиска
+	private static final String[] SEARCH_TYPOS = {"Гагорина", "Заречая", "Набережня", "Молодежня",
+			"Школный"};
+
+	private final ConcurrentLinkedQueue<Integer> freeBrigades = new ConcurrentLinkedQueue<>();
+	private HttpClient client;
+	private String baseUrl;
+	private int firstOpenId;
+
+	@Test
+	void cityWorkload() throws Exception {
+		prepareCity();
+		client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.executor(Executors.newVirtualThreadPerTaskExecutor())
+				.build();
+		baseUrl = "http://localhost:" + environment.getRequiredProperty("local.server.port");
+
+		List<ScenarioReport> reports = List.of(
+				run("list-pages", this::listPages),
+				run("dispatch-lifecycle", this::lifecycle),
+				run("edits", this::edit),
+				run("search", this::search),
+				run("mixed", this::mixed));
+
+		Path dir = Path.of("target", "loadtest");
+		Files.createDirectories(dir);
+		Path file = dir.resolve("report-"
+				+ DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").format(LocalDateTime.now()) + ".json");
+		Files.writeString(file, jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsString(reports));
+		reports.forEach(report -> System.out.print(report.format()));
+		System.out.println("\nОтчет: " + file.toAbsolutePath());
+
+		for (ScenarioReport report : reports) {
+			long errors = report.byOperation().stream().mapToLong(ScenarioReport.Operation::errors).sum();
+			assertTrue(report.operations() > 0, () -> report.scenario() + ": нет успешных операций");
+			assertTrue(errors <= report.operations() / 100,
+					() -> report.scenario() + ": ошибок больше 1% - " + errors);
+		}
+	}
+
+	/// Генерация города, если не задано переиспользование уже созданного
+	private void prepareCity() throws Exception {
+		CityDataset dataset = new CityDataset(
+				new CityDataset.Config(brigades, requests, openRequests, days, seed));
+		firstOpenId = dataset.firstOpenId();
+		if (!reuse) {
+			try (Connection connection = dataSource.getConnection()) {
+				CityDataset.Summary summary = dataset.generate(connection);
+				System.out.printf("Город: %d бригад, %d заявок, %d назначений за %d мс%n",
+						summary.brigades(), summary.requests(), summary.assignments(), summary.millis());
+			}
+			liveCountersService.reconcile();
+		}
+		for (int i = 1; i <= brigades; i++) {
+			freeBrigades.add(i);
+		}
+	}
+
+	/// Просмотр списков: страницы интерфейса и JSON API
+	private void listPages(LoadRecorder recorder, SplittableRandom random) {
+		switch (random.nextInt(7)) {
+			case 0 -> send(recorder, "GET /", get("/"));
+			case 1 -> send(recorder, "GET /requests", get("/requests"));
+			case 2 -> send(recorder, "GET /brigades", get("/brigades"));
+			case 3 -> send(recorder, "GET /board", get("/board"));
+			case 4 -> send(recorder, "GET api requests", get("/api/v1/requests?size=50"));
+			case 5 -> send(recorder, "GET api completed",
+					get("/api/v1/requests?status=Completed&size=50"));
+			default -> send(recorder, "GET api free brigades",
+					get("/api/v1/brigades?status=free&size=50"));
+		}
+	}
+
+	/// Полный цикл заявки: создание, назначение свободной бригады, начало и окончание работ.
+	/// Бригада берется из общей очереди, поэтому пользователи не назначают одну бригаду дважды
+	private void lifecycle(LoadRecorder recorder, SplittableRandom random)
+			throws InterruptedException {
+		Integer brigade = freeBrigades.poll();
+		if (brigade == null) {
+			Thread.sleep(10);
+			return;
+		}
+		boolean released = false;
+		try {
+			HttpResponse<String> created = send(recorder, "request.create",
+					post("/api/v1/requests", Map.of(
+							"accidentType", "Прорыв трубы",
+							"priority", random.nextInt(3) == 0 ? "High" : "Medium",
+							"address", "ул. Нагрузочная, " + (1 + random.nextInt(100)),
+							"applicantName", "Тестов")));
+			if (created == null) {
+				released = true;
+				return;
+			}
+			int requestId = jsonMapper.readTree(created.body()).get("requestId").asInt();
+
+			HttpResponse<String> assigned = send(recorder, "assignment.assign",
+					post("/api/v1/assignments", Map.of("requestId", requestId, "brigadeId", brigade)));
+			if (assigned == null) {
+				released = true;
+				return;
+			}
+			int assignmentId = jsonMapper.readTree(assigned.body()).get("assignmentId").asInt();
+			if (send(recorder, "assignment.start",
+					post("/api/v1/assignments/" + assignmentId + "/start", null)) != null) {
+				released = send(recorder, "assignment.complete",
+						post("/api/v1/assignments/" + assignmentId + "/complete", null)) != null;
+			}
+		} finally {
+			// Бригада, застрявшая в работе после ошибки, в очередь не возвращается
+			if (released) {
+				freeBrigades.add(brigade);
+			}
+		}
+	}
+
+	/// Просмотр и изменение непринятых заявок
+	private void edit(LoadRecorder recorder, SplittableRandom random) {
+		int id = firstOpenId + random.nextInt(openRequests);
+		send(recorder, "request.get", get("/api/v1/requests/" + id));
+		send(recorder, "request.update", HttpRequest.newBuilder(uri("/api/v1/requests/" + id))
+				.header("Content-Type", "application/json")
+				.PUT(HttpRequest.BodyPublishers.ofString(jsonMapper.writeValueAsString(Map.of(
+						"accidentType", "Обрыв линии",
+						"address", "ул. Правочная, " + (1 + random.nextInt(100)),
+						"applicantName", "Правкин",
+						"description", "Уточнение №" + random.nextInt(1000)))))
+				.build());
+	}
+
+	/// Поиск заявок: улица с опечаткой, улица с номером дома, тип аварии, фамилия заявителя
+	private void search(LoadRecorder recorder, SplittableRandom random) {
+		String query = switch (random.nextInt(4)) {
+			case 0 -> SEARCH_TYPOS[random.nextInt(SEARCH_TYPOS.length)];
+			case 1 -> "Садовая " + (1 + random.nextInt(150));
+			case 2 -> "утечка газа";
+			default -> "Соколова";
+		};
+		send(recorder, "GET api search", get("/api/v1/requests/search?size=20&q="
+				+ URLEncoder.encode(query, StandardCharsets.UTF_8)));
+	}
+
+	/// Смешанная нагрузка: 70% просмотр, 20% цикл заявки, 10% правки
+	private void mixed(LoadRecorder recorder, SplittableRandom random) throws InterruptedException {
+		int roll = random.nextInt(10);
+		if (roll < 7) {
+			listPages(recorder, random);
+		} else if (roll < 9) {
+			lifecycle(recorder, random);
+		} else {
+			edit(recorder, random);
+		}
+	}
+
+	/// Прогрев и замер сценария
+	private ScenarioReport run(String scenario, Workload workload) throws InterruptedException {
+		drive(workload, warmupSeconds, new ArrayList<>());
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		List<LoadRecorder> recorders = new ArrayList<>();
+		long started = System.nanoTime();
+		drive(workload, durationSeconds, recorders);
+		double seconds = (System.nanoTime() - started) / 1e9;
+		return LoadRecorder.summarize(scenario, recorders, seconds,
+				statistics.getPrepareStatementCount());
+	}
+
+	/// Выполнение workload пользователями в течение seconds секунд
+	private void drive(Workload workload, int seconds, List<LoadRecorder> recorders)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int u = 0; u < users; u++) {
+				LoadRecorder recorder = new LoadRecorder();
+				recorders.add(recorder);
+				SplittableRandom random = new SplittableRandom(seed + u);
+				executor.submit(() -> {
+					while (System.nanoTime() < deadline) {
+						workload.step(recorder, random);
+					}
+					return null;
+				});
+			}
+		}
+	}
+
+	/// Отправка запроса с замером. Возвращает ответ или null, если ответ - ошибка
+	private HttpResponse<String> send(LoadRecorder recorder, String operation, HttpRequest request) {
+		long started = System.nanoTime();
+		try {
+			HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+			boolean ok = response.statusCode() < 400;
+			recorder.record(operation, System.nanoTime() - started, ok);
+			return ok ? response : null;
+		} catch (IOException e) {
+			recorder.record(operation, System.nanoTime() - started, false);
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(uri(path)).GET().build();
+	}
+
+	private HttpRequest post(String path, Map<String, Object> body) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path));
+		if (body == null) {
+			return builder.POST(HttpRequest.BodyPublishers.noBody()).build();
+		}
+		return builder.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(jsonMapper.writeValueAsString(body)))
+				.build();
+	}
+
+	private URI uri(String path) {
+		return URI.create(baseUrl + path);
+	}
+
+	/// Шаг сценария одного пользователя
+	@FunctionalInterface
+	private interface Workload {
+
+		void step(LoadRecorder recorder, SplittableRandom random) throws InterruptedException;
+	}
+}
@@ -0,0 +1,50 @@
+package ru.fadeer.java_project_app.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.fadeer.java_project_app.JavaProjectApplication;
+import ru.fadeer.java_project_app.service.AutoDispatchService;
+
+/// Отдельный узел для DispatchScalingLoadTest: приложение без веб-сервера в своем процессе. Узел
+/// поднимает контекст, сообщает READY, ждет строку GO во входном потоке, распределяет очередь
+/// заданным числом обработчиков и сообщает DONE <назначений> <наносекунд>. Аргументы: число
+/// обработчиков, затем свойства Spring в виде --ключ=значение
+final class DispatchNode {
+
+	static final String READY = "READY";
+	static final String GO = "GO";
+	static final String DONE = "DONE";
+
+	private DispatchNode() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		int workers = Integer.parseInt(args[0]);
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				JavaProjectApplication.class)
+				.web(WebApplicationType.NONE)
+				.logStartupInfo(false)
+				.run(Arrays.copyOfRange(args, 1, args.length))) {
+			AutoDispatchService dispatch = context.getBean(AutoDispatchService.class);
+			BufferedReader in = new BufferedReader(new InputStreamReader(System.in,
+					StandardCharsets.UTF_8));
+
+			System.out.println(READY);
+			System.out.flush();
+			if (!GO.equals(in.readLine())) {
+				return;
+			}
+
+			long started = System.nanoTime();
+			long matched = dispatch.drain(workers);
+			System.out.println(DONE + " " + matched + " " + (System.nanoTime() - started));
+			System.out.flush();
+		}
+	}
+}
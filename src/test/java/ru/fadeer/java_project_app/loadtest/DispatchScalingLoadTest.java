@@ -0,0 +1,273 @@
+package ru.fadeer.java_project_app.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.fadeer.java_project_app.model.Request;
+import tools.jackson.databind.json.JsonMapper;
+
+/// Нагрузочный тест масштабирования автоматического распределения на нескольких узлах. Для каждого
+/// количества узлов из loadtest.dispatch.nodes город генерируется заново с loadtest.dispatch.requests
+/// непринятыми заявками и таким же числом свободных бригад, затем запускаются отдельные процессы
+/// DispatchNode. Замер идет от общего сигнала GO до завершения последнего узла, время запуска
+/// процессов не учитывается. Проверяется, что все заявки приняты и ни одна бригада не назначена
+/// дважды, а ускорение относительно одного узла - не ниже loadtest.dispatch.min-efficiency от
+/// линейного. Запуск: mvn -Ploadtest test -Dtest=DispatchScalingLoadTest
+@Tag("load")
+@SpringBootTest(properties = {
+		"spring.datasource.url=${loadtest.datasource.url:jdbc:postgresql://localhost:5432/JavaProjectLoad}",
+		"spring.jpa.show-sql=false",
+		"dispatch.auto.scheduled=false"})
+class DispatchScalingLoadTest {
+
+	private static final long STARTUP_SECONDS = 120;
+	private static final long RUN_SECONDS = 600;
+	private static final int HISTORY_REQUESTS = 1000;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private JsonMapper jsonMapper;
+
+	@Value("${loadtest.datasource.url:jdbc:postgresql://localhost:5432/JavaProjectLoad}")
+	private String datasourceUrl;
+
+	@Value("${loadtest.dispatch.requests:20000}")
+	private int requests;
+
+	@Value("${loadtest.dispatch.nodes:1,2,4,8}")
+	private int[] nodeCounts;
+
+	@Value("${loadtest.dispatch.workers-per-node:1}")
+	private int workersPerNode;
+
+	@Value("${loadtest.dispatch.min-efficiency:0.5}")
+	private double minEfficiency;
+
+	@Value("${loadtest.seed:42}")
+	private long seed;
+
+	/// Итог замера для одного количества узлов
+	///
+	/// @param nodes      количество процессов
+	/// @param workers    обработчиков на узел
+	/// @param matched    сделано назначений
+	/// @param seconds    длительность распределения
+	/// @param throughput назначений в секунду
+	/// @param speedup    ускорение относительно одного узла первого замера
+	record ScalingPoint(int nodes, int workers, long matched, double seconds, double throughput,
+			double speedup) {
+	}
+
+	@Test
+	void dispatchScalesWithNodes() throws Exception {
+		List<ScalingPoint> measured = new ArrayList<>();
+		for (int nodes : nodeCounts) {
+			measured.add(measure(nodes));
+		}
+
+		// Ускорение считается от пропускной способности одного узла в первом замере
+		ScalingPoint first = measured.getFirst();
+		double perNode = first.throughput() / first.nodes();
+		List<ScalingPoint> points = measured.stream()
+				.map(p -> new ScalingPoint(p.nodes(), p.workers(), p.matched(), p.seconds(),
+						p.throughput(), p.throughput() / perNode))
+				.toList();
+		for (ScalingPoint point : points) {
+			System.out.printf("Узлов: %d, назначений: %d за %.2f с, %.0f в секунду, ускорение %.2f%n",
+					point.nodes(), point.matched(), point.seconds(), point.throughput(),
+					point.speedup());
+		}
+
+		Path dir = Path.of("target", "loadtest");
+		Files.createDirectories(dir);
+		Path file = dir.resolve("dispatch-scaling-"
+				+ DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").format(LocalDateTime.now()) + ".json");
+		Files.writeString(file, jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsString(points));
+		System.out.println("Отчет: " + file.toAbsolutePath());
+
+		for (ScalingPoint point : points) {
+			assertTrue(point.speedup() >= point.nodes() * minEfficiency,
+					() -> point.nodes() + " узлов: ускорение " + point.speedup());
+		}
+	}
+
+	/// Генерация города и распределение его очереди nodes процессами. Ускорение заполняется
+	/// вызывающим
+	private ScalingPoint measure(int nodes) throws Exception {
+		try (Connection connection = dataSource.getConnection()) {
+			new CityDataset(new CityDataset.Config(requests, requests + HISTORY_REQUESTS, requests, 1,
+					seed)).generate(connection);
+		}
+
+		List<Node> started = new ArrayList<>();
+		try {
+			for (int i = 0; i < nodes; i++) {
+				started.add(Node.start(command()));
+			}
+			for (Node node : started) {
+				node.await(DispatchNode.READY, STARTUP_SECONDS);
+			}
+
+			long begin = System.nanoTime();
+			for (Node node : started) {
+				node.send(DispatchNode.GO);
+			}
+			long matched = 0;
+			for (Node node : started) {
+				matched += Long.parseLong(node.await(DispatchNode.DONE, RUN_SECONDS).split(" ")[1]);
+			}
+			double seconds = (System.nanoTime() - begin) / 1e9;
+
+			assertEquals(requests, matched);
+			verify();
+			return new ScalingPoint(nodes, workersPerNode, matched, seconds, matched / seconds, 0);
+		} finally {
+			started.forEach(Node::stop);
+		}
+	}
+
+	/// Проверка результата: непринятых заявок не осталось, у каждой бригады не больше одного
+	/// незавершенного назначения
+	private void verify() throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement()) {
+			assertEquals(0, count(statement, "SELECT count(*) FROM requests WHERE status = "
+					+ Request.Status.Not_Accepted.getCode()));
+			assertEquals(0, count(statement, "SELECT count(*) FROM (SELECT brigade_id "
+					+ "FROM assignments WHERE end_time IS NULL GROUP BY brigade_id "
+					+ "HAVING count(*) > 1) doubled"));
+		}
+	}
+
+	private static long count(Statement statement, String sql) throws SQLException {
+		try (ResultSet rs = statement.executeQuery(sql)) {
+			rs.next();
+			return rs.getLong(1);
+		}
+	}
+
+	/// Команда запуска узла: та же JVM и classpath, что у теста. Схема уже создана тестом
+	private List<String> command() {
+		return List.of(
+				Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+				"-cp", System.getProperty("java.class.path"),
+				DispatchNode.class.getName(),
+				String.valueOf(workersPerNode),
+				"--spring.datasource.url=" + datasourceUrl,
+				"--spring.datasource.hikari.maximum-pool-size=" + (workersPerNode + 2),
+				"--spring.flyway.enabled=false",
+				"--spring.jpa.show-sql=false",
+				"--spring.main.banner-mode=off",
+				"--dispatch.auto.scheduled=false");
+	}
+
+	/// Процесс узла. Вывод читается в отдельном потоке: строки протокола попадают в очередь,
+	/// последние строки остального вывода хранятся для сообщения об ошибке
+	private static final class Node {
+
+		private static final int TAIL = 40;
+
+		private final Process process;
+		private final Writer stdin;
+		private final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+		private final Deque<String> tail = new ArrayDeque<>();
+
+		private Node(Process process) {
+			this.process = process;
+			this.stdin = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+			Thread.ofVirtual().name("dispatch-node-" + process.pid()).start(this::read);
+		}
+
+		static Node start(List<String> command) throws IOException {
+			return new Node(new ProcessBuilder(command).redirectErrorStream(true).start());
+		}
+
+		void send(String line) throws IOException {
+			stdin.write(line + "\n");
+			stdin.flush();
+		}
+
+		/// Ожидание строки протокола, начинающейся с prefix
+		String await(String prefix, long seconds) throws InterruptedException {
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+			while (System.nanoTime() < deadline) {
+				String line = messages.poll(1, TimeUnit.SECONDS);
+				if (line != null && line.startsWith(prefix)) {
+					return line;
+				}
+				if (line == null && !process.isAlive() && messages.isEmpty()) {
+					break;
+				}
+			}
+			throw new AssertionError("Узел " + process.pid() + " не ответил " + prefix + ":\n"
+					+ String.join("\n", tail()));
+		}
+
+		void stop() {
+			process.destroy();
+			try {
+				if (!process.waitFor(10, TimeUnit.SECONDS)) {
+					process.destroyForcibly();
+				}
+			} catch (InterruptedException e) {
+				process.destroyForcibly();
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private void read() {
+			try (BufferedReader out = new BufferedReader(new InputStreamReader(
+					process.getInputStream(), StandardCharsets.UTF_8))) {
+				for (String line = out.readLine(); line != null; line = out.readLine()) {
+					if (line.startsWith(DispatchNode.READY) || line.startsWith(DispatchNode.DONE)) {
+						messages.add(line);
+					} else {
+						synchronized (tail) {
+							if (tail.size() == TAIL) {
+								tail.removeFirst();
+							}
+							tail.addLast(line);
+						}
+					}
+				}
+			} catch (IOException e) {
+				// Процесс остановлен
+			}
+		}
+
+		private List<String> tail() {
+			synchronized (tail) {
+				return List.copyOf(tail);
+			}
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package ru.fadeer.java_project_app.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/// Замеры операций одного виртуального пользователя. У каждого пользователя свой экземпляр, поэтому
+/// запись идет без синхронизации, а экземпляры сливаются после сценария
+final class LoadRecorder {
+
+	private final Map<String, Samples> byOperation = new LinkedHashMap<>();
+
+	/// Учет операции operation длительностью nanos; ok = false - ответ с ошибкой
+	void record(String operation, long nanos, boolean ok) {
+		Samples samples = byOperation.computeIfAbsent(operation, name -> new Samples());
+		if (ok) {
+			samples.add(nanos);
+		} else {
+			samples.errors++;
+		}
+	}
+
+	/// Итоги сценария по всем пользователям
+	///
+	/// @param recorders  замеры пользователей
+	/// @param seconds    длительность замера
+	/// @param statements количество SQL-запросов за сценарий
+	static ScenarioReport summarize(String scenario, List<LoadRecorder> recorders, double seconds,
+			long statements) {
+		Map<String, Samples> merged = new LinkedHashMap<>();
+		for (LoadRecorder recorder : recorders) {
+			recorder.byOperation.forEach((name, samples) ->
+					merged.computeIfAbsent(name, key -> new Samples()).addAll(samples));
+		}
+
+		long total = 0;
+		List<ScenarioReport.Operation> operations = new ArrayList<>();
+		for (Map.Entry<String, Samples> entry : merged.entrySet()) {
+			Samples samples = entry.getValue();
+			long[] sorted = Arrays.copyOf(samples.values, samples.size);
+			Arrays.sort(sorted);
+			total += samples.size;
+			operations.add(new ScenarioReport.Operation(entry.getKey(), samples.size, samples.errors,
+					samples.size / seconds, millis(sorted, 50), millis(sorted, 90), millis(sorted, 99),
+					sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6));
+		}
+		return new ScenarioReport(scenario, seconds, total, total / seconds, statements,
+				total == 0 ? 0 : (double) statements / total, operations);
+	}
+
+	/// Перцентиль percentile отсортированных длительностей в миллисекундах
+	private static double millis(long[] sorted, int percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(sorted.length * percentile / 100.0) - 1;
+		return sorted[Math.max(0, index)] / 1e6;
+	}
+
+	/// Длительности успешных операций в наносекундах и количество ошибок
+	private static final class Samples {
+
+		private long[] values = new long[1024];
+		private int size;
+		private long errors;
+
+		void add(long nanos) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = nanos;
+		}
+
+		void addAll(Samples other) {
+			for (int i = 0; i < other.size; i++) {
+				add(other.values[i]);
+			}
+			errors += other.errors;
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package ru.fadeer.java_project_app.loadtest;
+
+import java.util.List;
+
+/// Итоги одного сценария нагрузочного теста
+///
+/// @param scenario              название сценария
+/// @param seconds               длительность замера
+/// @param operations            количество успешных операций
+/// @param throughput            успешных операций в секунду
+/// @param statements            количество SQL-запросов за сценарий по статистике Hibernate
+/// @param statementsPerOperation SQL-запросов на операцию
+/// @param byOperation           итоги по видам операций
+record ScenarioReport(String scenario, double seconds, long operations, double throughput,
+		long statements, double statementsPerOperation, List<Operation> byOperation) {
+
+	/// Итоги одного вида операций, длительности в миллисекундах
+	///
+	/// @param name       вид операции
+	/// @param count      количество успешных операций
+	/// @param errors     количество ответов с ошибкой
+	/// @param throughput успешных операций в секунду
+	/// @param p50        медиана
+	/// @param p90        90-й перцентиль
+	/// @param p99        99-й перцентиль
+	/// @param max        наибольшая длительность
+	record Operation(String name, long count, long errors, double throughput, double p50,
+			double p90, double p99, double max) {
+	}
+
+	/// Таблица итогов для вывода в консоль
+	String format() {
+		StringBuilder text = new StringBuilder();
+		text.append(String.format("%n== %s: %.0f оп/с, %d SQL (%.1f на операцию) за %.0f с%n", scenario,
+				throughput, statements, statementsPerOperation, seconds));
+		text.append(String.format("%-22s %9s %7s %9s %9s %9s %9s %9s%n", "операция", "кол-во",
+				"ошибки", "оп/с", "p50 мс", "p90 мс", "p99 мс", "max мс"));
+		for (Operation o : byOperation) {
+			text.append(String.format("%-22s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", o.name(),
+					o.count(), o.errors(), o.throughput(), o.p50(), o.p90(), o.p99(), o.max()));
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,160 @@
+package ru.fadeer.java_project_app.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Проверка планов горячих запросов. В тестовой БД таблицы маленькие, и планировщик охотно выбирает
+/// последовательное чтение, поэтому оно отключается: если подходящего индекса нет, Postgres все
+/// равно выберет Seq Scan, и тест упадет. Запросы Spring Data проверяются в том виде, в котором их
+/// строит Hibernate: SQL перехватывается StatementInspector
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "ru.fadeer.java_project_app.repository.QueryPlanTest$SqlCapture")
+@Transactional
+class QueryPlanTest {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private RequestRepository requestRepository;
+
+	@BeforeEach
+	void disableSeqScan() {
+		entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+	}
+
+	@Test
+	void assignmentsByRequestUseIndex() {
+		assertNoSeqScan("assignments",
+				"SELECT * FROM assignments WHERE request_id = 1");
+	}
+
+	@Test
+	void openAssignmentsByBrigadeUseIndex() {
+		assertNoSeqScan("assignments",
+				"SELECT count(*) FROM assignments WHERE brigade_id = 1 AND end_time IS NULL");
+	}
+
+	@Test
+	void freeBrigadeSubqueryUsesIndex() {
+		assertNoSeqScan("assignments",
+				"SELECT b.brigade_id FROM brigades b WHERE b.status != "
+						+ Brigade.Status.disbanded.getCode() + " AND "
+						+ "NOT EXISTS (SELECT 1 FROM assignments a WHERE a.brigade_id = b.brigade_id "
+						+ "AND a.end_time IS NULL)");
+	}
+
+	/// Очередь формы назначения и табло: статус должен быть условием индекса, а не фильтром по всем
+	/// строкам истории. План строится общий, как у подготовленного запроса после нескольких вызовов
+	@Test
+	void openRequestQueueUsesIndex() {
+		SqlCapture.STATEMENTS.clear();
+		requestRepository.findByStatusInOrderByPriorityAscSubmissionTimeAscRequestIdAsc(
+				Request.Status.OPEN);
+		String sql = SqlCapture.STATEMENTS.stream()
+				.filter(statement -> statement.contains(" from requests "))
+				.findFirst().orElseThrow();
+
+		StringBuilder numbered = new StringBuilder();
+		StringBuilder arguments = new StringBuilder();
+		int parameter = 0;
+		for (char c : sql.toCharArray()) {
+			if (c == '?') {
+				numbered.append('$').append(++parameter);
+			} else {
+				numbered.append(c);
+			}
+		}
+		for (Request.Status status : Request.Status.OPEN) {
+			arguments.append(arguments.isEmpty() ? "" : ",").append(status.getCode());
+		}
+		// Список IN может передаваться и одним параметром-массивом
+		String values = parameter == 1 ? "'{" + arguments + "}'" : arguments.toString();
+
+		entityManager.createNativeQuery("SET LOCAL plan_cache_mode = force_generic_plan")
+				.executeUpdate();
+		entityManager.createNativeQuery("PREPARE open_queue AS " + numbered).executeUpdate();
+		try {
+			String text = plan("EXECUTE open_queue(" + values + ")");
+			assertFalse(text.contains("Seq Scan on requests"), () -> "Seq Scan в плане:\n" + text);
+			assertTrue(text.contains("Index Cond: (status = ANY"),
+					() -> "Статус не условие индекса:\n" + text);
+		} finally {
+			entityManager.createNativeQuery("DEALLOCATE open_queue").executeUpdate();
+		}
+	}
+
+	@Test
+	void freeBrigadeClaimUsesIndex() {
+		assertNoSeqScan("brigades",
+				"SELECT * FROM brigades WHERE status = " + Brigade.Status.free.getCode() + " "
+						+ "ORDER BY brigade_id LIMIT 50 FOR NO KEY UPDATE SKIP LOCKED");
+	}
+
+	@Test
+	void requestPageUsesIndex() {
+		assertNoSeqScan("requests",
+				"SELECT * FROM requests WHERE submission_time < now() "
+						+ "ORDER BY submission_time DESC, request_id DESC LIMIT 21");
+	}
+
+	@Test
+	void requestPageByStatusUsesIndex() {
+		assertNoSeqScan("requests",
+				"SELECT * FROM requests WHERE status = "
+						+ Request.Status.In_Progress.getCode() + " "
+						+ "ORDER BY submission_time DESC, request_id DESC LIMIT 21");
+	}
+
+	@Test
+	void historyExportUsesIndex() {
+		assertNoSeqScan("requests",
+				"SELECT * FROM requests WHERE submission_time >= now() - interval '30 days' "
+						+ "AND submission_time < now() ORDER BY submission_time, request_id");
+	}
+
+	@Test
+	void freeBrigadesUseIndex() {
+		assertNoSeqScan("brigades",
+				"SELECT * FROM brigades WHERE status = "
+						+ Brigade.Status.free.getCode() + " ORDER BY brigade_code");
+	}
+
+	/// Проверка, что в плане запроса sql нет последовательного чтения таблицы table
+	private void assertNoSeqScan(String table, String sql) {
+		String text = plan(sql);
+		assertFalse(text.contains("Seq Scan on " + table), () -> "Seq Scan в плане:\n" + text);
+	}
+
+	/// Текст плана запроса sql
+	private String plan(String sql) {
+		@SuppressWarnings("unchecked")
+		List<String> plan = entityManager.createNativeQuery("EXPLAIN " + sql).getResultList();
+		return String.join("\n", plan);
+	}
+
+	/// Перехватчик SQL, который Hibernate отправляет в БД. Hibernate создает его сам по имени класса
+	public static class SqlCapture implements StatementInspector {
+
+		static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			STATEMENTS.add(sql);
+			return sql;
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.TestData;
+import ru.fadeer.java_project_app.dto.Analytics.BrigadeUtilization;
+import ru.fadeer.java_project_app.dto.Analytics.ShiftUtilization;
+import ru.fadeer.java_project_app.model.Assignment;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Проверка аналитики загрузки бригад. Обновление представлений идет в транзакции теста и видит
+/// незафиксированные строки, а откат теста возвращает представления к прежнему состоянию
+@SpringBootTest
+@Transactional
+class AnalyticsServiceTest {
+
+	private static final LocalDateTime DAY = LocalDateTime.of(2001, 3, 15, 0, 0);
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private AnalyticsService analyticsService;
+
+	@Test
+	void shiftSumsRoadSiteAndIdleTime() {
+		Brigade brigade = prepareBrigade("analytics-shift");
+		// Утренняя смена: 30 мин в пути, час на месте, 30 мин простоя, 15 мин в пути, 45 мин на месте
+		complete(brigade, DAY.withHour(9), 30, 60);
+		complete(brigade, DAY.withHour(11), 15, 45);
+		// Вечерняя смена: простой после утреннего назначения не учитывается
+		complete(brigade, DAY.withHour(17), 10, 20);
+		analyticsService.refresh();
+
+		List<ShiftUtilization> shifts = analyticsService.findShifts(brigade.getBrigadeId(), DAY,
+				DAY.plusDays(1));
+
+		assertEquals(2, shifts.size());
+		ShiftUtilization morning = shifts.getFirst();
+		assertEquals(DAY.withHour(8), morning.shiftStart());
+		assertEquals(2, morning.assignments());
+		assertEquals(45 * 60, morning.roadSeconds());
+		assertEquals(105 * 60, morning.siteSeconds());
+		assertEquals(30 * 60, morning.idleSeconds());
+		assertEquals(150.0 / 480, morning.utilization(), 1e-9);
+
+		ShiftUtilization evening = shifts.get(1);
+		assertEquals(DAY.withHour(16), evening.shiftStart());
+		assertEquals(0, evening.idleSeconds());
+	}
+
+	@Test
+	void brigadeTotalsCoverRange() {
+		Brigade brigade = prepareBrigade("analytics-total");
+		complete(brigade, DAY.withHour(1), 20, 40);
+		complete(brigade, DAY.plusDays(1).withHour(1), 20, 40);
+		complete(brigade, DAY.plusDays(5).withHour(1), 20, 40);
+		analyticsService.refresh();
+
+		BrigadeUtilization total = analyticsService.findBrigades(DAY, DAY.plusDays(2)).stream()
+				.filter(u -> u.brigadeId().equals(brigade.getBrigadeId()))
+				.findFirst()
+				.orElseThrow();
+
+		assertEquals(2, total.shifts());
+		assertEquals(2, total.assignments());
+		assertEquals(40 * 60, total.roadSeconds());
+		assertEquals(80 * 60, total.siteSeconds());
+	}
+
+	@Test
+	void emptyRangeIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> analyticsService.findBrigades(DAY, DAY));
+	}
+
+	/// Завершенное назначение бригады, выданное в assigned, с road минутами в пути и site на месте
+	private void complete(Brigade brigade, LocalDateTime assigned, int road, int site) {
+		Request request = new Request("Прорыв трубы", Request.Priority.High, "ул. Тестовая, 5",
+				"Иванов", assigned.minusMinutes(5), null);
+		request.setStatus(Request.Status.Completed);
+		entityManager.persist(request);
+
+		Assignment assignment = new Assignment();
+		assignment.setBrigade(brigade);
+		assignment.setRequest(request);
+		assignment.setAssignmentTime(assigned);
+		assignment.setStartTime(assigned.plusMinutes(road));
+		assignment.setEndTime(assigned.plusMinutes(road + site));
+		entityManager.persist(assignment);
+		entityManager.flush();
+	}
+
+	private Brigade prepareBrigade(String code) {
+		Brigade brigade = TestData.brigade(code);
+		entityManager.persist(brigade);
+		return brigade;
+	}
+}
@@ -0,0 +1,95 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.TestData;
+import ru.fadeer.java_project_app.dto.Api.ApiPage;
+import ru.fadeer.java_project_app.dto.Api.RequestSummary;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Проверка постраничного чтения представлений для JSON API
+@SpringBootTest
+@Transactional
+class ApiReadServiceTest {
+
+	private static final int ROWS = 7;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private ApiReadService apiReadService;
+
+	/// Время подачи тестовых заявок - в будущем, чтобы они были первыми на первой странице
+	private final LocalDateTime base = LocalDateTime.now().plusYears(100);
+
+	@BeforeEach
+	void setUp() {
+		// Две заявки с одинаковым временем проверяют порядок по номеру внутри одного времени
+		for (int i = 0; i < ROWS; i++) {
+			Request request = new Request("Авария " + i, Request.Priority.Low, "ул. Тестовая, " + i,
+					"Иванов", base.minusMinutes(i == ROWS - 1 ? i - 1 : i), null);
+			entityManager.persist(request);
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void cursorWalksRequestsWithoutGapsOrRepeats() {
+		List<Integer> seen = new ArrayList<>();
+		String after = null;
+		do {
+			ApiPage<RequestSummary> page = apiReadService.findRequests(null, after, 3);
+			page.items().stream().limit(ROWS - seen.size()).forEach(r -> seen.add(r.requestId()));
+			after = page.next();
+		} while (seen.size() < ROWS && after != null);
+
+		assertEquals(ROWS, seen.size());
+		assertEquals(ROWS, seen.stream().distinct().count());
+	}
+
+	@Test
+	void pageRunsSingleStatementAndLoadsNoEntities() {
+		Statistics statistics = TestData.statistics(entityManager.getEntityManagerFactory());
+		statistics.clear();
+
+		ApiPage<RequestSummary> page = apiReadService.findRequests(null, null, 3);
+
+		assertEquals(3, page.items().size());
+		assertNotNull(page.next());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+	}
+
+	@Test
+	void emptyPageHasNoCursor() {
+		ApiPage<?> page = apiReadService.findAssignments(-1, null, 5);
+
+		assertTrue(page.items().isEmpty());
+		assertNull(page.next());
+	}
+
+	@Test
+	void malformedCursorIsRejected() {
+		assertThrows(IllegalArgumentException.class,
+				() -> apiReadService.findBrigades(null, "abc", null));
+		assertThrows(IllegalArgumentException.class,
+				() -> apiReadService.findRequests(null, "abc", null));
+	}
+}
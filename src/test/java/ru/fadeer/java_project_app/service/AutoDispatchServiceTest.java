@@ -0,0 +1,99 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.TestData;
+import ru.fadeer.java_project_app.dto.Dispatch.DispatchStats;
+import ru.fadeer.java_project_app.model.Request;
+import ru.fadeer.java_project_app.repository.BrigadeRepository;
+import ru.fadeer.java_project_app.repository.RequestRepository;
+
+/// Проверка раунда автоматического распределения: порядок очереди, размер раунда и показатели.
+/// Заявки теста поданы раньше любых настоящих, поэтому стоят в голове очереди. Сервис создается
+/// тестом с раундом в две заявки, чтобы показатели не смешивались с общим экземпляром
+@SpringBootTest
+@Transactional
+class AutoDispatchServiceTest {
+
+	private static final LocalDateTime LONG_AGO = LocalDateTime.of(1990, 1, 1, 0, 0);
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private AssignmentService assignmentService;
+
+	@Autowired
+	private RequestRepository requestRepository;
+
+	@Autowired
+	private BrigadeRepository brigadeRepository;
+
+	@Autowired
+	private ConflictRetry conflictRetry;
+
+	private AutoDispatchService autoDispatchService;
+
+	@BeforeEach
+	void setUp() {
+		autoDispatchService = new AutoDispatchService(assignmentService, requestRepository,
+				brigadeRepository, conflictRetry, 2, 1, false);
+		for (int i = 0; i < 3; i++) {
+			entityManager.persist(TestData.brigade("auto-dispatch-" + i));
+		}
+	}
+
+	@Test
+	void roundTakesBatchInPriorityOrder() {
+		Request first = persist(Request.Priority.High, LONG_AGO);
+		Request second = persist(Request.Priority.High, LONG_AGO.plusMinutes(1));
+		// Подана раньше всех, но приоритет ниже: в раунд из двух заявок не попадает
+		Request lower = persist(Request.Priority.Medium, LONG_AGO.minusYears(1));
+		entityManager.flush();
+
+		assertEquals(2, autoDispatchService.runRound());
+
+		entityManager.flush();
+		entityManager.clear();
+		assertEquals(Request.Status.Accepted, status(first));
+		assertEquals(Request.Status.Accepted, status(second));
+		assertEquals(Request.Status.Not_Accepted, status(lower));
+
+		DispatchStats stats = autoDispatchService.getStats();
+		assertEquals(1, stats.rounds());
+		assertEquals(2, stats.totalMatches());
+		assertEquals(2, stats.lastRoundMatches());
+		assertTrue(stats.queueDepth() >= 1);
+		assertTrue(stats.freeBrigades() >= 1);
+		assertEquals(1, stats.workers());
+		assertFalse(stats.scheduled());
+	}
+
+	@Test
+	void rejectsNonPositiveBatch() {
+		assertThrows(IllegalArgumentException.class, () -> new AutoDispatchService(
+				assignmentService, requestRepository, brigadeRepository, conflictRetry, 0, 1, false));
+	}
+
+	private Request persist(Request.Priority priority, LocalDateTime submitted) {
+		Request request = new Request("Прорыв трубы", priority, "ул. Очередная, 1", "Иванов",
+				submitted, null);
+		entityManager.persist(request);
+		return request;
+	}
+
+	private Request.Status status(Request request) {
+		return entityManager.find(Request.class, request.getRequestId()).getStatus();
+	}
+}
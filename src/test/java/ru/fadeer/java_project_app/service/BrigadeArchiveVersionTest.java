@@ -0,0 +1,126 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.List;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.TestData;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.repository.BrigadeRepository;
+
+/// Проверка архивации бригад с длинной историей версий
+@SpringBootTest
+@Transactional
+class BrigadeArchiveVersionTest {
+
+	private static final int DEEP_CHAIN = 30;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private BrigadeService brigadeService;
+
+	@Autowired
+	private BrigadeRepository brigadeRepository;
+
+	@Test
+	void archiveContinuesExistingChain() {
+		Brigade brigade = prepareChain("deep", DEEP_CHAIN);
+
+		brigadeService.updateAndArchive(brigade.getBrigadeId(), copyOf(brigade));
+
+		assertTrue(brigadeRepository.existsByBrigadeCode("deep_v" + (DEEP_CHAIN + 1)));
+		assertTrue(brigadeRepository.existsByVehicleNumber("deep-car_v" + (DEEP_CHAIN + 1)));
+	}
+
+	@Test
+	void archiveStatementCountDoesNotGrowWithChain() {
+		long[] shallow = archiveStatements("shallow", 1);
+		long[] deep = archiveStatements("deep", DEEP_CHAIN);
+
+		assertEquals(shallow[0], deep[0], "первая архивация, заполнение счетчика");
+		assertEquals(shallow[1], deep[1], "повторная архивация");
+	}
+
+	@Test
+	void existingVersionsAreFoundByIndex() {
+		prepareChain("indexed", 2);
+		entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+
+		for (String column : List.of("brigade_code", "vehicle_number")) {
+			@SuppressWarnings("unchecked")
+			List<String> plan = entityManager.createNativeQuery("EXPLAIN SELECT 1 FROM brigades "
+							+ "WHERE " + column + " LIKE 'indexed\\_v%' ESCAPE '\\'")
+					.getResultList();
+			assertTrue(plan.stream().noneMatch(line -> line.contains("Seq Scan")),
+					() -> column + ": " + String.join("\n", plan));
+		}
+	}
+
+	@Test
+	void failedArchiveLeavesBrigadeUntouched() {
+		Brigade brigade = prepareChain("keep", 0);
+		Brigade other = prepareChain("taken", 0);
+
+		Brigade updated = copyOf(brigade);
+		updated.setBrigadeCode(other.getBrigadeCode());
+
+		assertThrows(IllegalArgumentException.class,
+				() -> brigadeService.updateAndArchive(brigade.getBrigadeId(), updated));
+
+		Brigade reloaded = brigadeService.findById(brigade.getBrigadeId());
+		assertEquals("keep", reloaded.getBrigadeCode());
+		assertEquals(Brigade.Status.free, reloaded.getStatus());
+	}
+
+	/// Число подготовленных запросов при первой и повторной архивации бригады с цепочкой длиной
+	/// depth. Первая архивация заполняет счетчик по существующим архивам, вторая показывает
+	/// установившуюся стоимость
+	private long[] archiveStatements(String code, int depth) {
+		Brigade brigade = prepareChain(code, depth);
+		Statistics statistics = TestData.statistics(entityManager.getEntityManagerFactory());
+
+		statistics.clear();
+		brigadeService.updateAndArchive(brigade.getBrigadeId(), copyOf(brigade));
+		entityManager.flush();
+		long first = statistics.getPrepareStatementCount();
+		entityManager.clear();
+
+		Brigade successor = brigadeRepository.findAll().stream()
+				.filter(b -> b.getBrigadeCode().equals(code))
+				.findFirst()
+				.orElseThrow();
+
+		statistics.clear();
+		brigadeService.updateAndArchive(successor.getBrigadeId(), copyOf(successor));
+		entityManager.flush();
+		return new long[] {first, statistics.getPrepareStatementCount()};
+	}
+
+	/// Создание действующей бригады с кодом code и depth архивными версиями
+	private Brigade prepareChain(String code, int depth) {
+		for (int i = 1; i <= depth; i++) {
+			Brigade archived = TestData.brigade(code + "_v" + i, code + "-car_v" + i);
+			archived.setStatus(Brigade.Status.disbanded);
+			entityManager.persist(archived);
+		}
+		Brigade brigade = TestData.brigade(code);
+		entityManager.persist(brigade);
+		entityManager.flush();
+		entityManager.clear();
+		return brigade;
+	}
+
+	private Brigade copyOf(Brigade brigade) {
+		return TestData.brigade(brigade.getBrigadeCode(), brigade.getVehicleNumber());
+	}
+}
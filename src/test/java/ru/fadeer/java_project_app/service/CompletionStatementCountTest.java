@@ -0,0 +1,100 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.TestData;
+import ru.fadeer.java_project_app.dto.Assignments.CompletionResult;
+import ru.fadeer.java_project_app.model.Assignment;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Проверка того, что завершение работ по заявке выполняет одинаковое число запросов при любом
+/// количестве назначенных бригад
+@SpringBootTest
+@Transactional
+class CompletionStatementCountTest {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private AssignmentService assignmentService;
+
+	@Test
+	void completeWorkStatementCountDoesNotGrowWithBrigades() {
+		long small = completeWorkStatements(2);
+		long large = completeWorkStatements(12);
+
+		assertEquals(small, large);
+	}
+
+	@Test
+	void completeWorkFreesEveryBrigadeOfRequest() {
+		Integer assignmentId = prepareRequest("all", 4);
+
+		CompletionResult result = assignmentService.completeWork(assignmentId);
+		entityManager.clear();
+
+		assertEquals(4, result.assignmentIds().size());
+		for (Integer brigadeId : result.brigadeIds()) {
+			assertEquals(Brigade.Status.free, entityManager.find(Brigade.class, brigadeId).getStatus());
+		}
+		for (Integer id : result.assignmentIds()) {
+			Assignment a = entityManager.find(Assignment.class, id);
+			assertEquals(Request.Status.Completed, a.getRequest().getStatus());
+			assertEquals(a.getEndTime(), entityManager.find(Assignment.class, assignmentId).getEndTime());
+		}
+	}
+
+	/// Число подготовленных запросов при завершении заявки с brigades бригадами
+	private long completeWorkStatements(int brigades) {
+		Integer assignmentId = prepareRequest("count-" + brigades, brigades);
+
+		Statistics statistics = TestData.statistics(entityManager.getEntityManagerFactory());
+		statistics.clear();
+		assignmentService.completeWork(assignmentId);
+		entityManager.flush();
+		return statistics.getPrepareStatementCount();
+	}
+
+	/// Создание заявки в работе с brigades назначениями. Возвращает номер начатого назначения
+	private Integer prepareRequest(String prefix, int brigades) {
+		LocalDateTime assigned = LocalDateTime.now().minusHours(1);
+
+		Request request = new Request("Обрыв линии", Request.Priority.Medium, "ул. Тестовая, 2",
+				"Сидоров", assigned.minusMinutes(10), null);
+		request.setStatus(Request.Status.In_Progress);
+		entityManager.persist(request);
+
+		Integer startedId = null;
+		for (int i = 0; i < brigades; i++) {
+			Brigade brigade = TestData.brigade("complete-" + prefix + "-" + i);
+			brigade.setStatus(i == 0 ? Brigade.Status.inPlace : Brigade.Status.inRoad);
+			entityManager.persist(brigade);
+
+			Assignment assignment = new Assignment();
+			assignment.setBrigade(brigade);
+			assignment.setRequest(request);
+			assignment.setAssignmentTime(assigned);
+			if (i == 0) {
+				assignment.setStartTime(assigned.plusMinutes(15));
+			}
+			entityManager.persist(assignment);
+			if (i == 0) {
+				startedId = assignment.getAssignmentId();
+			}
+		}
+
+		entityManager.flush();
+		entityManager.clear();
+		return startedId;
+	}
+}
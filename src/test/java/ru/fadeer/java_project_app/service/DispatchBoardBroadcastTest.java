@@ -0,0 +1,91 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.fadeer.java_project_app.dto.Board.StatusChangedEvent;
+import ru.fadeer.java_project_app.model.Brigade;
+
+/// Проверка рассылки табло: каждый подписчик получает по одному целому кадру SSE на событие, хотя
+/// потоки отправки собирают кадры одновременно. Номера бригад в событиях отрицательные и не
+/// совпадают с настоящими, периодический комментарий отложен за пределы теста
+@SpringBootTest(properties = {"dispatch.auto.scheduled=false", "board.heartbeat-ms=3600000"})
+@AutoConfigureMockMvc
+class DispatchBoardBroadcastTest {
+
+	private static final int SUBSCRIBERS = 3;
+	private static final int EVENTS = 20;
+
+	/// Кадр события бригады: имя события и одна строка данных с JSON события
+	private static final Pattern FRAME = Pattern.compile(
+			"event:brigade\ndata:\\{\"type\":\"brigade\",\"id\":-\\d+,[^\n]*}");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private DispatchBoardService dispatchBoardService;
+
+	@AfterEach
+	void disconnect() {
+		dispatchBoardService.destroy();
+	}
+
+	@Test
+	void everySubscriberGetsOneFramePerEvent() throws Exception {
+		List<MockHttpServletResponse> responses = new ArrayList<>();
+		for (int i = 0; i < SUBSCRIBERS; i++) {
+			responses.add(mockMvc.perform(get("/board/events"))
+					.andExpect(request().asyncStarted())
+					.andReturn().getResponse());
+		}
+		assertEquals(SUBSCRIBERS, dispatchBoardService.getSubscriberCount());
+
+		for (int i = 1; i <= EVENTS; i++) {
+			dispatchBoardService.onStatusChanged(StatusChangedEvent.of(-i, Brigade.Status.free,
+					Brigade.Status.inRoad));
+		}
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		for (MockHttpServletResponse response : responses) {
+			while (frames(response).size() < EVENTS && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+		}
+
+		String expected = responses.getFirst().getContentAsString();
+		for (MockHttpServletResponse response : responses) {
+			List<String> frames = frames(response);
+			assertEquals(EVENTS, frames.size());
+			for (int i = 0; i < EVENTS; i++) {
+				String frame = frames.get(i);
+				assertTrue(FRAME.matcher(frame).matches(), frame);
+				assertTrue(frame.contains("\"id\":" + -(i + 1) + ","), frame);
+			}
+			assertEquals(expected, response.getContentAsString());
+		}
+		assertEquals(SUBSCRIBERS, dispatchBoardService.getSubscriberCount());
+	}
+
+	/// Кадры, полностью записанные в ответ. Кадры SSE разделяются пустой строкой
+	private static List<String> frames(MockHttpServletResponse response) throws Exception {
+		String content = response.getContentAsString();
+		int end = content.lastIndexOf("\n\n");
+		if (end < 0) {
+			return List.of();
+		}
+		return List.of(content.substring(0, end).split("\n\n"));
+	}
+}
@@ -0,0 +1,136 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.fadeer.java_project_app.TestData;
+import ru.fadeer.java_project_app.dto.Board.StatusChangedEvent;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Проверка событий табло: зафиксированная смена статуса дает одно событие, откаченная - ни одного,
+/// удаление заявки сообщает об освобожденных бригадах. События ловит слушатель с той же фазой, что
+/// у DispatchBoardService, поэтому тест работает без общей транзакции и сам удаляет созданные строки
+@SpringBootTest(properties = "dispatch.auto.scheduled=false")
+class DispatchBoardEventsTest {
+
+	@Autowired
+	private AssignmentService assignmentService;
+
+	@Autowired
+	private RequestService requestService;
+
+	@Autowired
+	private BrigadeService brigadeService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private BoardEventRecorder recorder;
+
+	private final List<Integer> brigadeIds = new ArrayList<>();
+	private final List<Integer> requestIds = new ArrayList<>();
+
+	private Integer brigadeId;
+	private Integer requestId;
+
+	@BeforeEach
+	void setUp() {
+		brigadeId = newBrigade("board-events-test");
+		requestId = newRequest();
+		recorder.events.clear();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		requestIds.forEach(requestService::deleteById);
+		brigadeIds.forEach(brigadeService::hardDelete);
+	}
+
+	@Test
+	void committedTransitionSendsOneEvent() {
+		assignmentService.assignBrigade(requestId, brigadeId);
+
+		assertEquals(List.of(StatusChangedEvent.of(brigadeId, Brigade.Status.free,
+				Brigade.Status.inRoad)), brigadeEvents());
+	}
+
+	@Test
+	void rolledBackTransitionSendsNothing() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			assignmentService.assignBrigade(requestId, brigadeId);
+			status.setRollbackOnly();
+		});
+
+		assertTrue(brigadeEvents().isEmpty());
+	}
+
+	@Test
+	void requestDeletionReleasesBrigade() {
+		assignmentService.assignBrigade(requestId, brigadeId);
+		recorder.events.clear();
+
+		requestService.deleteById(requestId);
+		requestIds.remove(requestId);
+
+		assertEquals(List.of(StatusChangedEvent.of(brigadeId, Brigade.Status.inRoad,
+				Brigade.Status.free)), brigadeEvents());
+	}
+
+	/// События табло по бригаде теста
+	private List<StatusChangedEvent> brigadeEvents() {
+		return recorder.events.stream()
+				.filter(e -> StatusChangedEvent.BRIGADE.equals(e.type())
+						&& brigadeId.equals(e.id()))
+				.toList();
+	}
+
+	private Integer newBrigade(String code) {
+		Integer id = brigadeService.create(TestData.brigade(code)).getBrigadeId();
+		brigadeIds.add(id);
+		return id;
+	}
+
+	private Integer newRequest() {
+		Request request = new Request("Прорыв трубы", Request.Priority.High, "ул. Табличная, 3",
+				"Иванов", LocalDateTime.now().minusMinutes(5), null);
+		Integer id = requestService.create(request).getRequestId();
+		requestIds.add(id);
+		return id;
+	}
+
+	@TestConfiguration(proxyBeanMethods = false)
+	static class RecorderConfig {
+
+		@Bean
+		BoardEventRecorder boardEventRecorder() {
+			return new BoardEventRecorder();
+		}
+	}
+
+	/// Слушатель событий табло после фиксации транзакции
+	static class BoardEventRecorder {
+
+		private final List<StatusChangedEvent> events = new CopyOnWriteArrayList<>();
+
+		@TransactionalEventListener
+		public void onStatusChanged(StatusChangedEvent event) {
+			events.add(event);
+		}
+	}
+}
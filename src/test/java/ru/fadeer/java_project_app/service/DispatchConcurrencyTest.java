@@ -0,0 +1,146 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.fadeer.java_project_app.TestData;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+import ru.fadeer.java_project_app.repository.AssignmentRepository;
+import ru.fadeer.java_project_app.repository.BrigadeRepository;
+import ru.fadeer.java_project_app.repository.RequestRepository;
+
+/// Проверка назначений при большом числе одновременных запросов. Конфликт версий возникает только
+/// между зафиксированными транзакциями, поэтому тест работает без общей тестовой транзакции и сам
+/// удаляет созданные строки
+@SpringBootTest
+class DispatchConcurrencyTest {
+
+	private static final int THREADS = 32;
+
+	@Autowired
+	private AssignmentService assignmentService;
+
+	@Autowired
+	private RequestService requestService;
+
+	@Autowired
+	private AssignmentRepository assignmentRepository;
+
+	@Autowired
+	private BrigadeRepository brigadeRepository;
+
+	@Autowired
+	private RequestRepository requestRepository;
+
+	private final List<Integer> requestIds = new ArrayList<>();
+	private final List<Integer> brigadeIds = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		requestIds.forEach(requestService::deleteById);
+		brigadeRepository.deleteAllById(brigadeIds);
+	}
+
+	@Test
+	void freeBrigadeIsAssignedOnlyOnce() throws InterruptedException {
+		Integer brigadeId = newBrigade("race-single");
+		List<Integer> requests = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			requests.add(newRequest(i));
+		}
+
+		AtomicInteger assigned = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+		runConcurrently(THREADS, i -> {
+			try {
+				assignmentService.assignBrigade(requests.get(i), brigadeId);
+				assigned.incrementAndGet();
+			} catch (IllegalArgumentException e) {
+				rejected.incrementAndGet();
+			} catch (RuntimeException e) {
+				failures.add(e);
+			}
+		});
+
+		assertTrue(failures.isEmpty(), () -> "Неожиданные ошибки: " + failures);
+		assertEquals(1, assigned.get());
+		assertEquals(THREADS - 1, rejected.get());
+		assertEquals(1, assignmentRepository.countOpenPhasesByBrigade(brigadeId).getTotal());
+		assertEquals(Brigade.Status.inRoad, brigadeRepository.findById(brigadeId).orElseThrow()
+				.getStatus());
+	}
+
+	@Test
+	void parallelAssignmentsToOneRequestAllSucceed() throws InterruptedException {
+		Integer requestId = newRequest(0);
+		List<Integer> brigades = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			brigades.add(newBrigade("race-many-" + i));
+		}
+
+		ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+		runConcurrently(THREADS, i -> {
+			try {
+				assignmentService.assignBrigade(requestId, brigades.get(i));
+			} catch (RuntimeException e) {
+				failures.add(e);
+			}
+		});
+
+		assertTrue(failures.isEmpty(), () -> "Неожиданные ошибки: " + failures);
+		assertEquals(THREADS, assignmentRepository.countPhasesByRequest(requestId).getTotal());
+		assertEquals(Request.Status.Accepted, requestRepository.findById(requestId).orElseThrow()
+				.getStatus());
+	}
+
+	/// Запуск count задач одновременно: все потоки ждут общего сигнала, чтобы запросы пересеклись
+	private void runConcurrently(int count, IntConsumer task) throws InterruptedException {
+		CountDownLatch start = new CountDownLatch(1);
+		try (ExecutorService executor = Executors.newFixedThreadPool(count)) {
+			for (int i = 0; i < count; i++) {
+				int index = i;
+				executor.execute(() -> {
+					try {
+						start.await();
+						task.accept(index);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			}
+			start.countDown();
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+		}
+	}
+
+	private Integer newBrigade(String code) {
+		Integer id = brigadeRepository.save(TestData.brigade(code)).getBrigadeId();
+		brigadeIds.add(id);
+		return id;
+	}
+
+	private Integer newRequest(int index) {
+		Request request = new Request("Прорыв трубы", Request.Priority.High,
+				"ул. Параллельная, " + index, "Иванов", LocalDateTime.now().minusMinutes(5), null);
+		Integer id = requestRepository.save(request).getRequestId();
+		requestIds.add(id);
+		return id;
+	}
+}
@@ -0,0 +1,101 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.TestData;
+import ru.fadeer.java_project_app.dto.Export.ExportFormat;
+import ru.fadeer.java_project_app.model.Assignment;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Проверка выгрузки истории заявок
+@SpringBootTest
+@Transactional
+class ExportServiceTest {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private ExportService exportService;
+
+	/// Промежуток далеко в прошлом, где нет других заявок
+	private final LocalDateTime from = LocalDateTime.of(1990, 1, 1, 0, 0);
+	private final LocalDateTime to = from.plusDays(1);
+
+	@BeforeEach
+	void setUp() {
+		Request withBrigades = new Request("Обрыв, \"линии\"", Request.Priority.High, "ул. Тестовая, 1",
+				"Иванов", from.plusHours(1), "Течь на \"углу\", у дома");
+		entityManager.persist(withBrigades);
+		Request empty = new Request("Прорыв трубы", Request.Priority.Low, "ул. Тестовая, 2",
+				"Петров", from.plusHours(2), null);
+		entityManager.persist(empty);
+
+		for (int i = 0; i < 2; i++) {
+			Brigade brigade = TestData.brigade("export-" + i);
+			entityManager.persist(brigade);
+
+			Assignment assignment = new Assignment();
+			assignment.setBrigade(brigade);
+			assignment.setRequest(withBrigades);
+			assignment.setAssignmentTime(from.plusHours(1).plusMinutes(5));
+			entityManager.persist(assignment);
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void ndjsonHasOneLinePerRequest() throws IOException {
+		List<String> lines = export(ExportFormat.NDJSON);
+
+		assertEquals(2, lines.size());
+		assertTrue(lines.get(0).startsWith("{\"requestId\":"));
+		assertTrue(lines.get(0).contains("\"accidentType\":\"Обрыв, \\\"линии\\\"\""));
+		assertTrue(lines.get(0).contains(
+				"\"description\":\"Течь на \\\"углу\\\", у дома\",\"status\":"));
+		assertTrue(lines.get(1).contains("\"description\":null,"));
+		assertEquals(2, lines.get(0).split("\"assignmentId\"").length - 1);
+		assertTrue(lines.get(1).endsWith("\"assignments\":[]}"));
+	}
+
+	@Test
+	void csvHasOneLinePerAssignment() throws IOException {
+		List<String> lines = export(ExportFormat.CSV);
+
+		assertEquals(4, lines.size());
+		assertTrue(lines.get(0).startsWith("request_id,"));
+		assertTrue(lines.get(0).contains(",submission_time,description,status,"));
+		assertTrue(lines.get(1).contains(",\"Обрыв, \"\"линии\"\"\",High,"));
+		assertTrue(lines.get(1).contains(",\"Течь на \"\"углу\"\", у дома\",Not_Accepted,"));
+		assertTrue(lines.get(3).contains(",,Not_Accepted,"));
+		assertTrue(lines.get(3).endsWith(",,,,,,"));
+	}
+
+	@Test
+	void emptyRangeIsRejected() {
+		assertThrows(IllegalArgumentException.class,
+				() -> exportService.exportHistory(to, from, ExportFormat.CSV, new ByteArrayOutputStream()));
+	}
+
+	private List<String> export(ExportFormat format) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exportService.exportHistory(from, to, format, out);
+		return out.toString(StandardCharsets.UTF_8).lines().toList();
+	}
+}
@@ -0,0 +1,118 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.TestData;
+import ru.fadeer.java_project_app.model.Assignment;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Проверка того, что страницы списка и просмотра выполняют фиксированное число запросов, сколько бы
+/// назначений ни было выведено. Второй уровень кэша перед замером сбрасывается: здесь проверяется
+/// чтение из БД, чтение из кэша - в SecondLevelCacheTest
+@SpringBootTest
+@Transactional
+class FetchPlanQueryCountTest {
+
+	private static final int ROWS = 5;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private AssignmentService assignmentService;
+
+	@Autowired
+	private RequestService requestService;
+
+	@Autowired
+	private BrigadeService brigadeService;
+
+	private Statistics statistics;
+	private Request request;
+	private Brigade brigade;
+
+	@BeforeEach
+	void setUp() {
+		request = new Request("Прорыв трубы", Request.Priority.High, "ул. Тестовая, 1", "Иванов",
+				LocalDateTime.now().minusHours(1), null);
+		entityManager.persist(request);
+
+		for (int i = 0; i < ROWS; i++) {
+			Brigade b = TestData.brigade("fetch-test-" + i);
+			entityManager.persist(b);
+			if (i == 0) {
+				brigade = b;
+			}
+
+			Assignment a = new Assignment();
+			a.setBrigade(b);
+			a.setRequest(request);
+			a.setAssignmentTime(LocalDateTime.now().minusMinutes(30));
+			entityManager.persist(a);
+		}
+
+		entityManager.flush();
+		entityManager.clear();
+		entityManager.getEntityManagerFactory().getCache().evictAll();
+
+		statistics = TestData.statistics(entityManager.getEntityManagerFactory());
+		statistics.clear();
+	}
+
+	@Test
+	void assignmentListRunsSingleStatement() {
+		List<Assignment> assignments = assignmentService.findAll();
+		for (Assignment a : assignments) {
+			a.getBrigade().getBrigadeCode();
+			a.getRequest().getAccidentType();
+		}
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void assignmentViewRunsSingleStatement() {
+		Assignment assignment = assignmentService.findAll().getFirst();
+		entityManager.clear();
+		entityManager.getEntityManagerFactory().getCache().evictAll();
+		statistics.clear();
+
+		Assignment found = assignmentService.findById(assignment.getAssignmentId());
+		found.getBrigade().getBrigadeCode();
+		found.getRequest().getAccidentType();
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void requestViewRunsSingleStatement() {
+		Request found = requestService.findByIdWithAssignments(request.getRequestId());
+		for (Assignment a : found.getAssignments()) {
+			a.getBrigade().getStatus();
+		}
+
+		assertEquals(ROWS, found.getAssignments().size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void brigadeViewRunsSingleStatement() {
+		Brigade found = brigadeService.findByIdWithAssignments(brigade.getBrigadeId());
+		for (Assignment a : found.getAssignments()) {
+			a.getRequest().getStatus();
+		}
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+}
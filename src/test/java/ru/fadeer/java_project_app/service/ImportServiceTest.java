@@ -0,0 +1,100 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.dto.Export.ExportFormat;
+import ru.fadeer.java_project_app.dto.Import.ImportReport;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Проверка массовой загрузки заявок. Порции меньше входа, чтобы проверить запись нескольких COPY
+@SpringBootTest(properties = "import.chunk-size=2")
+@Transactional
+class ImportServiceTest {
+
+	private static final String APPLICANT = "Загрузка Тест";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private ImportService importService;
+
+	@Test
+	void csvRowsAreValidatedAndCopied() throws IOException {
+		ImportReport report = importCsv("""
+				accident_type,priority,address,applicant_name,submission_time,description
+				Прорыв трубы,High,"ул. Тестовая, 1",Загрузка Тест,2024-03-21 14:30,"Течь ""сильная\"""
+				Обрыв линии,2,ул. Тестовая 2,Загрузка Тест,,
+				,Low,ул. Тестовая 3,Загрузка Тест,,
+				Пожар,Low,ул. Тестовая 4,Загрузка Тест,2999-01-01 00:00,
+				Задымление,Low,ул. Тестовая 5,Загрузка Тест,,
+				""");
+
+		assertEquals(3, report.accepted());
+		assertEquals(2, report.rejected());
+		assertEquals(List.of(4L, 5L), report.rejects().stream().map(r -> r.line()).toList());
+
+		List<Request> imported = entityManager
+				.createQuery("SELECT r FROM Request r WHERE r.applicantName = :name ORDER BY r.requestId",
+						Request.class)
+				.setParameter("name", APPLICANT)
+				.getResultList();
+		assertEquals(3, imported.size());
+		assertEquals("Течь \"сильная\"", imported.getFirst().getDescription());
+		assertEquals(Request.Status.Not_Accepted, imported.getFirst().getStatus());
+	}
+
+	@Test
+	void failingRowsAreRejectedOneByOne() throws IOException {
+		String header = "accident_type,priority,address,applicant_name,submission_time,description\n";
+		// Символ NUL проходит проверку формы, но БД отклоняет его в COPY: порция делится, и
+		// отказ получает только эта строка. Слишком длинный адрес отклоняется до COPY
+		ImportReport report = importCsv(header
+				+ "Прорыв трубы,High,ул. Тестовая 1,Загрузка Тест,,\n"
+				+ "Прорыв трубы,High,ул. Тестовая \0,Загрузка Тест,,\n"
+				+ "Прорыв трубы,High,ул. Тестовая 3,Загрузка Тест,,\n"
+				+ "Прорыв трубы,High," + "д".repeat(RequestService.MAX_TEXT_LENGTH + 1)
+				+ ",Загрузка Тест,,\n"
+				+ "Прорыв трубы,High,ул. Тестовая 5,Загрузка Тест,,\n");
+
+		assertEquals(3, report.accepted());
+		assertEquals(2, report.rejected());
+		assertEquals(List.of(3L, 5L), report.rejects().stream().map(r -> r.line()).toList());
+
+		List<String> addresses = entityManager
+				.createQuery("SELECT r.address FROM Request r WHERE r.applicantName = :name "
+						+ "ORDER BY r.requestId", String.class)
+				.setParameter("name", APPLICANT)
+				.getResultList();
+		assertEquals(List.of("ул. Тестовая 1", "ул. Тестовая 3", "ул. Тестовая 5"), addresses);
+	}
+
+	@Test
+	void ndjsonRowsAreValidatedAndCopied() throws IOException {
+		String body = """
+				{"accidentType":"Прорыв трубы","priority":"Medium","address":"ул. Тестовая, 1","applicantName":"Загрузка Тест"}
+				{"accidentType":"Прорыв трубы","priority":"Medium","address":"ул. Тестовая, 1"}
+				не json
+				""";
+		ImportReport report = importService.importRequests(
+				new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), ExportFormat.NDJSON);
+
+		assertEquals(1, report.accepted());
+		assertEquals(2, report.rejected());
+	}
+
+	private ImportReport importCsv(String body) throws IOException {
+		return importService.importRequests(
+				new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), ExportFormat.CSV);
+	}
+}
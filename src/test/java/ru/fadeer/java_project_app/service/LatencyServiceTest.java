@@ -0,0 +1,148 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.TestData;
+import ru.fadeer.java_project_app.dto.Latency.LatencyInterval;
+import ru.fadeer.java_project_app.dto.Latency.LatencyPercentiles;
+import ru.fadeer.java_project_app.dto.Latency.TransitionTimedEvent;
+import ru.fadeer.java_project_app.model.Assignment;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+import ru.fadeer.java_project_app.repository.AssignmentRepository;
+
+/// Проверка гистограмм времени реакции. Замеры передаются сервису напрямую: события после
+/// фиксации в тесте не приходят, транзакция откатывается. Каждый тест работает со своим
+/// экземпляром сервиса, чтобы типы аварий из БД не занимали места под отдельные строки, а
+/// выдуманные замеры не попадали в общий сервис
+@SpringBootTest
+@Transactional
+class LatencyServiceTest {
+
+	private static final int MAX_TYPES = 1000;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private AssignmentRepository assignmentRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private LatencyService latencyService;
+
+	@BeforeEach
+	void setUp() {
+		latencyService = newService(MAX_TYPES);
+	}
+
+	@Test
+	void percentilesStayWithinPrecision() {
+		for (long millis = 1; millis <= 100_000; millis++) {
+			latencyService.onTransition(new TransitionTimedEvent(LatencyInterval.StartToEnd,
+					Request.Priority.Low, "latency-precision", millis));
+		}
+
+		LatencyPercentiles row = find(LatencyInterval.StartToEnd, Request.Priority.Low,
+				"latency-precision", true);
+
+		assertEquals(100_000, row.count());
+		assertWithin(50_000, row.p50());
+		assertWithin(90_000, row.p90());
+		assertWithin(99_000, row.p99());
+		assertWithin(100_000, row.max());
+	}
+
+	@Test
+	void rebuildReadsAssignmentsTable() {
+		LocalDateTime submitted = LocalDateTime.now().minusHours(3);
+		Request request = new Request("latency-rebuild", Request.Priority.High, "ул. Тестовая, 6",
+				"Иванов", submitted, null);
+		entityManager.persist(request);
+		// Первое назначение через 10 минут, второе через 20: в промежуток до принятия идет первое
+		persistAssignment(request, "latency-a", submitted.plusMinutes(10), 5, 60);
+		persistAssignment(request, "latency-b", submitted.plusMinutes(20), 15, 30);
+		entityManager.flush();
+
+		latencyService.rebuild();
+
+		LatencyPercentiles accepted = find(LatencyInterval.SubmissionToAssignment,
+				Request.Priority.High, "latency-rebuild", false);
+		assertEquals(1, accepted.count());
+		assertWithin(10 * 60_000, accepted.p50());
+
+		LatencyPercentiles started = find(LatencyInterval.AssignmentToStart,
+				Request.Priority.High, "latency-rebuild", true);
+		assertEquals(2, started.count());
+		assertWithin(15 * 60_000, started.max());
+
+		assertEquals(2, find(LatencyInterval.StartToEnd, Request.Priority.High, "latency-rebuild",
+				false).count());
+	}
+
+	@Test
+	void typesOverLimitAreFoldedIntoOther() {
+		latencyService = newService(2);
+		for (String type : List.of("latency-first", " latency-first ", "latency-second",
+				"latency-third", "latency-fourth")) {
+			latencyService.onTransition(new TransitionTimedEvent(LatencyInterval.StartToEnd,
+					Request.Priority.Low, type, 1_000));
+		}
+
+		List<String> types = latencyService.percentiles(Request.Priority.Low, false).stream()
+				.filter(row -> row.interval() == LatencyInterval.StartToEnd
+						&& row.accidentType() != null)
+				.map(LatencyPercentiles::accidentType)
+				.toList();
+
+		assertEquals(List.of(LatencyService.OTHER_TYPES, "latency-first", "latency-second"), types);
+		assertEquals(2, find(LatencyInterval.StartToEnd, Request.Priority.Low, "latency-first",
+				true).count());
+		assertEquals(2, find(LatencyInterval.StartToEnd, Request.Priority.Low,
+				LatencyService.OTHER_TYPES, true).count());
+	}
+
+	private LatencyService newService(int maxTypes) {
+		return new LatencyService(assignmentRepository, transactionManager, 300_000, 12, maxTypes);
+	}
+
+	private LatencyPercentiles find(LatencyInterval interval, Request.Priority priority,
+			String accidentType, boolean recent) {
+		return latencyService.percentiles(priority, recent).stream()
+				.filter(row -> row.interval() == interval && accidentType.equals(row.accidentType()))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private void persistAssignment(Request request, String code, LocalDateTime assigned, int road,
+			int site) {
+		Brigade brigade = TestData.brigade(code);
+		entityManager.persist(brigade);
+
+		Assignment assignment = new Assignment();
+		assignment.setBrigade(brigade);
+		assignment.setRequest(request);
+		assignment.setAssignmentTime(assigned);
+		assignment.setStartTime(assigned.plusMinutes(road));
+		assignment.setEndTime(assigned.plusMinutes(road + site));
+		entityManager.persist(assignment);
+	}
+
+	/// Проверка, что значение отличается от ожидаемого не больше чем на точность гистограммы
+	private static void assertWithin(long expected, long actual) {
+		assertTrue(Math.abs(actual - expected) <= expected / 60,
+				() -> "ожидалось около " + expected + ", получено " + actual);
+	}
+}
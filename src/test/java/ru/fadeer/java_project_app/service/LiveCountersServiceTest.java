@@ -0,0 +1,95 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.TestData;
+import ru.fadeer.java_project_app.dto.Board.StatusChangedEvent;
+import ru.fadeer.java_project_app.dto.Dashboard.AssignmentPhase;
+import ru.fadeer.java_project_app.dto.Dashboard.LiveCounts;
+import ru.fadeer.java_project_app.dto.Dashboard.PhaseChangedEvent;
+import ru.fadeer.java_project_app.model.Assignment;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Проверка счетчиков главной страницы. Тестовая транзакция не фиксируется, поэтому события
+/// передаются счетчикам напрямую, а сверка видит незафиксированные строки теста
+@SpringBootTest
+@Transactional
+class LiveCountersServiceTest {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private LiveCountersService liveCountersService;
+
+	@BeforeEach
+	void setUp() {
+		liveCountersService.reconcile();
+	}
+
+	/// Сверка после отката тестовой транзакции: выдуманные события и строки теста не должны
+	/// оставаться в общих счетчиках для следующих тестов того же контекста
+	@AfterTransaction
+	void restoreCounters() {
+		liveCountersService.reconcile();
+	}
+
+	@Test
+	void reconcileCountsRowsByStatusAndPhase() {
+		LiveCounts before = liveCountersService.snapshot();
+
+		Request request = new Request("Прорыв трубы", Request.Priority.High, "ул. Тестовая, 1",
+				"Иванов", LocalDateTime.now().minusHours(1), null);
+		entityManager.persist(request);
+		Brigade brigade = TestData.brigade("counters-test");
+		entityManager.persist(brigade);
+		Assignment assignment = new Assignment();
+		assignment.setBrigade(brigade);
+		assignment.setRequest(request);
+		assignment.setAssignmentTime(LocalDateTime.now().minusMinutes(30));
+		assignment.setStartTime(LocalDateTime.now().minusMinutes(10));
+		entityManager.persist(assignment);
+		entityManager.flush();
+
+		liveCountersService.reconcile();
+		LiveCounts after = liveCountersService.snapshot();
+
+		assertEquals(before.requestCount(Request.Status.Not_Accepted) + 1,
+				after.requestCount(Request.Status.Not_Accepted));
+		assertEquals(before.brigades().get(Brigade.Status.free) + 1,
+				after.brigades().get(Brigade.Status.free));
+		assertEquals(before.startedAssignments() + 1, after.startedAssignments());
+		assertEquals(before.totalAssignments() + 1, after.totalAssignments());
+	}
+
+	@Test
+	void eventsMoveCountsBetweenStatuses() {
+		LiveCounts before = liveCountersService.snapshot();
+
+		liveCountersService.onStatusChanged(
+				StatusChangedEvent.of(1, Request.Status.Not_Accepted, Request.Status.Accepted));
+		liveCountersService.onStatusChanged(StatusChangedEvent.of(1, null, Brigade.Status.free));
+		liveCountersService.onPhaseChanged(
+				new PhaseChangedEvent(AssignmentPhase.Started, AssignmentPhase.Ended, 3));
+		LiveCounts after = liveCountersService.snapshot();
+
+		assertEquals(before.requestCount(Request.Status.Not_Accepted) - 1,
+				after.requestCount(Request.Status.Not_Accepted));
+		assertEquals(before.requestCount(Request.Status.Accepted) + 1,
+				after.requestCount(Request.Status.Accepted));
+		assertEquals(before.totalRequests(), after.totalRequests());
+		assertEquals(before.totalBrigades() + 1, after.totalBrigades());
+		assertEquals(before.endedAssignments() + 3, after.endedAssignments());
+		assertEquals(before.totalAssignments(), after.totalAssignments());
+	}
+}
@@ -0,0 +1,66 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Проверка замеров операций сервисов: исход и правило, на котором операция отклонена
+@SpringBootTest
+@Transactional
+class OperationMetricsTest {
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Autowired
+	private RequestService requestService;
+
+	@Test
+	void successfulCreateIsTimed() {
+		long before = timerCount("request.create", "success");
+
+		requestService.create(new Request("Прорыв трубы", Request.Priority.High, "ул. Тестовая, 7",
+				"Иванов", LocalDateTime.now().minusMinutes(1), null));
+
+		assertEquals(before + 1, timerCount("request.create", "success"));
+	}
+
+	@Test
+	void rejectedDeleteIsCountedByRule() {
+		long before = timerCount("request.delete", "rejected");
+
+		assertThrows(IllegalArgumentException.class, () -> requestService.deleteById(-1));
+
+		assertEquals(before + 1, timerCount("request.delete", "rejected"));
+		assertNotNull(registry.find(OperationMetrics.REJECTIONS)
+				.tag("operation", "request.delete")
+				.tag("rule", "Заявка не найдена")
+				.counter());
+	}
+
+	@Test
+	void ruleDropsVariableParts() {
+		assertEquals("Бригада с id: ? не найдена.", OperationMetrics.ruleOf(
+				new IllegalArgumentException("Бригада с id: 42 не найдена.")));
+		assertEquals("Работа уже начата в ?", OperationMetrics.ruleOf(
+				new IllegalArgumentException("Работа уже начата в 2026-10-18T10:15:30.123")));
+		assertEquals("Машина с номером '?' уже назначена.", OperationMetrics.ruleOf(
+				new IllegalArgumentException("Машина с номером 'А123ВС' уже назначена.")));
+	}
+
+	private long timerCount(String operation, String outcome) {
+		return registry.get(OperationMetrics.TIMER)
+				.tag("operation", operation)
+				.tag("outcome", outcome)
+				.timer()
+				.count();
+	}
+}
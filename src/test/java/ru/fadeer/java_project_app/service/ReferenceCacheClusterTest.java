@@ -0,0 +1,155 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.fadeer.java_project_app.JavaProjectApplication;
+import ru.fadeer.java_project_app.TestData;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Проверка согласованности кэша справочных данных между двумя экземплярами приложения на одной
+/// БД. Экземпляры поднимаются в одной JVM отдельными контекстами без веб-сервера и общаются только
+/// через PostgreSQL. Изменения фиксируются, поэтому тест работает без общей тестовой транзакции и
+/// сам удаляет созданные строки
+class ReferenceCacheClusterTest {
+
+	private static final long WAIT_SECONDS = 10;
+
+	private static ConfigurableApplicationContext first;
+	private static ConfigurableApplicationContext second;
+
+	private final List<Integer> brigadeIds = new ArrayList<>();
+	private final List<Integer> requestIds = new ArrayList<>();
+
+	@BeforeAll
+	static void startNodes() {
+		first = startNode();
+		second = startNode();
+		awaitTrue(() -> first.getBean(ReferenceCacheService.class).isListening()
+				&& second.getBean(ReferenceCacheService.class).isListening());
+	}
+
+	@AfterAll
+	static void stopNodes() {
+		second.close();
+		first.close();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		requestIds.forEach(first.getBean(RequestService.class)::deleteById);
+		brigadeIds.forEach(first.getBean(BrigadeService.class)::hardDelete);
+	}
+
+	@Test
+	void brigadeEditReachesOtherNode() {
+		BrigadeService writer = first.getBean(BrigadeService.class);
+		BrigadeService reader = second.getBean(BrigadeService.class);
+		Integer id = newBrigade("cache-edit");
+
+		assertEquals("Петров", reader.findById(id).getForemanName());
+		assertEquals("Петров", writer.findById(id).getForemanName());
+		long lagBefore = lagCount(second);
+
+		Brigade changes = new Brigade();
+		changes.setForemanName("Сидоров");
+		writer.update(id, changes);
+
+		// Записавший узел видит изменение сразу, другой - после уведомления
+		assertEquals("Сидоров", writer.findById(id).getForemanName());
+		awaitTrue(() -> "Сидоров".equals(reader.findById(id).getForemanName()));
+		assertTrue(lagCount(second) > lagBefore);
+	}
+
+	@Test
+	void rosterAndRequestStatusReachOtherNode() {
+		BrigadeService brigades = second.getBean(BrigadeService.class);
+		RequestService requests = second.getBean(RequestService.class);
+		int rosterSize = brigades.findAll().size();
+		Integer requestId = newRequest();
+		assertEquals(Request.Status.Not_Accepted, requests.findById(requestId).getStatus());
+
+		Integer brigadeId = newBrigade("cache-roster");
+		first.getBean(AssignmentService.class).assignBrigade(requestId, brigadeId);
+
+		awaitTrue(() -> brigades.findAll().size() == rosterSize + 1);
+		awaitTrue(() -> requests.findById(requestId).getStatus() == Request.Status.Accepted);
+		assertEquals(Brigade.Status.inRoad, brigades.findById(brigadeId).getStatus());
+	}
+
+	private Integer newBrigade(String code) {
+		Integer id = first.getBean(BrigadeService.class).create(TestData.brigade(code)).getBrigadeId();
+		brigadeIds.add(id);
+		return id;
+	}
+
+	private Integer newRequest() {
+		Request request = new Request("Прорыв трубы", Request.Priority.High, "ул. Кэшевая, 1",
+				"Иванов", LocalDateTime.now().minusMinutes(5), null);
+		Integer id = first.getBean(RequestService.class).create(request).getRequestId();
+		requestIds.add(id);
+		return id;
+	}
+
+	@Test
+	void failedListenerIsCounted() throws InterruptedException {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		ReferenceCacheService unreachable = new ReferenceCacheService(
+				first.getBean(PlatformTransactionManager.class),
+				first.getBean(EntityCacheService.class), registry, 100, 60_000, "reference_cache",
+				"jdbc:postgresql://127.0.0.1:1/none", "", "");
+		unreachable.start();
+		try {
+			awaitTrue(() -> registry.get(ReferenceCacheService.RECONNECTS).counter().count() > 0);
+			assertEquals(0, registry.get(ReferenceCacheService.LISTENING).gauge().value());
+			assertFalse(unreachable.isListening());
+		} finally {
+			unreachable.destroy();
+		}
+		assertEquals(1, first.getBean(MeterRegistry.class).get(ReferenceCacheService.LISTENING)
+				.gauge().value());
+	}
+
+	private static long lagCount(ConfigurableApplicationContext node) {
+		return node.getBean(MeterRegistry.class).get(ReferenceCacheService.LAG).timer().count();
+	}
+
+	private static ConfigurableApplicationContext startNode() {
+		return new SpringApplicationBuilder(JavaProjectApplication.class)
+				.web(WebApplicationType.NONE)
+				.logStartupInfo(false)
+				.run("--spring.jpa.show-sql=false", "--spring.main.banner-mode=off",
+						"--dispatch.auto.scheduled=false");
+	}
+
+	private static void awaitTrue(BooleanSupplier condition) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline,
+					"Условие не выполнилось за " + WAIT_SECONDS + " с");
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new AssertionError(e);
+			}
+		}
+	}
+}
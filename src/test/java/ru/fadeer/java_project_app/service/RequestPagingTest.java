@@ -0,0 +1,98 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.dto.Request.RequestPage;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Проверка постраничного вывода заявок по курсору в обе стороны. Все заявки теста поданы в одно
+/// время, позже любых настоящих, поэтому составляют начало списка, а порядок внутри них задает
+/// только номер заявки
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class RequestPagingTest {
+
+	private static final int SIZE = 2;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private RequestService requestService;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	/// Номера заявок теста от новых к старым, как в списке
+	private final List<Integer> newestFirst = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		LocalDateTime tie = LocalDateTime.now().plusYears(10).truncatedTo(ChronoUnit.SECONDS);
+		for (int i = 0; i < 5; i++) {
+			Request request = new Request("Прорыв трубы", Request.Priority.Low, "ул. Страничная, " + i,
+					"Иванов", tie, null);
+			entityManager.persist(request);
+			newestFirst.addFirst(request.getRequestId());
+		}
+		entityManager.flush();
+	}
+
+	@Test
+	void pagesThroughTieForwardAndBack() {
+		RequestPage first = requestService.findPage(null, null, null, SIZE);
+		assertEquals(newestFirst.subList(0, 2), ids(first));
+		assertFalse(first.hasPrev());
+
+		RequestPage second = requestService.findPage(null, first.nextCursor(), null, SIZE);
+		assertEquals(newestFirst.subList(2, 4), ids(second));
+		assertTrue(second.hasPrev());
+
+		RequestPage third = requestService.findPage(null, second.nextCursor(), null, SIZE);
+		assertEquals(newestFirst.get(4), ids(third).getFirst());
+
+		RequestPage back = requestService.findPage(null, null, third.prevCursor(), SIZE);
+		assertEquals(ids(second), ids(back));
+		assertTrue(back.hasPrev());
+
+		RequestPage start = requestService.findPage(null, null, back.prevCursor(), SIZE);
+		assertEquals(ids(first), ids(start));
+		assertFalse(start.hasPrev());
+	}
+
+	@Test
+	void malformedCursorShowsFirstPage() throws Exception {
+		for (String parameter : List.of("after", "before")) {
+			RequestPage page = (RequestPage) mockMvc.perform(get("/requests")
+							.param(parameter, "not-a-cursor")
+							.param("size", String.valueOf(SIZE)))
+					.andExpect(status().isOk())
+					.andExpect(model().attributeExists("page"))
+					.andReturn().getModelAndView().getModel().get("page");
+			assertEquals(newestFirst.subList(0, 2), ids(page));
+		}
+	}
+
+	private static List<Integer> ids(RequestPage page) {
+		return page.requests().stream().map(Request::getRequestId).toList();
+	}
+}
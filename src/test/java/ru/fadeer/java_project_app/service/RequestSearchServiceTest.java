@@ -0,0 +1,113 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+import ru.fadeer.java_project_app.dto.Request.RequestSearchHit;
+import ru.fadeer.java_project_app.dto.Request.RequestSearchPage;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Проверка поиска заявок: совпадение слов с учетом морфологии, опечатки в адресе, порядок по
+/// релевантности и страницы. Слова в данных выбраны так, чтобы не встречаться в других заявках БД
+@SpringBootTest
+@Transactional
+class RequestSearchServiceTest {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private RequestSearchService requestSearchService;
+
+	@Test
+	void findsWordFormsAndRanksAccidentTypeFirst() {
+		Integer inDescription = persist("Прорыв трубы", "ул. Садовая, 1", "Иванов",
+				"Подозрение на кавитацию в насосе");
+		Integer inType = persist("Кавитация насоса", "ул. Садовая, 2", "Петров", null);
+
+		List<Integer> found = ids(requestSearchService.search("кавитация", null, null));
+
+		assertEquals(List.of(inType, inDescription), found);
+	}
+
+	@Test
+	void toleratesTypoInStreetName() {
+		Integer id = persist("Обрыв линии", "ул. Тестоградская, 5", "Сидоров", null);
+
+		RequestSearchPage page = requestSearchService.search("Тестограцкая", null, null);
+
+		assertEquals(List.of(id), ids(page));
+		assertTrue(page.hits().getFirst().rank() > 0);
+	}
+
+	@Test
+	void pagesByOffset() {
+		for (int i = 1; i <= 3; i++) {
+			persist("Утечка газа", "ул. Постраничная, " + i, "Кузнецов", null);
+		}
+
+		RequestSearchPage first = requestSearchService.search("Постраничная", null, 2);
+		assertEquals(2, first.hits().size());
+		assertTrue(first.hasNext());
+		assertFalse(first.hasPrev());
+
+		RequestSearchPage second = requestSearchService.search("Постраничная",
+				first.nextOffset(), 2);
+		assertEquals(1, second.hits().size());
+		assertFalse(second.hasNext());
+		assertTrue(second.hasPrev());
+		assertFalse(ids(first).contains(second.hits().getFirst().requestId()));
+		assertFalse(first.truncated());
+	}
+
+	@Test
+	void ranksNewestCandidatesWhenOverLimit() {
+		Integer oldest = persist("Утечка газа", "ул. Предельная, 1", "Кузнецов", null, 30);
+		Integer middle = persist("Утечка газа", "ул. Предельная, 2", "Кузнецов", null, 20);
+		Integer newest = persist("Утечка газа", "ул. Предельная, 3", "Кузнецов", null, 10);
+		RequestSearchService limited = new RequestSearchService(2);
+		ReflectionTestUtils.setField(limited, "entityManager", entityManager);
+
+		RequestSearchPage page = limited.search("Предельная", null, null);
+
+		assertTrue(page.truncated());
+		assertEquals(Set.of(newest, middle), Set.copyOf(ids(page)));
+		assertFalse(ids(page).contains(oldest));
+	}
+
+	@Test
+	void rejectsShortQuery() {
+		assertThrows(IllegalArgumentException.class,
+				() -> requestSearchService.search(" ул ", null, null));
+	}
+
+	private Integer persist(String accidentType, String address, String applicant,
+			String description) {
+		return persist(accidentType, address, applicant, description, 10);
+	}
+
+	private Integer persist(String accidentType, String address, String applicant,
+			String description, int minutesAgo) {
+		Request request = new Request(accidentType, Request.Priority.Medium, address, applicant,
+				LocalDateTime.now().minusMinutes(minutesAgo), description);
+		entityManager.persist(request);
+		entityManager.flush();
+		return request.getRequestId();
+	}
+
+	private static List<Integer> ids(RequestSearchPage page) {
+		return page.hits().stream().map(RequestSearchHit::requestId).toList();
+	}
+}
@@ -0,0 +1,170 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.fadeer.java_project_app.TestData;
+import ru.fadeer.java_project_app.model.Assignment;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Проверка второго уровня кэша Hibernate на страницах просмотра: первый просмотр выполняет один
+/// запрос, повторный читается из кэша без запросов. Проверяется и сброс кэша после удаления
+/// назначения и после удаления заявки SQL-запросами. Кэш заполняется только зафиксированными
+/// данными, поэтому тест работает без общей тестовой транзакции и сам удаляет созданные строки
+@SpringBootTest(properties = "dispatch.auto.scheduled=false")
+class SecondLevelCacheTest {
+
+	private static final int ROWS = 5;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private AssignmentService assignmentService;
+
+	@Autowired
+	private RequestService requestService;
+
+	@Autowired
+	private BrigadeService brigadeService;
+
+	@Autowired
+	private AnalyticsService analyticsService;
+
+	private final List<Integer> brigadeIds = new ArrayList<>();
+	private final List<Integer> requestIds = new ArrayList<>();
+
+	private Statistics statistics;
+	private Integer requestId;
+	private Integer assignmentId;
+
+	@BeforeEach
+	void setUp() {
+		requestId = newRequest();
+		for (int i = 0; i < ROWS; i++) {
+			Integer brigadeId = newBrigade("l2-test-" + i);
+			Assignment assignment = assignmentService.assignBrigade(requestId, brigadeId);
+			if (i == 0) {
+				assignmentId = assignment.getAssignmentId();
+			}
+		}
+
+		entityManagerFactory.getCache().evictAll();
+		statistics = TestData.statistics(entityManagerFactory);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		requestIds.forEach(requestService::deleteById);
+		brigadeIds.forEach(brigadeService::hardDelete);
+	}
+
+	@Test
+	void requestViewIsServedFromCache() {
+		Runnable view = () -> {
+			Request found = requestService.findByIdWithAssignments(requestId);
+			assertEquals(ROWS, found.getAssignments().size());
+			found.getAssignments().forEach(a -> a.getBrigade().getStatus());
+		};
+
+		assertEquals(1, statements(view));
+		assertEquals(0, statements(view));
+		assertTrue(statistics.getSecondLevelCacheHitCount() > ROWS);
+	}
+
+	@Test
+	void brigadeViewIsServedFromCache() {
+		Integer brigadeId = brigadeIds.getFirst();
+		Runnable view = () -> {
+			Brigade found = brigadeService.findByIdWithAssignments(brigadeId);
+			assertEquals(1, found.getAssignments().size());
+			found.getAssignments().forEach(a -> a.getRequest().getStatus());
+		};
+
+		assertEquals(1, statements(view));
+		assertEquals(0, statements(view));
+	}
+
+	@Test
+	void assignmentViewIsServedFromCache() {
+		Runnable view = () -> {
+			Assignment found = assignmentService.findById(assignmentId);
+			found.getBrigade().getBrigadeCode();
+			found.getRequest().getAccidentType();
+		};
+
+		assertEquals(1, statements(view));
+		assertEquals(0, statements(view));
+	}
+
+	@Test
+	void assignmentDeletionRefreshesCachedLists() {
+		Integer brigadeId = brigadeIds.getFirst();
+		assertEquals(ROWS, requestService.findByIdWithAssignments(requestId).getAssignments().size());
+		assertEquals(1, brigadeService.findByIdWithAssignments(brigadeId).getAssignments().size());
+
+		assignmentService.delete(assignmentId);
+
+		assertEquals(ROWS - 1,
+				requestService.findByIdWithAssignments(requestId).getAssignments().size());
+		assertEquals(0, brigadeService.findByIdWithAssignments(brigadeId).getAssignments().size());
+	}
+
+	@Test
+	void requestDeletionRefreshesCachedBrigades() {
+		Integer brigadeId = brigadeIds.getFirst();
+		Brigade cached = brigadeService.findByIdWithAssignments(brigadeId);
+		assertEquals(Brigade.Status.inRoad, cached.getStatus());
+		assertEquals(1, cached.getAssignments().size());
+
+		// Заявка удаляется SQL-запросами, которые освобождают бригаду в обход Hibernate
+		requestService.deleteById(requestId);
+		requestIds.remove(requestId);
+
+		Brigade found = brigadeService.findByIdWithAssignments(brigadeId);
+		assertEquals(Brigade.Status.free, found.getStatus());
+		assertTrue(found.getAssignments().isEmpty());
+	}
+
+	@Test
+	void analyticsRefreshKeepsEntityCache() {
+		Integer brigadeId = brigadeIds.getFirst();
+		brigadeService.findByIdWithAssignments(brigadeId);
+
+		analyticsService.refresh();
+
+		assertTrue(entityManagerFactory.getCache().contains(Brigade.class, brigadeId));
+	}
+
+	/// Количество подготовленных запросов при выполнении action
+	private long statements(Runnable action) {
+		statistics.clear();
+		action.run();
+		return statistics.getPrepareStatementCount();
+	}
+
+	private Integer newBrigade(String code) {
+		Integer id = brigadeService.create(TestData.brigade(code)).getBrigadeId();
+		brigadeIds.add(id);
+		return id;
+	}
+
+	private Integer newRequest() {
+		Request request = new Request("Прорыв трубы", Request.Priority.High, "ул. Кэшевая, 2",
+				"Иванов", LocalDateTime.now().minusMinutes(5), null);
+		Integer id = requestService.create(request).getRequestId();
+		requestIds.add(id);
+		return id;
+	}
+}
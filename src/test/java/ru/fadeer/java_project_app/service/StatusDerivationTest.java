@@ -0,0 +1,72 @@
+package ru.fadeer.java_project_app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import ru.fadeer.java_project_app.dto.Assignments.AssignmentPhaseCounts;
+import ru.fadeer.java_project_app.model.Brigade;
+import ru.fadeer.java_project_app.model.Request;
+
+/// Проверка вычисления статусов заявки и бригады по количеству назначений в фазах. Функции
+/// чистые, поэтому тест обходится без контекста Spring и БД
+class StatusDerivationTest {
+
+	@Test
+	void requestStatusFollowsMostAdvancedPhase() {
+		assertEquals(Request.Status.Not_Accepted, request(0, 0, 0, 0));
+		assertEquals(Request.Status.Accepted, request(1, 1, 0, 0));
+		assertEquals(Request.Status.Accepted, request(3, 3, 0, 0));
+		assertEquals(Request.Status.In_Progress, request(1, 0, 1, 0));
+		assertEquals(Request.Status.In_Progress, request(3, 2, 1, 0));
+		assertEquals(Request.Status.Completed, request(1, 0, 0, 1));
+		assertEquals(Request.Status.Completed, request(3, 1, 1, 1));
+	}
+
+	@Test
+	void inconsistentCountsLeaveRequestStatusUnchanged() {
+		assertNull(AssignmentService.deriveRequestStatus(new Counts(2, 1, 0, 0)));
+	}
+
+	@Test
+	void brigadeStatusFollowsOpenAssignments() {
+		assertEquals(Brigade.Status.free, brigade(0, 0, 0));
+		assertEquals(Brigade.Status.inRoad, brigade(1, 1, 0));
+		assertEquals(Brigade.Status.inRoad, brigade(2, 2, 0));
+		assertEquals(Brigade.Status.inPlace, brigade(1, 0, 1));
+		assertEquals(Brigade.Status.inPlace, brigade(2, 1, 1));
+	}
+
+	private static Request.Status request(long total, long pending, long started, long ended) {
+		return AssignmentService.deriveRequestStatus(new Counts(total, pending, started, ended));
+	}
+
+	/// Статус бригады по незавершенным назначениям: завершенных среди них нет
+	private static Brigade.Status brigade(long total, long pending, long started) {
+		return AssignmentService.deriveBrigadeStatus(new Counts(total, pending, started, 0));
+	}
+
+	private record Counts(long total, long pending, long started, long ended)
+			implements AssignmentPhaseCounts {
+
+		@Override
+		public long getTotal() {
+			return total;
+		}
+
+		@Override
+		public long getPending() {
+			return pending;
+		}
+
+		@Override
+		public long getStarted() {
+			return started;
+		}
+
+		@Override
+		public long getEnded() {
+			return ended;
+		}
+	}
+}